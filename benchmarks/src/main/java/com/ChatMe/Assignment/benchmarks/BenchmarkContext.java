@@ -0,0 +1,50 @@
+package com.ChatMe.Assignment.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Minimal Spring context around the application components under benchmark.
+ * Component classes are registered as they are, so @Value defaults, @PostConstruct and
+ * @EventListener behave like in the application; infrastructure (repositories, broker channel)
+ * is supplied by the benchmark.
+ */
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * The JSON mapper as Spring Boot configures it for the application
+     */
+    public static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    public static AnnotationConfigApplicationContext start(Map<String, Object> properties,
+                                                           Consumer<AnnotationConfigApplicationContext> beans,
+                                                           Class<?>... components) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().setConversionService(DefaultConversionService.getSharedInstance());
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", properties));
+
+        context.registerBean(ObjectMapper.class, BenchmarkContext::objectMapper);
+        context.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+        beans.accept(context);
+        context.register(components);
+
+        context.refresh();
+        return context;
+    }
+}
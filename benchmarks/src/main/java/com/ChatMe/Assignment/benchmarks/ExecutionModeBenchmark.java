@@ -0,0 +1,123 @@
+package com.ChatMe.Assignment.benchmarks;
+
+import com.ChatMe.Assignment.config.ExecutionModeConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client inbound channel with handlers that block (a MongoDB save, a notification call), on
+ * Spring's default platform-thread pool versus the virtual-thread executor used with
+ * chat.execution.mode=virtual. Each operation is one frame from every connected session, so
+ * frames/s = score x sessions. The platform pool tops out at pool size / blocking time frames/s
+ * however many sessions are connected; virtual threads keep scaling with the session count.
+ *
+ * The virtual variant needs Java 21 or newer; on older JVMs its setup fails and JMH moves on.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExecutionModeBenchmark {
+
+    private static final byte[] PAYLOAD =
+            "{\"senderId\":\"sender-uid-0001\",\"receiverId\":\"receiver-uid-0002\",\"message\":\"Hey!\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    @Param({"100", "1000"})
+    public int sessions;
+
+    // Time a handler spends blocked per frame
+    @Param({"5"})
+    public int blockingMillis;
+
+    private AnnotationConfigApplicationContext context;
+    private ThreadPoolTaskExecutor platformPool;
+    private ExecutorSubscribableChannel inboundChannel;
+    private Message<?>[] frames;
+
+    private volatile CountDownLatch handled;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(Map.of("chat.execution.mode", mode), beans -> {
+        }, ExecutionModeConfig.class);
+        ExecutionModeConfig executionMode = context.getBean(ExecutionModeConfig.class);
+
+        Executor executor;
+        if (executionMode.isVirtual()) {
+            executor = executionMode.virtualThreadExecutor("ws-inbound-");
+        } else if ("virtual".equals(mode)) {
+            throw new IllegalStateException("Virtual threads need Java 21 or newer");
+        } else {
+            // What Spring configures for the client inbound channel when no executor is set
+            platformPool = new ThreadPoolTaskExecutor();
+            platformPool.setCorePoolSize(Runtime.getRuntime().availableProcessors() * 2);
+            platformPool.setAllowCoreThreadTimeOut(true);
+            platformPool.setThreadNamePrefix("clientInboundChannel-");
+            platformPool.initialize();
+            executor = platformPool;
+        }
+
+        inboundChannel = new ExecutorSubscribableChannel(executor);
+        inboundChannel.subscribe(message -> {
+            try {
+                Thread.sleep(blockingMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            handled.countDown();
+        });
+
+        frames = new Message<?>[sessions];
+        for (int i = 0; i < sessions; i++) {
+            frames[i] = MessageBuilder.withPayload(PAYLOAD)
+                    .setHeader(SimpMessageHeaderAccessor.SESSION_ID_HEADER, "session-" + i)
+                    .build();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (platformPool != null) {
+            platformPool.shutdown();
+        }
+        context.close();
+    }
+
+    @Benchmark
+    public void frameFromEverySession() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(sessions);
+        handled = latch;
+        for (Message<?> frame : frames) {
+            inboundChannel.send(frame);
+        }
+        latch.await();
+    }
+}
@@ -0,0 +1,233 @@
+package com.ChatMe.Assignment.benchmarks;
+
+import com.ChatMe.Assignment.model.ConversationSummary;
+import com.ChatMe.Assignment.model.Message;
+import com.ChatMe.Assignment.model.User;
+import com.ChatMe.Assignment.repository.ConversationSummaryRepository;
+import com.ChatMe.Assignment.repository.MessageRepository;
+import com.ChatMe.Assignment.repository.UserRepository;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Limit;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * In-memory stand-ins for the Mongo repositories, so the services can be benchmarked
+ * without a database. Only the methods the benchmarked code paths call are implemented;
+ * everything else throws UnsupportedOperationException.
+ *
+ * Each conversation keeps at most maxMessagesPerConversation messages (oldest dropped first),
+ * so long benchmark runs don't grow the heap without bound.
+ */
+public final class InMemoryRepositories {
+
+    private static final Comparator<Message> NEWEST_FIRST = Comparator
+            .comparing(Message::getTimestamp)
+            .thenComparing(Message::getId)
+            .reversed();
+
+    private InMemoryRepositories() {
+    }
+
+    public static MessageRepository messageRepository(int maxMessagesPerConversation) {
+        MessageStore store = new MessageStore(maxMessagesPerConversation);
+        return proxy(MessageRepository.class, (proxy, method, args) -> switch (method.getName()) {
+            case "save", "insert", "saveAll" -> store.save(args[0]);
+            case "findLatestMessagesInConversation" ->
+                    store.newestFirst((String) args[0], message -> true, (Limit) args[1]);
+            case "findMessagesInConversationBefore" ->
+                    store.newestFirst((String) args[0], before((LocalDateTime) args[1], (ObjectId) args[2]), (Limit) args[3]);
+            case "findMessagesInConversationAfter" ->
+                    store.oldestFirst((String) args[0], after((LocalDateTime) args[1], (ObjectId) args[2]), (Limit) args[3]);
+            case "findByConversationIdOrderByTimestampAsc" ->
+                    store.oldestFirst((String) args[0], message -> true, Limit.unlimited());
+            case "streamConversation" ->
+                    store.oldestFirst((String) args[0], message -> true, Limit.unlimited()).stream();
+            case "count" -> store.count();
+            default -> unsupported(method.getName());
+        });
+    }
+
+    public static UserRepository userRepository(List<User> users) {
+        Map<String, User> byId = new ConcurrentHashMap<>();
+        users.forEach(user -> byId.put(user.getUid(), user));
+        return proxy(UserRepository.class, (proxy, method, args) -> switch (method.getName()) {
+            case "findById" -> Optional.ofNullable(byId.get((String) args[0]));
+            case "save" -> {
+                User user = (User) args[0];
+                byId.put(user.getUid(), user);
+                yield user;
+            }
+            case "count" -> (long) byId.size();
+            default -> unsupported(method.getName());
+        });
+    }
+
+    public static ConversationSummaryRepository conversationSummaryRepository() {
+        Map<String, ConversationSummary> byId = new HashMap<>();
+        return proxy(ConversationSummaryRepository.class, (proxy, method, args) -> {
+            synchronized (byId) {
+                return switch (method.getName()) {
+                    case "recordMessages" -> {
+                        for (Object document : (List<?>) args[0]) {
+                            Message message = (Message) document;
+                            recordMessage(byId, message.getSenderId(), message.getReceiverId(), message, 0);
+                            if (!message.getReceiverId().equals(message.getSenderId())) {
+                                recordMessage(byId, message.getReceiverId(), message.getSenderId(), message, 1);
+                            }
+                        }
+                        yield null;
+                    }
+                    case "markRead" -> {
+                        // Messages after readUpTo are not counted individually here; the summary just stays unread
+                        ConversationSummary summary = byId.get(ConversationSummary.createId((String) args[0], (String) args[1]));
+                        LocalDateTime readUpTo = (LocalDateTime) args[2];
+                        if (summary != null && (readUpTo == null || !summary.getLastTimestamp().isAfter(readUpTo))) {
+                            summary.setUnreadCount(0);
+                            summary.setLastReadAt(readUpTo != null ? readUpTo : LocalDateTime.now());
+                        }
+                        yield Optional.ofNullable(summary).map(InMemoryRepositories::copy);
+                    }
+                    case "findByUserIdOrderByLastTimestampDesc" -> byId.values().stream()
+                            .filter(summary -> summary.getUserId().equals(args[0]))
+                            .sorted(Comparator.comparing(ConversationSummary::getLastTimestamp).reversed())
+                            .limit(((Limit) args[1]).max())
+                            .map(InMemoryRepositories::copy)
+                            .toList();
+                    default -> unsupported(method.getName());
+                };
+            }
+        });
+    }
+
+    private static void recordMessage(Map<String, ConversationSummary> byId, String userId, String peerId,
+                                      Message message, long unread) {
+        ConversationSummary summary = byId.computeIfAbsent(
+                ConversationSummary.createId(userId, message.getConversationId()),
+                id -> new ConversationSummary(id, userId, peerId, message.getConversationId(),
+                        null, null, null, null, 0, null));
+        summary.setLastMessageId(message.getId());
+        summary.setLastSenderId(message.getSenderId());
+        summary.setLastMessage(message.getMessage());
+        summary.setLastTimestamp(message.getTimestamp());
+        summary.setUnreadCount(summary.getUnreadCount() + unread);
+    }
+
+    private static ConversationSummary copy(ConversationSummary summary) {
+        return new ConversationSummary(summary.getId(), summary.getUserId(), summary.getPeerId(),
+                summary.getConversationId(), summary.getLastMessageId(), summary.getLastSenderId(),
+                summary.getLastMessage(), summary.getLastTimestamp(), summary.getUnreadCount(), summary.getLastReadAt());
+    }
+
+    private static Predicate<Message> before(LocalDateTime timestamp, ObjectId id) {
+        return message -> message.getTimestamp().isBefore(timestamp)
+                || (message.getTimestamp().isEqual(timestamp) && message.getId().compareTo(id.toHexString()) < 0);
+    }
+
+    private static Predicate<Message> after(LocalDateTime timestamp, ObjectId id) {
+        return message -> message.getTimestamp().isAfter(timestamp)
+                || (message.getTimestamp().isEqual(timestamp) && message.getId().compareTo(id.toHexString()) > 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler repositoryMethods) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> "InMemory" + type.getSimpleName();
+                };
+            }
+            return repositoryMethods.invoke(proxy, method, args);
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object unsupported(String method) {
+        throw new UnsupportedOperationException(method + " is not implemented by the in-memory stand-in");
+    }
+
+    private static final class MessageStore {
+
+        private final int maxMessagesPerConversation;
+
+        // conversationId -> messages in insertion order
+        private final Map<String, ArrayDeque<Message>> conversations = new HashMap<>();
+        private long count;
+
+        private MessageStore(int maxMessagesPerConversation) {
+            this.maxMessagesPerConversation = maxMessagesPerConversation;
+        }
+
+        private synchronized Object save(Object documents) {
+            if (documents instanceof Message message) {
+                add(message);
+                return message;
+            }
+            List<Message> saved = new ArrayList<>();
+            for (Object document : (Iterable<?>) documents) {
+                Message message = (Message) document;
+                add(message);
+                saved.add(message);
+            }
+            return saved;
+        }
+
+        private void add(Message message) {
+            if (message.getId() == null) {
+                message.setId(new ObjectId().toHexString());
+            }
+            ArrayDeque<Message> messages = conversations.computeIfAbsent(message.getConversationId(), key -> new ArrayDeque<>());
+            messages.addLast(message);
+            count++;
+            if (messages.size() > maxMessagesPerConversation) {
+                messages.removeFirst();
+                count--;
+            }
+        }
+
+        private synchronized List<Message> newestFirst(String conversationId, Predicate<Message> filter, Limit limit) {
+            ArrayDeque<Message> messages = conversations.get(conversationId);
+            // Insertion order is timestamp order, so walking from the tail yields the newest first
+            List<Message> result = collect(messages != null ? messages.descendingIterator() : null, filter, limit);
+            result.sort(NEWEST_FIRST);
+            return result;
+        }
+
+        private synchronized List<Message> oldestFirst(String conversationId, Predicate<Message> filter, Limit limit) {
+            ArrayDeque<Message> messages = conversations.get(conversationId);
+            List<Message> result = collect(messages != null ? messages.iterator() : null, filter, limit);
+            result.sort(NEWEST_FIRST.reversed());
+            return result;
+        }
+
+        private static List<Message> collect(Iterator<Message> messages, Predicate<Message> filter, Limit limit) {
+            List<Message> result = new ArrayList<>();
+            int max = limit.isLimited() ? limit.max() : Integer.MAX_VALUE;
+            while (messages != null && messages.hasNext() && result.size() < max) {
+                Message message = messages.next();
+                if (filter.test(message)) {
+                    result.add(message);
+                }
+            }
+            return result;
+        }
+
+        private synchronized long count() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.ChatMe.Assignment.benchmarks;
+
+import com.ChatMe.Assignment.dto.ChatMessageRequest;
+import com.ChatMe.Assignment.dto.TypingRequest;
+import com.ChatMe.Assignment.model.Message;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inbound frame handling: the typed record payloads against the Map&lt;String, String&gt;
+ * payloads the handlers used to take, plus the conversation id every chat frame derives.
+ * Run with -prof gc to compare allocation per frame.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InboundPayloadBenchmark {
+
+    private static final TypeReference<Map<String, String>> STRING_MAP = new TypeReference<>() {
+    };
+
+    private ObjectMapper objectMapper;
+    private byte[] chatFrame;
+    private byte[] typingFrame;
+
+    @Setup
+    public void setUp() {
+        objectMapper = BenchmarkContext.objectMapper();
+        chatFrame = ("{\"senderId\":\"sender-uid-0001\",\"receiverId\":\"receiver-uid-0002\","
+                + "\"message\":\"Hey, are we still on for tonight?\",\"senderName\":\"Alice\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        typingFrame = "{\"senderId\":\"sender-uid-0001\",\"receiverId\":\"receiver-uid-0002\",\"isTyping\":\"true\"}"
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void chatFrameAsMap(Blackhole blackhole) throws Exception {
+        Map<String, String> payload = objectMapper.readValue(chatFrame, STRING_MAP);
+        String senderId = payload.get("senderId");
+        String receiverId = payload.get("receiverId");
+        String message = payload.get("message");
+        if (senderId == null || receiverId == null || message == null) {
+            throw new IllegalStateException("invalid frame");
+        }
+        blackhole.consume(Message.createConversationId(senderId, receiverId));
+        blackhole.consume(message);
+        blackhole.consume(payload.get("senderName"));
+    }
+
+    @Benchmark
+    public void chatFrameAsRecord(Blackhole blackhole) throws Exception {
+        ChatMessageRequest payload = objectMapper.readValue(chatFrame, ChatMessageRequest.class);
+        blackhole.consume(Message.createConversationId(payload.senderId(), payload.receiverId()));
+        blackhole.consume(payload.message());
+        blackhole.consume(payload.senderName());
+    }
+
+    @Benchmark
+    public boolean typingFrameAsMap() throws Exception {
+        Map<String, String> payload = objectMapper.readValue(typingFrame, STRING_MAP);
+        if (payload.get("senderId") == null || payload.get("receiverId") == null) {
+            throw new IllegalStateException("invalid frame");
+        }
+        return Boolean.parseBoolean(payload.get("isTyping"));
+    }
+
+    @Benchmark
+    public boolean typingFrameAsRecord() throws Exception {
+        return objectMapper.readValue(typingFrame, TypingRequest.class).isTyping();
+    }
+
+    @Benchmark
+    public String createConversationId() {
+        return Message.createConversationId("sender-uid-0001", "receiver-uid-0002");
+    }
+}
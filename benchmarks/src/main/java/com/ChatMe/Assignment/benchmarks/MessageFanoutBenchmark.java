@@ -0,0 +1,146 @@
+package com.ChatMe.Assignment.benchmarks;
+
+import com.ChatMe.Assignment.config.ExecutionModeConfig;
+import com.ChatMe.Assignment.model.Message;
+import com.ChatMe.Assignment.repository.ConversationSummaryRepository;
+import com.ChatMe.Assignment.repository.MessageRepository;
+import com.ChatMe.Assignment.repository.UserRepository;
+import com.ChatMe.Assignment.service.ConversationSummaryService;
+import com.ChatMe.Assignment.service.FirebaseNotificationService;
+import com.ChatMe.Assignment.service.MessageService;
+import com.ChatMe.Assignment.service.MessageWriteBehindBuffer;
+import com.ChatMe.Assignment.service.RecentMessageCache;
+import com.ChatMe.Assignment.service.UserProfileCache;
+import com.ChatMe.Assignment.websocket.ChatWebSocketController;
+import com.ChatMe.Assignment.websocket.ConversationExecutor;
+import com.ChatMe.Assignment.websocket.MessageFanout;
+import com.ChatMe.Assignment.websocket.PresenceRegistry;
+import com.ChatMe.Assignment.websocket.TypingIndicatorThrottle;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.web.socket.messaging.DefaultSimpUserRegistry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChatWebSocketController.broadcastMessage against an in-memory broker channel, per routing
+ * profile, next to the previous approach of one convertAndSend (and one Jackson pass) per
+ * destination.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageFanoutBenchmark {
+
+    /**
+     * Broker channel that only counts what reaches it
+     */
+    public static class CountingChannel implements MessageChannel {
+        private long sent;
+        private org.springframework.messaging.Message<?> last;
+
+        @Override
+        public boolean send(org.springframework.messaging.Message<?> message, long timeout) {
+            sent++;
+            last = message;
+            return true;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Controller {
+
+        @Param({"user-queue", "user-queue,conversation-topic,user-topic"})
+        public String destinations;
+
+        private AnnotationConfigApplicationContext context;
+        private ChatWebSocketController controller;
+
+        @Setup
+        public void setUp() {
+            CountingChannel channel = new CountingChannel();
+            // The conversation executor runs inline, so each call covers the whole save and fan-out
+            context = BenchmarkContext.start(
+                    Map.of("chat.fanout.destinations", destinations, "chat.conversation-executor.enabled", "false"),
+                    beans -> {
+                        beans.registerBean(MessageRepository.class, () -> InMemoryRepositories.messageRepository(1000));
+                        beans.registerBean(UserRepository.class, () -> InMemoryRepositories.userRepository(List.of()));
+                        beans.registerBean(ConversationSummaryRepository.class, InMemoryRepositories::conversationSummaryRepository);
+                        beans.registerBean(SimpMessagingTemplate.class, () -> new SimpMessagingTemplate(channel));
+                        beans.registerBean(SimpUserRegistry.class, DefaultSimpUserRegistry::new);
+                    },
+                    ChatWebSocketController.class, MessageService.class, MessageWriteBehindBuffer.class,
+                    RecentMessageCache.class, FirebaseNotificationService.class, MessageFanout.class,
+                    PresenceRegistry.class, TypingIndicatorThrottle.class, UserProfileCache.class, ExecutionModeConfig.class,
+                    ConversationExecutor.class, ConversationSummaryService.class
+            );
+            controller = context.getBean(ChatWebSocketController.class);
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class PerCallConversion {
+
+        private SimpMessagingTemplate messagingTemplate;
+
+        @Setup
+        public void setUp() {
+            messagingTemplate = new SimpMessagingTemplate(new CountingChannel());
+            messagingTemplate.setMessageConverter(new MappingJackson2MessageConverter(BenchmarkContext.objectMapper()));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Payload {
+
+        private Message message;
+
+        @Setup
+        public void setUp() {
+            message = new Message("sender-uid-0001", "receiver-uid-0002", "Hey, are we still on for tonight?");
+            message.setId(new ObjectId().toHexString());
+        }
+    }
+
+    @Benchmark
+    public void broadcastMessage(Controller controller, Payload payload) {
+        controller.controller.broadcastMessage(payload.message);
+    }
+
+    @Benchmark
+    public void convertAndSendPerDestination(PerCallConversion baseline, Payload payload) {
+        // The five sends handleChatMessage made before the fan-out was serialized once
+        Message message = payload.message;
+        SimpMessagingTemplate template = baseline.messagingTemplate;
+        template.convertAndSendToUser(message.getReceiverId(), "/queue/messages", message);
+        template.convertAndSendToUser(message.getSenderId(), "/queue/messages", message);
+        template.convertAndSend("/topic/chat/" + message.getConversationId(), message);
+        template.convertAndSend("/topic/chat/" + message.getSenderId(), message);
+        template.convertAndSend("/topic/chat/" + message.getReceiverId(), message);
+    }
+}
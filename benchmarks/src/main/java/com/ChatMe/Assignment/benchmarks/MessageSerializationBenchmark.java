@@ -0,0 +1,62 @@
+package com.ChatMe.Assignment.benchmarks;
+
+import com.ChatMe.Assignment.model.Message;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson cost of a chat message on the wire: the outbound fan-out payload and the
+ * read-back of a stored message.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageSerializationBenchmark {
+
+    // Message text length in characters
+    @Param({"16", "256", "2048"})
+    public int length;
+
+    private ObjectMapper objectMapper;
+    private Message message;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = BenchmarkContext.objectMapper();
+        message = new Message("sender-uid-0001", "receiver-uid-0002", "x".repeat(length));
+        message.setId(new ObjectId().toHexString());
+        json = objectMapper.writeValueAsBytes(message);
+    }
+
+    @Benchmark
+    public byte[] writeValueAsBytes() throws Exception {
+        return objectMapper.writeValueAsBytes(message);
+    }
+
+    @Benchmark
+    public String writeValueAsString() throws Exception {
+        return objectMapper.writeValueAsString(message);
+    }
+
+    @Benchmark
+    public Message readValue() throws Exception {
+        return objectMapper.readValue(json, Message.class);
+    }
+}
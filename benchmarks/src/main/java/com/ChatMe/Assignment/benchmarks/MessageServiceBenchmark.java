@@ -0,0 +1,107 @@
+package com.ChatMe.Assignment.benchmarks;
+
+import com.ChatMe.Assignment.model.Message;
+import com.ChatMe.Assignment.model.MessagePage;
+import com.ChatMe.Assignment.repository.ConversationSummaryRepository;
+import com.ChatMe.Assignment.repository.MessageRepository;
+import com.ChatMe.Assignment.service.ConversationSummaryService;
+import com.ChatMe.Assignment.service.MessageService;
+import com.ChatMe.Assignment.service.MessageWriteBehindBuffer;
+import com.ChatMe.Assignment.service.RecentMessageCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MessageService ingest and history reads against the in-memory repository stand-in,
+ * with and without the write-behind buffer. Measures the service's own overhead (ids,
+ * caching, queueing, paging) rather than MongoDB.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageServiceBenchmark {
+
+    private static final String SENDER = "sender-uid-0001";
+    private static final String RECEIVER = "receiver-uid-0002";
+
+    @Param({"false", "true"})
+    public boolean writeBehind;
+
+    private AnnotationConfigApplicationContext context;
+    private MessageService messageService;
+    private String olderPageCursor;
+
+    @Setup
+    public void setUp() throws InterruptedException {
+        context = BenchmarkContext.start(
+                Map.of("chat.messages.write-behind.enabled", String.valueOf(writeBehind)),
+                beans -> {
+                    beans.registerBean(MessageRepository.class, () -> InMemoryRepositories.messageRepository(10_000));
+                    beans.registerBean(ConversationSummaryRepository.class, InMemoryRepositories::conversationSummaryRepository);
+                },
+                MessageService.class, MessageWriteBehindBuffer.class, RecentMessageCache.class, ConversationSummaryService.class
+        );
+        messageService = context.getBean(MessageService.class);
+
+        for (int i = 0; i < 1000; i++) {
+            messageService.createMessage(i % 2 == 0 ? SENDER : RECEIVER, i % 2 == 0 ? RECEIVER : SENDER, "message " + i);
+        }
+        awaitWriteBehind(context.getBean(MessageWriteBehindBuffer.class));
+        olderPageCursor = messageService.getChatHistoryPage(SENDER, RECEIVER, null, null, 50).getNextCursor();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Wait until the seeded history has been committed, so reads measure the steady state
+     * rather than a history that is still in the write-behind queue
+     */
+    private static void awaitWriteBehind(MessageWriteBehindBuffer buffer) throws InterruptedException {
+        while (true) {
+            Map<String, Object> stats = buffer.getStats();
+            long settled = ((Number) stats.get("flushedMessages")).longValue() + ((Number) stats.get("failed")).longValue();
+            if (settled >= ((Number) stats.get("enqueued")).longValue()) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Message createMessage() {
+        return messageService.createMessage(SENDER, RECEIVER, "Hey, are we still on for tonight?");
+    }
+
+    @Benchmark
+    public List<Message> recentHistory() {
+        return messageService.getRecentChatHistory(SENDER, RECEIVER);
+    }
+
+    @Benchmark
+    public MessagePage historyPage() {
+        return messageService.getChatHistoryPage(SENDER, RECEIVER, olderPageCursor, null, 50);
+    }
+}
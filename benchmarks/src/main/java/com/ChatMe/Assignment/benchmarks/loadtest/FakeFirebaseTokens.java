@@ -0,0 +1,56 @@
+package com.ChatMe.Assignment.benchmarks.loadtest;
+
+import com.ChatMe.Assignment.service.FirebaseTokenVerifier;
+import com.google.firebase.auth.FirebaseToken;
+
+import java.lang.reflect.Constructor;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Offline stand-in for Firebase ID tokens. A load-test token is "loadtest:" followed by the uid,
+ * and the verifier decodes it into a FirebaseToken without a network call or signature check.
+ * Tokens expire an hour after verification, so FirebaseTokenService caches them as usual.
+ */
+final class FakeFirebaseTokens {
+
+    private static final String PREFIX = "loadtest:";
+
+    // FirebaseToken has no public constructor; the SDK builds it from the decoded claims
+    private static final Constructor<FirebaseToken> CONSTRUCTOR;
+
+    static {
+        try {
+            CONSTRUCTOR = FirebaseToken.class.getDeclaredConstructor(Map.class);
+            CONSTRUCTOR.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private FakeFirebaseTokens() {
+    }
+
+    static String tokenFor(String uid) {
+        return PREFIX + uid;
+    }
+
+    static FirebaseTokenVerifier verifier() {
+        return idToken -> {
+            if (idToken == null || !idToken.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("Not a load-test token");
+            }
+
+            Map<String, Object> claims = new HashMap<>();
+            claims.put("sub", idToken.substring(PREFIX.length()));
+            claims.put("exp", Instant.now().plus(1, ChronoUnit.HOURS).getEpochSecond());
+            try {
+                return CONSTRUCTOR.newInstance(claims);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot create FirebaseToken", e);
+            }
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package com.ChatMe.Assignment.benchmarks.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * End-to-end latencies and message counts of one load-test run.
+ * Only messages whose intended send time falls inside the measurement window are counted,
+ * so warm-up traffic and messages still in flight when the window opens are ignored.
+ */
+final class LatencyRecorder {
+
+    // Microsecond resolution, up to a minute, 3 significant digits
+    private final Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder sendErrors = new LongAdder();
+    private final LongAdder transportErrors = new LongAdder();
+
+    private volatile long windowStartNanos = Long.MAX_VALUE;
+    private volatile long windowEndNanos = Long.MAX_VALUE;
+
+    void openWindow(long startNanos, long endNanos) {
+        windowEndNanos = endNanos;
+        windowStartNanos = startNanos;
+    }
+
+    boolean inWindow(long sendNanos) {
+        return sendNanos >= windowStartNanos && sendNanos < windowEndNanos;
+    }
+
+    void recordSent(long sendNanos) {
+        if (inWindow(sendNanos)) {
+            sent.increment();
+        }
+    }
+
+    void recordReceived(long sendNanos, long receivedNanos) {
+        if (inWindow(sendNanos)) {
+            received.increment();
+            latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(receivedNanos - sendNanos),
+                    latencies.getHighestTrackableValue()));
+        }
+    }
+
+    void recordSendError(long sendNanos) {
+        if (inWindow(sendNanos)) {
+            sendErrors.increment();
+        }
+    }
+
+    void recordTransportError() {
+        transportErrors.increment();
+    }
+
+    long getSent() {
+        return sent.sum();
+    }
+
+    long getReceived() {
+        return received.sum();
+    }
+
+    long getSendErrors() {
+        return sendErrors.sum();
+    }
+
+    long getTransportErrors() {
+        return transportErrors.sum();
+    }
+
+    /**
+     * Latency at the given percentile (0-100) in milliseconds
+     */
+    double percentileMillis(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    double meanMillis() {
+        return latencies.getMean() / 1000.0;
+    }
+
+    double maxMillis() {
+        return latencies.getMaxValue() / 1000.0;
+    }
+}
@@ -0,0 +1,265 @@
+package com.ChatMe.Assignment.benchmarks.loadtest;
+
+import com.ChatMe.Assignment.AssignmentApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.web.socket.client.WebSocketClient;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end STOMP load test. Starts the application in-process with Firebase and MongoDB
+ * replaced by {@link OfflineBeans} and the notification function by a local stub, connects
+ * N clients to /ws and has each send chat messages at a fixed rate to the next client.
+ * Reports p50/p99/p999 send-to-receive latency, throughput and dropped messages per transport.
+ *
+ * Options (all optional):
+ *   --clients=100                simulated users (at least 2)
+ *   --rate=1                     messages per second per client
+ *   --warmup=10                  seconds before measuring starts (JIT, connection set-up)
+ *   --duration=30                measured seconds
+ *   --drain=5                    max seconds to wait for in-flight messages
+ *   --transports=native,sockjs   run one phase per transport
+ *   --message-bytes=64           approximate size of the message text
+ *   --destination=/topic/chat/{uid}  what each client subscribes to, like the web client
+ *                                    (/user/queue/messages for the personal queue)
+ *   --notification-delay-ms=0    response time of the stubbed notification function
+ *   --results=path.json          default target/loadtest-results/loadtest-{timestamp}.json
+ * Any other --key=value is passed to the application (e.g. --chat.fanout.destinations=user-queue).
+ */
+public final class LoadGenerator {
+
+    private static final Map<String, String> DEFAULTS = Map.of(
+            "clients", "100",
+            "rate", "1",
+            "warmup", "10",
+            "duration", "30",
+            "drain", "5",
+            "transports", "native,sockjs",
+            "message-bytes", "64",
+            "destination", "/topic/chat/{uid}",
+            "notification-delay-ms", "0",
+            "results", ""
+    );
+
+    private LoadGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>(DEFAULTS);
+        Map<String, String> applicationProperties = new LinkedHashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --key=value, got " + arg);
+            }
+            String key = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+            (DEFAULTS.containsKey(key) ? options : applicationProperties).put(key, value);
+        }
+
+        int clients = Integer.parseInt(options.get("clients"));
+        if (clients < 2) {
+            throw new IllegalArgumentException("--clients must be at least 2");
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        long notificationRequests;
+
+        try (NotificationFunctionStub notificationStub = new NotificationFunctionStub(Long.parseLong(options.get("notification-delay-ms")))) {
+            ConfigurableApplicationContext application = startApplication(clients, notificationStub, applicationProperties);
+            try {
+                int port = ((WebServerApplicationContext) application).getWebServer().getPort();
+                for (String transport : options.get("transports").split(",")) {
+                    results.add(run(transport.trim().toLowerCase(Locale.ROOT), port, clients, options));
+                }
+            } finally {
+                application.close();
+            }
+            notificationRequests = notificationStub.getRequests();
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("options", options);
+        report.put("applicationProperties", applicationProperties);
+        report.put("results", results);
+        report.put("notificationRequests", notificationRequests);
+        writeReport(report, options.get("results"));
+    }
+
+    private static ConfigurableApplicationContext startApplication(int clients, NotificationFunctionStub notificationStub,
+                                                                   Map<String, String> overrides) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("loadtest.clients", String.valueOf(clients));
+
+        // Firebase: fake token verifier from OfflineBeans, notification function on the local stub
+        properties.put("firebase.admin.enabled", "false");
+        properties.put("firebase.functions.base-url", notificationStub.baseUrl());
+
+        // MongoDB: in-memory repositories from OfflineBeans, nothing else touches the database
+        properties.put("spring.data.mongodb.repositories.type", "none");
+        properties.put("chat.mongo.create-indexes", "false");
+        properties.put("chat.migration.conversation-id.enabled", "false");
+        properties.put("chat.migration.conversation-summaries.enabled", "false");
+        properties.put("chat.users.search.enabled", "false");
+
+        // Per-message info logging would dominate the measurement
+        properties.put("logging.level.com.ChatMe.Assignment", "warn");
+        properties.put("logging.level.org.mongodb.driver", "warn");
+
+        properties.putAll(overrides);
+
+        List<String> args = new ArrayList<>();
+        properties.forEach((key, value) -> args.add("--" + key + "=" + value));
+
+        return new SpringApplicationBuilder(AssignmentApplication.class, OfflineBeans.class)
+                .run(args.toArray(String[]::new));
+    }
+
+    private static Map<String, Object> run(String transport, int port, int clients, Map<String, String> options)
+            throws Exception {
+        double rate = Double.parseDouble(options.get("rate"));
+        long warmupNanos = secondsToNanos(options.get("warmup"));
+        long durationNanos = secondsToNanos(options.get("duration"));
+        long drainNanos = secondsToNanos(options.get("drain"));
+        int messageBytes = Integer.parseInt(options.get("message-bytes"));
+
+        WebSocketStompClient stompClient = new WebSocketStompClient(webSocketClient(transport));
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+        String url = ("sockjs".equals(transport) ? "http" : "ws") + "://localhost:" + port + "/ws";
+
+        System.out.printf("%n[%s] connecting %d clients to %s%n", transport, clients, url);
+        LatencyRecorder recorder = new LatencyRecorder();
+        List<SimulatedClient> simulatedClients = new ArrayList<>(clients);
+        List<CompletableFuture<StompSession>> connections = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            // A ring: every client sends to the next one and receives from the previous one
+            String uid = OfflineBeans.uid(i);
+            SimulatedClient client = new SimulatedClient(uid, OfflineBeans.uid((i + 1) % clients),
+                    options.get("destination").replace("{uid}", uid), messageBytes, recorder);
+            simulatedClients.add(client);
+            connections.add(client.connect(stompClient, url));
+        }
+        CompletableFuture.allOf(connections.toArray(CompletableFuture[]::new)).get(60, TimeUnit.SECONDS);
+
+        ScheduledExecutorService senders = Executors.newScheduledThreadPool(
+                Math.max(2, Runtime.getRuntime().availableProcessors() / 2),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "loadtest-sender");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long start = System.nanoTime();
+        recorder.openWindow(start + warmupNanos, start + warmupNanos + durationNanos);
+
+        List<ScheduledFuture<?>> schedules = new ArrayList<>(clients);
+        for (SimulatedClient client : simulatedClients) {
+            // Spread the clients over one period so they don't all send on the same tick
+            long firstSend = start + ThreadLocalRandom.current().nextLong(periodNanos);
+            long[] sequence = new long[1];
+            schedules.add(senders.scheduleAtFixedRate(
+                    () -> client.send(firstSend + sequence[0]++ * periodNanos),
+                    firstSend - start, periodNanos, TimeUnit.NANOSECONDS));
+        }
+
+        System.out.printf("[%s] %d clients x %.1f msg/s, warm-up %ds, measuring %ds%n", transport, clients, rate,
+                TimeUnit.NANOSECONDS.toSeconds(warmupNanos), TimeUnit.NANOSECONDS.toSeconds(durationNanos));
+        TimeUnit.NANOSECONDS.sleep(warmupNanos + durationNanos);
+        schedules.forEach(schedule -> schedule.cancel(false));
+        senders.shutdown();
+        senders.awaitTermination(5, TimeUnit.SECONDS);
+
+        long drainDeadline = System.nanoTime() + drainNanos;
+        while (recorder.getReceived() < recorder.getSent() && System.nanoTime() < drainDeadline) {
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+
+        simulatedClients.forEach(SimulatedClient::disconnect);
+        stompClient.stop();
+
+        Map<String, Object> result = result(transport, clients, rate, durationNanos, recorder);
+        System.out.printf("[%s] sent %d, received %d, dropped %d, %.1f msg/s, p50 %.2f ms, p99 %.2f ms, p999 %.2f ms, max %.2f ms%n",
+                transport, result.get("sent"), result.get("received"), result.get("dropped"),
+                result.get("throughputPerSecond"), result.get("p50Millis"), result.get("p99Millis"),
+                result.get("p999Millis"), result.get("maxMillis"));
+        return result;
+    }
+
+    private static Map<String, Object> result(String transport, int clients, double rate, long durationNanos,
+                                              LatencyRecorder recorder) {
+        long sent = recorder.getSent();
+        long received = recorder.getReceived();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("transport", transport);
+        result.put("clients", clients);
+        result.put("ratePerClient", rate);
+        result.put("durationSeconds", TimeUnit.NANOSECONDS.toSeconds(durationNanos));
+        result.put("sent", sent);
+        result.put("received", received);
+        result.put("dropped", Math.max(0, sent - received));
+        result.put("sendErrors", recorder.getSendErrors());
+        result.put("transportErrors", recorder.getTransportErrors());
+        result.put("throughputPerSecond", received / (durationNanos / 1e9));
+        result.put("meanMillis", recorder.meanMillis());
+        result.put("p50Millis", recorder.percentileMillis(50));
+        result.put("p99Millis", recorder.percentileMillis(99));
+        result.put("p999Millis", recorder.percentileMillis(99.9));
+        result.put("maxMillis", recorder.maxMillis());
+        return result;
+    }
+
+    private static WebSocketClient webSocketClient(String transport) {
+        return switch (transport) {
+            case "native" -> new StandardWebSocketClient();
+            case "sockjs" -> new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient())));
+            default -> throw new IllegalArgumentException("Unknown transport " + transport + " (native or sockjs)");
+        };
+    }
+
+    private static void writeReport(Map<String, Object> report, String file) throws Exception {
+        Path path;
+        if (file.isEmpty()) {
+            Path directory = Path.of("target", "loadtest-results");
+            Files.createDirectories(directory);
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+            path = directory.resolve("loadtest-" + timestamp + ".json");
+        } else {
+            path = Path.of(file);
+        }
+
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+        System.out.printf("%nResults written to %s%n", path);
+    }
+
+    private static long secondsToNanos(String seconds) {
+        return (long) (Double.parseDouble(seconds) * 1e9);
+    }
+}
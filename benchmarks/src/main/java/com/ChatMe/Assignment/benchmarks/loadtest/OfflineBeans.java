@@ -0,0 +1,53 @@
+package com.ChatMe.Assignment.benchmarks.loadtest;
+
+import com.ChatMe.Assignment.benchmarks.InMemoryRepositories;
+import com.ChatMe.Assignment.model.User;
+import com.ChatMe.Assignment.repository.ConversationSummaryRepository;
+import com.ChatMe.Assignment.repository.MessageRepository;
+import com.ChatMe.Assignment.repository.UserRepository;
+import com.ChatMe.Assignment.service.FirebaseTokenVerifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Beans that stand in for Firebase and MongoDB while the application runs under the load generator.
+ * Passed to SpringApplication as a source rather than annotated with @Configuration, so the
+ * application's component scan never picks it up.
+ */
+class OfflineBeans {
+
+    static String uid(int client) {
+        return "loadtest-user-" + client;
+    }
+
+    @Bean
+    FirebaseTokenVerifier firebaseTokenVerifier() {
+        return FakeFirebaseTokens.verifier();
+    }
+
+    @Bean
+    MessageRepository messageRepository(@Value("${loadtest.max-messages-per-conversation:1000}") int maxMessagesPerConversation) {
+        return InMemoryRepositories.messageRepository(maxMessagesPerConversation);
+    }
+
+    @Bean
+    ConversationSummaryRepository conversationSummaryRepository() {
+        return InMemoryRepositories.conversationSummaryRepository();
+    }
+
+    @Bean
+    UserRepository userRepository(@Value("${loadtest.clients}") int clients) {
+        List<User> users = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            User user = new User();
+            user.setUid(uid(i));
+            user.setName("Load Test User " + i);
+            user.setEmail(uid(i) + "@loadtest.local");
+            users.add(user);
+        }
+        return InMemoryRepositories.userRepository(users);
+    }
+}
@@ -0,0 +1,119 @@
+package com.ChatMe.Assignment.benchmarks.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One simulated user: a STOMP session authenticated with a fake token, subscribed to the
+ * destination it receives its messages on, sending chat messages to one peer.
+ *
+ * The message text starts with the intended send time (System.nanoTime, shared by every client
+ * in the JVM) so the receiving client can compute the end-to-end latency. Using the intended
+ * rather than the actual send time means a sender that falls behind schedule shows up as
+ * latency instead of quietly lowering the offered load.
+ */
+@Slf4j
+final class SimulatedClient extends StompSessionHandlerAdapter {
+
+    private final String uid;
+    private final String peerUid;
+    private final String destination;
+    private final String padding;
+    private final LatencyRecorder recorder;
+
+    private volatile StompSession session;
+
+    SimulatedClient(String uid, String peerUid, String destination, int messageBytes, LatencyRecorder recorder) {
+        this.uid = uid;
+        this.peerUid = peerUid;
+        this.destination = destination;
+        this.padding = "x".repeat(Math.max(0, messageBytes - 20));
+        this.recorder = recorder;
+    }
+
+    CompletableFuture<StompSession> connect(WebSocketStompClient stompClient, String url) {
+        WebSocketHttpHeaders handshakeHeaders = new WebSocketHttpHeaders();
+        handshakeHeaders.add(HttpHeaders.AUTHORIZATION, "Bearer " + FakeFirebaseTokens.tokenFor(uid));
+        return stompClient.connectAsync(url, handshakeHeaders, new StompHeaders(), this);
+    }
+
+    @Override
+    public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
+        this.session = session;
+        session.subscribe(destination, this);
+    }
+
+    /**
+     * Send one message whose intended send time was sendNanos
+     */
+    void send(long sendNanos) {
+        StompSession current = session;
+        if (current == null || !current.isConnected()) {
+            recorder.recordSendError(sendNanos);
+            return;
+        }
+
+        try {
+            current.send("/app/chat", Map.of(
+                    "senderId", uid,
+                    "receiverId", peerUid,
+                    "message", sendNanos + ":" + padding,
+                    "senderName", uid
+            ));
+            recorder.recordSent(sendNanos);
+        } catch (Exception e) {
+            recorder.recordSendError(sendNanos);
+            log.debug("Send from {} failed: {}", uid, e.getMessage());
+        }
+    }
+
+    void disconnect() {
+        StompSession current = session;
+        if (current != null && current.isConnected()) {
+            current.disconnect();
+        }
+    }
+
+    @Override
+    public Type getPayloadType(StompHeaders headers) {
+        return Map.class;
+    }
+
+    @Override
+    public void handleFrame(StompHeaders headers, Object payload) {
+        long receivedNanos = System.nanoTime();
+
+        // The sender gets its own copy as well; only the peer's copy is measured
+        if (!(payload instanceof Map<?, ?> message) || !uid.equals(message.get("receiverId"))
+                || !(message.get("message") instanceof String text)) {
+            return;
+        }
+
+        int separator = text.indexOf(':');
+        if (separator > 0) {
+            recorder.recordReceived(Long.parseLong(text.substring(0, separator)), receivedNanos);
+        }
+    }
+
+    @Override
+    public void handleException(StompSession session, StompCommand command, StompHeaders headers,
+                                byte[] payload, Throwable exception) {
+        log.warn("STOMP error for {}: {}", uid, exception.getMessage());
+    }
+
+    @Override
+    public void handleTransportError(StompSession session, Throwable exception) {
+        recorder.recordTransportError();
+        log.warn("Transport error for {}: {}", uid, exception.getMessage());
+    }
+}
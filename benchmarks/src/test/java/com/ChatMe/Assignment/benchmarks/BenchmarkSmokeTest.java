@@ -0,0 +1,81 @@
+package com.ChatMe.Assignment.benchmarks;
+
+import com.ChatMe.Assignment.model.Message;
+import com.ChatMe.Assignment.model.MessagePage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.openjdk.jmh.infra.Blackhole;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every benchmark method once for each of its parameters, the way JMH calls them,
+ * so a broken setup shows up in the build rather than halfway through a benchmark run
+ */
+class BenchmarkSmokeTest {
+
+    private static final Blackhole BLACKHOLE = new Blackhole(
+            "Today's password is swordfish. I understand instantiating Blackholes directly is dangerous.");
+
+    @ParameterizedTest
+    @ValueSource(ints = {16, 256, 2048})
+    void messageSerialization(int length) throws Exception {
+        MessageSerializationBenchmark benchmark = new MessageSerializationBenchmark();
+        benchmark.length = length;
+        benchmark.setUp();
+
+        assertThat(benchmark.writeValueAsBytes()).isNotEmpty();
+        assertThat(benchmark.writeValueAsString()).contains("x".repeat(length));
+        assertThat(benchmark.readValue().getMessage()).hasSize(length);
+    }
+
+    @Test
+    void inboundPayload() throws Exception {
+        InboundPayloadBenchmark benchmark = new InboundPayloadBenchmark();
+        benchmark.setUp();
+
+        benchmark.chatFrameAsMap(BLACKHOLE);
+        benchmark.chatFrameAsRecord(BLACKHOLE);
+        assertThat(benchmark.typingFrameAsMap()).isTrue();
+        assertThat(benchmark.typingFrameAsRecord()).isTrue();
+        assertThat(benchmark.createConversationId()).isEqualTo(Message.createConversationId("receiver-uid-0002", "sender-uid-0001"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"user-queue", "user-queue,conversation-topic,user-topic"})
+    void messageFanout(String destinations) {
+        MessageFanoutBenchmark benchmark = new MessageFanoutBenchmark();
+        MessageFanoutBenchmark.Controller controller = new MessageFanoutBenchmark.Controller();
+        controller.destinations = destinations;
+        controller.setUp();
+        MessageFanoutBenchmark.PerCallConversion baseline = new MessageFanoutBenchmark.PerCallConversion();
+        baseline.setUp();
+        MessageFanoutBenchmark.Payload payload = new MessageFanoutBenchmark.Payload();
+        payload.setUp();
+
+        try {
+            benchmark.broadcastMessage(controller, payload);
+            benchmark.convertAndSendPerDestination(baseline, payload);
+        } finally {
+            controller.tearDown();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void messageService(boolean writeBehind) throws Exception {
+        MessageServiceBenchmark benchmark = new MessageServiceBenchmark();
+        benchmark.writeBehind = writeBehind;
+        benchmark.setUp();
+
+        try {
+            assertThat(benchmark.createMessage().getId()).isNotNull();
+            assertThat(benchmark.recentHistory()).isNotEmpty();
+            MessagePage page = benchmark.historyPage();
+            assertThat(page.getMessages()).hasSize(50);
+        } finally {
+            benchmark.tearDown();
+        }
+    }
+}
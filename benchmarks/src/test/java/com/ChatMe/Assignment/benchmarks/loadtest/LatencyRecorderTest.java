@@ -0,0 +1,68 @@
+package com.ChatMe.Assignment.benchmarks.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyRecorderTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    @Test
+    void nothingIsCountedBeforeTheWindowOpens() {
+        recorder.recordSent(0);
+        recorder.recordReceived(0, 5 * MILLI);
+        recorder.recordSendError(0);
+
+        assertThat(recorder.getSent()).isZero();
+        assertThat(recorder.getReceived()).isZero();
+        assertThat(recorder.getSendErrors()).isZero();
+    }
+
+    @Test
+    void onlyMessagesSentInsideTheWindowAreCounted() {
+        recorder.openWindow(10 * SECOND, 20 * SECOND);
+
+        // Warm-up traffic, and a message sent in the window but received after it
+        recorder.recordSent(9 * SECOND);
+        recorder.recordReceived(9 * SECOND, 10 * SECOND + MILLI);
+        recorder.recordSent(19 * SECOND);
+        recorder.recordReceived(19 * SECOND, 21 * SECOND);
+        recorder.recordSent(20 * SECOND);
+
+        assertThat(recorder.getSent()).isEqualTo(1);
+        assertThat(recorder.getReceived()).isEqualTo(1);
+        assertThat(recorder.maxMillis()).isCloseTo(2000, within(2.0));
+    }
+
+    @Test
+    void latencyIsMeasuredFromTheIntendedSendTime() {
+        recorder.openWindow(0, 101 * SECOND);
+        for (int i = 1; i <= 100; i++) {
+            long sendNanos = i * SECOND;
+            recorder.recordSent(sendNanos);
+            recorder.recordReceived(sendNanos, sendNanos + i * MILLI);
+        }
+
+        assertThat(recorder.percentileMillis(50)).isCloseTo(50, within(0.1));
+        assertThat(recorder.percentileMillis(99)).isCloseTo(99, within(0.1));
+        assertThat(recorder.maxMillis()).isCloseTo(100, within(0.1));
+        assertThat(recorder.meanMillis()).isCloseTo(50.5, within(0.1));
+    }
+
+    @Test
+    void latenciesAboveTheTrackableRangeAreClamped() {
+        recorder.openWindow(0, SECOND);
+
+        recorder.recordReceived(0, TimeUnit.MINUTES.toNanos(5));
+
+        assertThat(recorder.getReceived()).isEqualTo(1);
+        assertThat(recorder.maxMillis()).isCloseTo(60_000, within(60.0));
+    }
+}
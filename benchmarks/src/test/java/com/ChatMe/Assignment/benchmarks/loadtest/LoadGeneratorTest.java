@@ -0,0 +1,65 @@
+package com.ChatMe.Assignment.benchmarks.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Short load-test runs against the in-process application
+ */
+class LoadGeneratorTest {
+
+    @TempDir
+    private Path resultsDirectory;
+
+    @Test
+    void everyMessageSentInTheWindowIsReceivedOnEachTransport() throws Exception {
+        List<Map<String, Object>> results = run("run.json",
+                "--transports=native,sockjs");
+
+        assertThat(results).extracting(result -> result.get("transport")).containsExactly("native", "sockjs");
+        results.forEach(LoadGeneratorTest::assertNothingDropped);
+    }
+
+    @Test
+    void clientsCanReceiveOnTheirPersonalQueue() throws Exception {
+        List<Map<String, Object>> results = run("user-queue.json",
+                "--transports=native",
+                "--destination=/user/queue/messages",
+                "--chat.fanout.destinations=user-queue");
+
+        assertThat(results).hasSize(1);
+        assertNothingDropped(results.get(0));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> run(String resultsFile, String... options) throws Exception {
+        Path report = resultsDirectory.resolve(resultsFile);
+        String[] args = new String[options.length + 7];
+        args[0] = "--clients=4";
+        args[1] = "--rate=10";
+        args[2] = "--warmup=1";
+        args[3] = "--duration=2";
+        args[4] = "--drain=5";
+        args[5] = "--notification-delay-ms=0";
+        args[6] = "--results=" + report;
+        System.arraycopy(options, 0, args, 7, options.length);
+
+        LoadGenerator.main(args);
+
+        return (List<Map<String, Object>>) new ObjectMapper().readValue(report.toFile(), Map.class).get("results");
+    }
+
+    private static void assertNothingDropped(Map<String, Object> result) {
+        assertThat(((Number) result.get("sent")).longValue()).as("sent").isPositive();
+        assertThat(result.get("received")).as("received").isEqualTo(result.get("sent"));
+        assertThat(((Number) result.get("dropped")).longValue()).as("dropped").isZero();
+        assertThat(((Number) result.get("sendErrors")).longValue()).as("sendErrors").isZero();
+    }
+}
@@ -0,0 +1,45 @@
+package com.ChatMe.Assignment.config;
+
+import com.ChatMe.Assignment.websocket.BrokerBackplane;
+import com.ChatMe.Assignment.websocket.BrokerBackplaneBridge;
+import com.ChatMe.Assignment.websocket.InProcessBrokerBackplane;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+
+import java.util.UUID;
+
+/**
+ * Beans for chat.broker.mode=backplane: the simple broker of every node is connected
+ * to the others through a {@link BrokerBackplane}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "chat.broker.mode", havingValue = "backplane")
+public class BrokerBackplaneConfig {
+
+    // Defaults to the in-process backplane; register another BrokerBackplane bean to replace it
+    @Bean
+    @ConditionalOnMissingBean
+    public BrokerBackplane brokerBackplane() {
+        return new InProcessBrokerBackplane();
+    }
+
+    @Bean
+    public BrokerBackplaneBridge brokerBackplaneBridge(BrokerBackplane backplane,
+                                                       @Value("${chat.broker.node-id:}") String nodeId,
+                                                       ObjectProvider<SimpMessagingTemplate> messagingTemplate,
+                                                       ObjectProvider<SimpUserRegistry> userRegistry) {
+        return new BrokerBackplaneBridge(
+                backplane,
+                nodeId.isEmpty() ? UUID.randomUUID().toString() : nodeId,
+                "/user/",
+                messagingTemplate,
+                userRegistry
+        );
+    }
+}
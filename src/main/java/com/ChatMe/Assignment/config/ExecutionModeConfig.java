@@ -0,0 +1,66 @@
+package com.ChatMe.Assignment.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+/**
+ * Threads that run the blocking parts of the server: the STOMP client inbound and outbound
+ * channels, Tomcat request handling and push notification calls.
+ *
+ * platform (default): Spring's and Tomcat's thread pools.
+ * virtual: a virtual thread per task, so handlers blocked on MongoDB or on the notification
+ * function no longer hold a pool thread. Frames of a session are still handled and delivered
+ * in order. Needs Java 21 or newer; older runtimes fall back to platform threads.
+ */
+@Configuration
+@Slf4j
+public class ExecutionModeConfig {
+
+    @Value("${chat.execution.mode:platform}")
+    private String mode;
+
+    private boolean virtual;
+
+    @PostConstruct
+    public void resolveMode() {
+        if (!"virtual".equalsIgnoreCase(mode)) {
+            return;
+        }
+
+        if (JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE)) {
+            virtual = true;
+            log.info("Using virtual threads for STOMP channels, HTTP requests and push notifications");
+        } else {
+            log.warn("chat.execution.mode=virtual needs Java 21 or newer (running on Java {}), using platform threads",
+                    JavaVersion.getJavaVersion());
+        }
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Executor that starts a new named virtual thread per task (only when {@link #isVirtual()})
+     */
+    public VirtualThreadTaskExecutor virtualThreadExecutor(String threadNamePrefix) {
+        return new VirtualThreadTaskExecutor(threadNamePrefix);
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> executionModeProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            if (virtual) {
+                protocolHandler.setExecutor(new VirtualThreadExecutor("tomcat-handler-"));
+            }
+        };
+    }
+}
@@ -87,6 +87,7 @@ public class FirebaseAuthenticationFilter extends OncePerRequestFilter {
         return path.equals("/") ||
                 path.equals("/favicon.ico") ||
                 path.startsWith("/actuator/health") ||
+                path.startsWith("/actuator/prometheus") ||
                 path.startsWith("/ws/") || // WebSocket handled by interceptor
                 (path.startsWith("/api/users") && "POST".equals(request.getMethod())) ||
                 (path.startsWith("/api/chat/health") && "GET".equals(request.getMethod())) ||
@@ -1,15 +1,21 @@
 package com.ChatMe.Assignment.config;
 
+import com.ChatMe.Assignment.service.FirebaseTokenVerifier;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
+import com.google.firebase.auth.FirebaseAuth;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ClassPathResource;
 
 import javax.annotation.PostConstruct;
 import java.io.IOException;
 
+// Set firebase.admin.enabled=false to run without a service account (a FirebaseTokenVerifier bean must then be supplied)
 @Configuration
+@ConditionalOnProperty(name = "firebase.admin.enabled", havingValue = "true", matchIfMissing = true)
 public class FirebaseConfig {
 
     @PostConstruct
@@ -31,4 +37,9 @@ public class FirebaseConfig {
             throw new RuntimeException(e);
         }
     }
-}
\ No newline at end of file
+
+    @Bean
+    public FirebaseTokenVerifier firebaseTokenVerifier() {
+        return idToken -> FirebaseAuth.getInstance().verifyIdToken(idToken);
+    }
+}
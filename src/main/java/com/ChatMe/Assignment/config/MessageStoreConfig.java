@@ -0,0 +1,32 @@
+package com.ChatMe.Assignment.config;
+
+import com.ChatMe.Assignment.repository.MessageRepository;
+import com.ChatMe.Assignment.repository.ReactiveMessageRepository;
+import com.ChatMe.Assignment.service.BlockingMessageHistoryStore;
+import com.ChatMe.Assignment.service.MessageHistoryStore;
+import com.ChatMe.Assignment.service.ReactiveMessageHistoryStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Selects the store behind the streaming history endpoints with chat.store:
+ * blocking (default) reads MessageRepository cursors on worker threads,
+ * reactive uses ReactiveMessageRepository on the reactive driver.
+ * The reactive driver is only auto-configured for the reactive store (see ReactiveMongoAutoConfigurationFilter).
+ */
+@Configuration
+public class MessageStoreConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "chat.store", havingValue = "blocking", matchIfMissing = true)
+    public MessageHistoryStore blockingMessageHistoryStore(MessageRepository messageRepository) {
+        return new BlockingMessageHistoryStore(messageRepository);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "chat.store", havingValue = "reactive")
+    public MessageHistoryStore reactiveMessageHistoryStore(ReactiveMessageRepository reactiveMessageRepository) {
+        return new ReactiveMessageHistoryStore(reactiveMessageRepository);
+    }
+}
@@ -0,0 +1,14 @@
+package com.ChatMe.Assignment.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+
+/**
+ * Actuator and metrics defaults.
+ * The chat.* meters are registered by the components that own them; this only makes sure
+ * the Prometheus endpoint is exposed and the timers publish histograms.
+ */
+@Configuration
+@PropertySource("classpath:chatme-management.properties")
+public class MetricsConfig {
+}
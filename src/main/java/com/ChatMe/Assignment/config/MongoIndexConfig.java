@@ -0,0 +1,59 @@
+package com.ChatMe.Assignment.config;
+
+import com.ChatMe.Assignment.model.ConversationSummary;
+import com.ChatMe.Assignment.model.Message;
+import com.ChatMe.Assignment.model.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+
+/**
+ * Creates the indexes declared on our documents at startup.
+ * Spring Boot leaves automatic index creation off, so without this the
+ * @CompoundIndex annotations would never reach the database.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class MongoIndexConfig {
+
+    private static final List<Class<?>> INDEXED_DOCUMENTS = List.of(Message.class, User.class, ConversationSummary.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+
+    @Value("${chat.mongo.create-indexes:true}")
+    private boolean enabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        if (!enabled) {
+            return;
+        }
+
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+
+        for (Class<?> documentType : INDEXED_DOCUMENTS) {
+            try {
+                IndexOperations indexOps = mongoTemplate.indexOps(documentType);
+                resolver.resolveIndexFor(documentType).forEach(index -> {
+                    String name = indexOps.createIndex(index);
+                    log.info("Ensured index {} on {}", name, documentType.getSimpleName());
+                });
+            } catch (Exception e) {
+                // Queries still work without the index, just slower
+                log.error("Failed to create indexes for {}: {}", documentType.getSimpleName(), e.getMessage());
+            }
+        }
+    }
+}
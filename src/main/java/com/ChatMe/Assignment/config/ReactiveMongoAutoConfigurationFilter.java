@@ -0,0 +1,45 @@
+package com.ChatMe.Assignment.config;
+
+import org.springframework.boot.autoconfigure.AutoConfigurationImportFilter;
+import org.springframework.boot.autoconfigure.AutoConfigurationMetadata;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+
+import java.util.Set;
+
+/**
+ * Leaves the reactive MongoDB client, template and repositories out of auto-configuration unless
+ * chat.store=reactive (see MessageStoreConfig), so the blocking store runs a single connection pool.
+ * Registered in META-INF/spring.factories.
+ */
+public class ReactiveMongoAutoConfigurationFilter implements AutoConfigurationImportFilter, EnvironmentAware {
+
+    private static final Set<String> REACTIVE_MONGO = Set.of(
+            MongoReactiveAutoConfiguration.class.getName(),
+            MongoReactiveDataAutoConfiguration.class.getName(),
+            MongoReactiveRepositoriesAutoConfiguration.class.getName()
+    );
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public boolean[] match(String[] autoConfigurationClasses, AutoConfigurationMetadata autoConfigurationMetadata) {
+        boolean reactive = "reactive".equals(environment.getProperty("chat.store"));
+
+        boolean[] matches = new boolean[autoConfigurationClasses.length];
+        for (int i = 0; i < autoConfigurationClasses.length; i++) {
+            // Entries can be null once an earlier filter has ruled them out
+            String candidate = autoConfigurationClasses[i];
+            matches[i] = reactive || candidate == null || !REACTIVE_MONGO.contains(candidate);
+        }
+        return matches;
+    }
+}
@@ -1,17 +1,23 @@
 // src/main/java/com/ChatMe/Assignment/config/SecurityConfig.java
 package com.ChatMe.Assignment.config;
 
+import com.ChatMe.Assignment.service.FirebaseTokenService;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
+@RequiredArgsConstructor
 public class SecurityConfig {
 
+    private final FirebaseTokenService firebaseTokenService;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -21,7 +27,9 @@ public class SecurityConfig {
                 )
                 .authorizeHttpRequests(authz -> authz
                         .anyRequest().permitAll() // Allow all requests
-                );
+                )
+                // Requests with a valid Firebase ID token carry the user as their Principal
+                .addFilterBefore(new FirebaseAuthenticationFilter(firebaseTokenService), UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
@@ -1,32 +1,106 @@
 // src/main/java/com/ChatMe/Assignment/config/WebSocketConfig.java
 package com.ChatMe.Assignment.config;
 
+import com.ChatMe.Assignment.websocket.BrokerBackplaneBridge;
+import com.ChatMe.Assignment.websocket.ConversationExecutor;
+import com.ChatMe.Assignment.websocket.TimedJsonMessageConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.converter.MessageConverter;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
+import java.util.List;
+
 @Configuration
 @EnableWebSocketMessageBroker
 @RequiredArgsConstructor
+@Slf4j
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final FirebaseAuthenticationInterceptor firebaseAuthInterceptor;
 
+    // Only present when chat.broker.mode=backplane
+    private final ObjectProvider<BrokerBackplaneBridge> backplaneBridge;
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ExecutionModeConfig executionMode;
+    private final ConversationExecutor conversationExecutor;
+
+    // simple: in-memory broker, single node
+    // relay: external STOMP broker (RabbitMQ, ActiveMQ, ...), user destinations resolved across nodes
+    // backplane: in-memory broker on every node, connected through a BrokerBackplane
+    @Value("${chat.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${chat.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${chat.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${chat.broker.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${chat.broker.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${chat.broker.relay.virtual-host:}")
+    private String relayVirtualHost;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple in-memory message broker to carry the greeting messages back to the client
-        // on destinations prefixed with "/topic" and "/user"
-        config.enableSimpleBroker("/topic", "/user");
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            // Relay to an external STOMP broker so several ChatMe nodes share topics and user queues.
+            // Unresolved user destinations and the user registry are broadcast through the broker,
+            // which lets each node deliver to users connected to another node.
+            StompBrokerRelayRegistration relay = config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+            if (!relayVirtualHost.isEmpty()) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+            log.info("Using external STOMP broker relay at {}:{}", relayHost, relayPort);
+        } else {
+            // Enable a simple in-memory message broker to carry the greeting messages back to the client
+            // on destinations prefixed with "/topic" and "/queue". User destinations (/user/queue/...) are
+            // resolved to per-session "/queue/...-user{sessionId}" destinations before they reach it; "/user"
+            // itself must not be a broker prefix, or a SUBSCRIBE is registered twice under the same id.
+            config.enableSimpleBroker("/topic", "/queue");
+
+            BrokerBackplaneBridge bridge = backplaneBridge.getIfAvailable();
+            if (bridge != null) {
+                config.configureBrokerChannel().interceptors(bridge);
+                log.info("Simple broker connected to backplane as node {}", bridge.getNodeId());
+            }
+        }
 
         // Define the prefix for messages that are bound for methods annotated with @MessageMapping
         config.setApplicationDestinationPrefixes("/app");
 
         // Enable user-specific destinations
         config.setUserDestinationPrefix("/user");
+
+        if (executionMode.isVirtual()) {
+            // Messages to a session leave in the order they were published, not in thread start order
+            config.setPreservePublishOrder(true);
+        }
     }
 
     @Override
@@ -41,11 +115,35 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*")
                 .addInterceptors(firebaseAuthInterceptor); // Add Firebase authentication
+
+        if (executionMode.isVirtual() || conversationExecutor.isEnabled()) {
+            // Frames from one session are handed to the inbound channel one at a time, so chat messages
+            // reach their conversation stripe in the order they were sent
+            registry.setPreserveReceiveOrder(true);
+        }
+    }
+
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        // First in line, so it handles JSON payloads ahead of the default Jackson converter
+        messageConverters.add(0, new TimedJsonMessageConverter(objectMapper, meterRegistry));
+        return true;
     }
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
         // Register the Firebase authentication interceptor for STOMP messages
         registration.interceptors(firebaseAuthInterceptor);
+
+        if (executionMode.isVirtual()) {
+            registration.executor(executionMode.virtualThreadExecutor("ws-inbound-"));
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        if (executionMode.isVirtual()) {
+            registration.executor(executionMode.virtualThreadExecutor("ws-outbound-"));
+        }
     }
 }
\ No newline at end of file
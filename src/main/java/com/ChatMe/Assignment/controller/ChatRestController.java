@@ -1,16 +1,47 @@
 package com.ChatMe.Assignment.controller;
 
+import com.ChatMe.Assignment.dto.ChatMessageRequest;
+import com.ChatMe.Assignment.dto.ReadReceiptRequest;
+import com.ChatMe.Assignment.model.ConversationSummary;
 import com.ChatMe.Assignment.model.Message;
+import com.ChatMe.Assignment.model.MessagePage;
+import com.ChatMe.Assignment.service.ConversationSummaryService;
+import com.ChatMe.Assignment.service.MessageExportService;
+import com.ChatMe.Assignment.service.MessageHistoryStore;
 import com.ChatMe.Assignment.service.MessageService;
 import com.ChatMe.Assignment.service.FirebaseNotificationService;
+import com.ChatMe.Assignment.service.UserProfileCache;
 import com.ChatMe.Assignment.websocket.ChatWebSocketController;
+import com.ChatMe.Assignment.websocket.ConversationExecutor;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/chat")
@@ -23,9 +54,20 @@ public class ChatRestController {
 
     private final MessageService messageService;
     private final FirebaseNotificationService firebaseNotificationService; // ADD THIS
+    private final UserProfileCache userProfileCache;
+    private final HealthEndpoint healthEndpoint;
+    private final ConversationExecutor conversationExecutor;
+    private final MessageHistoryStore messageHistoryStore;
+    private final MessageExportService messageExportService;
+    private final ConversationSummaryService conversationSummaryService;
+
+    // How long POST /send and POST /read wait for their conversation stripe before answering 503
+    @Value("${chat.conversation-executor.rest-timeout-ms:10000}")
+    private long sendTimeoutMs;
 
     /**
      * Get chat history between two users
+     * Loads the whole conversation - prefer /history/page for long-lived chats
      * GET /api/chat/history?user1=userId1&user2=userId2
      */
     @GetMapping("/history")
@@ -43,7 +85,65 @@ public class ChatRestController {
     }
 
     /**
-     * Get recent chat history between two users (last 50 messages)
+     * Get one page of chat history between two users, oldest message first.
+     * Pass the returned nextCursor as 'before' (or 'after') to fetch the adjacent page.
+     * GET /api/chat/history/page?user1=userId1&user2=userId2&before=cursor&limit=50
+     */
+    @GetMapping("/history/page")
+    public ResponseEntity<MessagePage> getChatHistoryPage(
+            @RequestParam String user1,
+            @RequestParam String user2,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            log.debug("Fetching chat history page between {} and {} (before: {}, after: {}, limit: {})",
+                    user1, user2, before, after, limit);
+            MessagePage page = messageService.getChatHistoryPage(user1, user2, before, after, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid chat history page request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error fetching chat history page: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Stream the whole chat history between two users, oldest message first, one JSON message per line.
+     * Messages are written as they come off the database cursor instead of being collected first;
+     * chat.store selects the blocking or the reactive store behind it. Spring MVC writes streaming media types
+     * (NDJSON and server-sent events) without an async request timeout, so a long history is never cut off;
+     * spring.mvc.async.request-timeout only applies to the non-streaming endpoints.
+     * GET /api/chat/history/stream?user1=userId1&user2=userId2 (Accept: application/x-ndjson)
+     */
+    @GetMapping(value = "/history/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Message> streamChatHistory(
+            @RequestParam String user1,
+            @RequestParam String user2) {
+        log.debug("Streaming chat history between {} and {} from the {} store", user1, user2, messageHistoryStore.getName());
+        return messageHistoryStore.streamConversation(Message.createConversationId(user1, user2))
+                .doOnError(e -> log.error("Error streaming chat history: {}", e.getMessage()));
+    }
+
+    /**
+     * Same stream as server-sent events, one "message" event per message with the message id as event id
+     * GET /api/chat/history/stream?user1=userId1&user2=userId2 (Accept: text/event-stream)
+     */
+    @GetMapping(value = "/history/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Message>> streamChatHistoryEvents(
+            @RequestParam String user1,
+            @RequestParam String user2) {
+        return streamChatHistory(user1, user2)
+                .map(message -> ServerSentEvent.builder(message)
+                        .id(message.getId())
+                        .event("message")
+                        .build());
+    }
+
+    /**
+     * Get recent chat history between two users (last 50 messages by default)
      * GET /api/chat/recent?user1=userId1&user2=userId2
      */
     @GetMapping("/recent")
@@ -60,40 +160,98 @@ public class ChatRestController {
         }
     }
 
+    /**
+     * Get a user's inbox: the most recent conversations with their last message and unread count
+     * GET /api/chat/inbox/{userId}?limit=20
+     */
+    @GetMapping("/inbox/{userId}")
+    public ResponseEntity<List<ConversationSummary>> getInbox(
+            @PathVariable String userId,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            log.debug("Fetching inbox of user {} (limit: {})", userId, limit);
+            return ResponseEntity.ok(conversationSummaryService.getInbox(userId, limit));
+        } catch (Exception e) {
+            log.error("Error fetching inbox: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Mark a chat as read up to readUpTo (alternative to /app/read)
+     * Only the reader can send their own receipt: 401 without a Firebase ID token, 403 for someone else
+     * POST /api/chat/read
+     */
+    @PostMapping("/read")
+    public ResponseEntity<ConversationSummary> markRead(@RequestBody ReadReceiptRequest request, Principal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!request.readerId().equals(principal.getName())) {
+            log.warn("⚠️ User {} trying to send a read receipt for {}", principal.getName(), request.readerId());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        try {
+            // Same conversation stripe as the chat's messages
+            return conversationExecutor.submit(
+                            Message.createConversationId(request.readerId(), request.peerId()),
+                            () -> conversationSummaryService.markRead(request.readerId(), request.peerId(), request.readUpTo()))
+                    .get(sendTimeoutMs, TimeUnit.MILLISECONDS)
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (TimeoutException e) {
+            // The receipt may still be applied once its stripe gets to it
+            log.warn("⚠️ Read receipt not handled within {} ms, answering 503", sendTimeoutMs);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                log.warn("⚠️ Read receipt rejected: {}", e.getCause().getMessage());
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            }
+            log.error("Error applying read receipt: {}", e.getCause().getMessage());
+            return ResponseEntity.internalServerError().build();
+        } catch (Exception e) {
+            log.error("Error applying read receipt: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     /**
      * Send a message via REST API (alternative to WebSocket)
      * POST /api/chat/send
      * INCLUDES FIREBASE FUNCTION CALL
      */
     @PostMapping("/send")
-    public ResponseEntity<Message> sendMessage(@RequestBody Map<String, String> messageData) {
+    public ResponseEntity<Message> sendMessage(@RequestBody ChatMessageRequest request) {
         try {
-            String senderId = messageData.get("senderId");
-            String receiverId = messageData.get("receiverId");
-            String messageContent = messageData.get("message");
-
-            if (senderId == null || receiverId == null || messageContent == null) {
-                log.warn("Invalid message data: missing required fields");
-                return ResponseEntity.badRequest().build();
-            }
+            // Missing fields are rejected with 400 while the body is deserialized
+            String senderId = request.senderId();
+            String receiverId = request.receiverId();
+            String messageContent = request.message();
 
             log.debug("Sending message via REST from {} to {}: {}", senderId, receiverId, messageContent);
 
-            // 💾 Save message to MongoDB
-            Message savedMessage = messageService.createMessage(senderId, receiverId, messageContent);
-            log.debug("✅ Message saved to MongoDB: {}", savedMessage.getId());
+            // Same conversation stripe as WebSocket messages, so both paths keep one order per chat
+            Message savedMessage = conversationExecutor.submit(Message.createConversationId(senderId, receiverId), () -> {
+                // 💾 Save message to MongoDB
+                Message saved = messageService.createMessage(senderId, receiverId, messageContent);
+                log.debug("✅ Message saved to MongoDB: {}", saved.getId());
 
-            //  Broadcast message via WebSocket for real-time updates
-            try {
-                webSocketController.broadcastMessage(savedMessage);
-                log.debug("✅ Message broadcasted via WebSocket");
-            } catch (Exception e) {
-                log.warn("Failed to broadcast via WebSocket: {}", e.getMessage());
-            }
+                //  Broadcast message via WebSocket for real-time updates
+                try {
+                    webSocketController.broadcastMessage(saved);
+                    log.debug("✅ Message broadcasted via WebSocket");
+                } catch (Exception e) {
+                    log.warn("Failed to broadcast via WebSocket: {}", e.getMessage());
+                }
+                return saved;
+            }).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
 
             // CALL FIREBASE FUNCTION FOR PUSH NOTIFICATION
             try {
-                String senderName = messageData.get("senderName"); // Optional sender name from frontend
+                // Stored profile name, falling back to the optional sender name from the frontend
+                String senderName = userProfileCache.getDisplayName(senderId, request.senderName());
 
                 firebaseNotificationService.sendPushNotification(
                         receiverId,
@@ -111,6 +269,17 @@ public class ChatRestController {
 
             return ResponseEntity.ok(savedMessage);
 
+        } catch (TimeoutException e) {
+            // The message may still be saved once its stripe gets to it
+            log.warn("⚠️ Message not handled within {} ms, answering 503", sendTimeoutMs);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                log.warn("⚠️ Message rejected: {}", e.getCause().getMessage());
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            }
+            log.error("Error sending message via REST: {}", e.getCause().getMessage());
+            return ResponseEntity.internalServerError().build();
         } catch (Exception e) {
             log.error("Error sending message via REST: {}", e.getMessage());
             return ResponseEntity.internalServerError().build();
@@ -119,6 +288,7 @@ public class ChatRestController {
 
     /**
      * Get all messages sent by a user
+     * Loads every message into memory - prefer /sent/{userId}/export for active users
      * GET /api/chat/sent/{userId}
      */
     @GetMapping("/sent/{userId}")
@@ -135,6 +305,7 @@ public class ChatRestController {
 
     /**
      * Get all messages received by a user
+     * Loads every message into memory - prefer /received/{userId}/export for active users
      * GET /api/chat/received/{userId}
      */
     @GetMapping("/received/{userId}")
@@ -149,14 +320,103 @@ public class ChatRestController {
         }
     }
 
+    /**
+     * Export the messages sent by a user, newest first, streamed from the database cursor.
+     * from (inclusive) and to (exclusive) are optional ISO date-times; format is ndjson
+     * (one message per line) or json (a single array). Gzipped when the client accepts it.
+     * GET /api/chat/sent/{userId}/export?from=2025-01-01T00:00:00&to=2025-02-01T00:00:00&format=ndjson
+     */
+    @GetMapping("/sent/{userId}/export")
+    public void exportMessagesBySender(
+            @PathVariable String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        exportMessages(MessageExportService.Direction.SENT, userId, from, to, format, request, response);
+    }
+
+    /**
+     * Export the messages received by a user, same options as /sent/{userId}/export
+     * GET /api/chat/received/{userId}/export?from=...&to=...&format=json
+     */
+    @GetMapping("/received/{userId}/export")
+    public void exportMessagesByReceiver(
+            @PathVariable String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        exportMessages(MessageExportService.Direction.RECEIVED, userId, from, to, format, request, response);
+    }
+
+    // Written on the request thread rather than as an async body, so a long export isn't cut off by the async request timeout
+    private void exportMessages(MessageExportService.Direction direction, String userId,
+                                LocalDateTime from, LocalDateTime to, String format,
+                                HttpServletRequest request, HttpServletResponse response) throws IOException {
+        MessageExportService.Format exportFormat;
+        try {
+            exportFormat = MessageExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid export format: {}", format);
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "format must be ndjson or json");
+            return;
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            log.warn("Invalid export range: from {} is not before to {}", from, to);
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "from must be before to");
+            return;
+        }
+
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+
+        response.setContentType(exportFormat == MessageExportService.Format.JSON
+                ? MediaType.APPLICATION_JSON_VALUE
+                : MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        try {
+            OutputStream out = response.getOutputStream();
+            long count;
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 8192);
+                count = messageExportService.export(direction, userId, from, to, exportFormat, gzipOut);
+                gzipOut.finish();
+            } else {
+                count = messageExportService.export(direction, userId, from, to, exportFormat, out);
+            }
+            out.flush();
+            log.debug("✅ Exported {} messages for user {}", count, userId);
+        } catch (Exception e) {
+            log.error("Error exporting messages for user {}: {}", userId, e.getMessage());
+            // Once the first chunk is out the status can't change; the client sees a truncated body
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpStatus.INTERNAL_SERVER_ERROR.value());
+            }
+        }
+    }
+
     /**
      * Health check endpoint
      * GET /api/chat/health
      */
     @GetMapping("/health")
     public ResponseEntity<Map<String, String>> healthCheck() {
-        return ResponseEntity.ok(Map.of(
-                "status", "healthy",
+        // Aggregated actuator health (MongoDB, disk space, ...)
+        Status status = healthEndpoint.health().getStatus();
+        boolean healthy = Status.UP.equals(status);
+
+        return ResponseEntity.status(healthy ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(Map.of(
+                "status", healthy ? "healthy" : "unhealthy",
+                "health", status.getCode(),
                 "service", "chat-api",
                 "timestamp", String.valueOf(System.currentTimeMillis())
         ));
@@ -167,14 +427,17 @@ public class ChatRestController {
      * GET /api/chat/info
      */
     @GetMapping("/info")
-    public ResponseEntity<Map<String, String>> getSystemInfo() {
+    public ResponseEntity<Map<String, Object>> getSystemInfo() {
         return ResponseEntity.ok(Map.of(
                 "service", "ChatMe Assignment Backend",
                 "version", "1.0.0",
                 "status", "running",
                 "database", "MongoDB",
-                "websocket", "enabled",
-                "firebase-functions", "enabled",
+                "historyStore", messageHistoryStore.getName(),
+                "websocket", webSocketController.getConnectionStats(),
+                "messages", messageService.getStats(),
+                "firebase-functions", firebaseNotificationService.getStats(),
+                "metrics", "/actuator/prometheus",
                 "timestamp", String.valueOf(System.currentTimeMillis())
         ));
     }
@@ -0,0 +1,46 @@
+package com.ChatMe.Assignment.controller;
+
+import com.ChatMe.Assignment.websocket.PresenceRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/presence")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*") // Allow all origins for development
+public class PresenceController {
+
+    private final PresenceRegistry presenceRegistry;
+
+    /**
+     * Get the status of the given users, or of every online user when none are given
+     * GET /api/presence?userIds=userId1,userId2
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, String>> getPresence(@RequestParam(required = false) List<String> userIds) {
+        try {
+            return ResponseEntity.ok(presenceRegistry.snapshot(userIds));
+        } catch (Exception e) {
+            log.error("Error fetching presence snapshot: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Get the status of a single user
+     * GET /api/presence/{userId}
+     */
+    @GetMapping("/{userId}")
+    public ResponseEntity<Map<String, String>> getUserPresence(@PathVariable String userId) {
+        return ResponseEntity.ok(Map.of(
+                "userId", userId,
+                "status", presenceRegistry.getStatus(userId)
+        ));
+    }
+}
@@ -1,14 +1,21 @@
 // src/main/java/com/ChatMe/Assignment/controller/UserController.java
 package com.ChatMe.Assignment.controller;
 
+import com.ChatMe.Assignment.model.ContactPage;
 import com.ChatMe.Assignment.model.User;
 import com.ChatMe.Assignment.repository.UserRepository;
+import com.ChatMe.Assignment.service.ContactListService;
+import com.ChatMe.Assignment.service.UserProfileCache;
+import com.ChatMe.Assignment.service.UserSearchIndex;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @RestController
@@ -20,43 +27,84 @@ public class UserController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
+    @Autowired
+    private ContactListService contactListService;
+
+    @Autowired
+    private UserProfileCache userProfileCache;
+
+    @Value("${chat.users.search.max-page-size:100}")
+    private int maxSearchPageSize;
+
+    @Value("${chat.users.contacts.max-page-size:100}")
+    private int maxContactPageSize;
+
     /**
      * Save or update user (called during authentication)
+     * Unchanged profiles are answered from the profile cache without a write;
+     * everything else is a single atomic upsert
      */
     @PostMapping
     public ResponseEntity<User> saveUser(@RequestBody User user) {
         try {
+            if (user.getUid() == null || user.getUid().isEmpty()) {
+                log.warn("Invalid user data: missing uid");
+                return ResponseEntity.badRequest().build();
+            }
+
             log.info("Saving user: {}", user.getEmail());
 
-            // Check if user already exists
-            Optional<User> existingUser = userRepository.findById(user.getUid());
+            User cached = userProfileCache.getIfCached(user.getUid());
+            if (cached != null && sameProfile(cached, user)) {
+                log.debug("Profile unchanged, skipping write: {}", user.getUid());
+                return ResponseEntity.ok(cached);
+            }
 
-            if (existingUser.isPresent()) {
-                // Update existing user with latest info
-                User existing = existingUser.get();
-                existing.setName(user.getName());
-                existing.setPhotoURL(user.getPhotoURL());
-                existing.setProvider(user.getProvider());
+            Optional<User> previous = userRepository.upsertProfile(user);
 
-                User savedUser = userRepository.save(existing);
+            User savedUser;
+            if (previous.isPresent()) {
+                // Update existing user with latest info
+                savedUser = previous.get();
+                boolean changed = !sameProfile(savedUser, user);
+                savedUser.setName(user.getName());
+                savedUser.setPhotoURL(user.getPhotoURL());
+                savedUser.setProvider(user.getProvider());
+
+                if (changed) {
+                    userSearchIndex.index(savedUser);
+                    contactListService.update(savedUser);
+                }
                 log.info("Updated existing user: {}", savedUser.getUid());
-                return ResponseEntity.ok(savedUser);
             } else {
-                // Save new user
-                User savedUser = userRepository.save(user);
+                savedUser = user;
+                userSearchIndex.index(savedUser);
+                contactListService.update(savedUser);
                 log.info("Saved new user: {}", savedUser.getUid());
-                return ResponseEntity.ok(savedUser);
             }
 
+            userProfileCache.put(savedUser);
+            return ResponseEntity.ok(savedUser);
+
         } catch (Exception e) {
             log.error("Error saving user: {}", e.getMessage(), e);
             return ResponseEntity.internalServerError().build();
         }
     }
 
+    private boolean sameProfile(User existing, User incoming) {
+        return Objects.equals(existing.getName(), incoming.getName())
+                && Objects.equals(existing.getPhotoURL(), incoming.getPhotoURL())
+                && Objects.equals(existing.getProvider(), incoming.getProvider());
+    }
+
     /**
      * Get all users (for chat partner selection)
      * Excludes the current user
+     * Loads the whole collection - prefer /contacts for large user bases
      */
     @GetMapping
     public ResponseEntity<List<User>> getAllUsers(@RequestParam(required = false) String excludeUserId) {
@@ -82,6 +130,83 @@ public class UserController {
         }
     }
 
+    /**
+     * Get one page of contacts (uid, name and photoURL only), ordered by name
+     * Responds 304 when If-None-Match carries the ETag of an unchanged page
+     * GET /api/users/contacts?excludeUserId=userId&page=0&size=50
+     */
+    @GetMapping("/contacts")
+    public ResponseEntity<ContactPage> getContacts(
+            @RequestParam(required = false) String excludeUserId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            if (page < 0 || size < 1) {
+                return ResponseEntity.badRequest().build();
+            }
+            size = Math.min(size, maxContactPageSize);
+
+            ContactListService.TaggedPage contacts = contactListService.getPage(excludeUserId, page, size);
+
+            // The ETag is compared against If-None-Match when the response is written
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .eTag(contacts.etag())
+                    .body(contacts.page());
+
+        } catch (Exception e) {
+            log.error("Error retrieving contacts: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Search users by name or email, best matches first
+     * Served from the in-memory search index; the total match count is in the X-Total-Count header
+     * GET /api/users/search?query=ali&excludeUserId=userId&page=0&size=20
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<User>> searchUsers(
+            @RequestParam String query,
+            @RequestParam(required = false) String excludeUserId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            if (page < 0 || size < 1) {
+                return ResponseEntity.badRequest().build();
+            }
+            size = Math.min(size, maxSearchPageSize);
+
+            log.debug("Searching users for '{}', excluding: {} (page: {}, size: {})", query, excludeUserId, page, size);
+
+            UserSearchIndex.Result result = userSearchIndex.search(query, excludeUserId, page, size);
+            if (result == null) {
+                // Index still building - fall back to the database
+                result = searchDatabase(query, excludeUserId, page, size);
+            }
+
+            return ResponseEntity.ok()
+                    .header("X-Total-Count", String.valueOf(result.total()))
+                    .body(result.users());
+
+        } catch (Exception e) {
+            log.error("Error searching users: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    private UserSearchIndex.Result searchDatabase(String query, String excludeUserId, int page, int size) {
+        // Containing queries are regex-quoted by Spring Data already
+        String name = query.trim();
+        List<User> users = excludeUserId != null && !excludeUserId.isEmpty()
+                ? userRepository.findByNameContainingIgnoreCaseAndUidNot(name, excludeUserId)
+                : userRepository.findByNameContainingIgnoreCase(name);
+
+        int from = (int) Math.min((long) page * size, users.size());
+        int to = Math.min(from + size, users.size());
+        return new UserSearchIndex.Result(users.subList(from, to), users.size());
+    }
+
     /**
      * Simple test endpoint
      */
@@ -103,7 +228,7 @@ public class UserController {
     public ResponseEntity<User> getUserById(@PathVariable String userId) {
         try {
             log.info("Getting user by ID: {}", userId);
-            Optional<User> user = userRepository.findById(userId);
+            Optional<User> user = userProfileCache.get(userId);
 
             if (user.isPresent()) {
                 return ResponseEntity.ok(user.get());
@@ -0,0 +1,16 @@
+package com.ChatMe.Assignment.dto;
+
+/**
+ * Inbound chat message (/app/chat and POST /api/chat/send).
+ * Validated while it is deserialized, so handlers never see a message without its participants.
+ */
+public record ChatMessageRequest(String senderId, String receiverId, String message, String senderName) {
+
+    public ChatMessageRequest {
+        PayloadValidation.requireId(senderId, "senderId");
+        PayloadValidation.requireId(receiverId, "receiverId");
+        if (message == null) {
+            throw new IllegalArgumentException("message is required");
+        }
+    }
+}
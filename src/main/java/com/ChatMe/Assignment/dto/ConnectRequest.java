@@ -0,0 +1,11 @@
+package com.ChatMe.Assignment.dto;
+
+/**
+ * Inbound connect/disconnect notification (/app/connect, /app/disconnect)
+ */
+public record ConnectRequest(String userId) {
+
+    public ConnectRequest {
+        PayloadValidation.requireId(userId, "userId");
+    }
+}
@@ -0,0 +1,11 @@
+package com.ChatMe.Assignment.dto;
+
+/**
+ * Inbound join/leave notification (/app/join)
+ */
+public record JoinRequest(String userId, String action) {
+
+    public JoinRequest {
+        PayloadValidation.requireId(userId, "userId");
+    }
+}
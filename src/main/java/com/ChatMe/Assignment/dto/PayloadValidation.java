@@ -0,0 +1,16 @@
+package com.ChatMe.Assignment.dto;
+
+/**
+ * Checks shared by the inbound payload records. A failed check aborts deserialization.
+ */
+final class PayloadValidation {
+
+    private PayloadValidation() {
+    }
+
+    static void requireId(String value, String field) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+    }
+}
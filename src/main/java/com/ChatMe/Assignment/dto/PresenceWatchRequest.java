@@ -0,0 +1,13 @@
+package com.ChatMe.Assignment.dto;
+
+import java.util.List;
+
+/**
+ * Inbound presence watch (/app/presence/watch)
+ */
+public record PresenceWatchRequest(List<String> userIds) {
+
+    public PresenceWatchRequest {
+        userIds = userIds != null ? List.copyOf(userIds) : List.of();
+    }
+}
@@ -0,0 +1,15 @@
+package com.ChatMe.Assignment.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Inbound read receipt (/app/read and POST /api/chat/read): readerId has read the chat with peerId
+ * up to the message with timestamp readUpTo. Without readUpTo the whole chat counts as read.
+ */
+public record ReadReceiptRequest(String readerId, String peerId, LocalDateTime readUpTo) {
+
+    public ReadReceiptRequest {
+        PayloadValidation.requireId(readerId, "readerId");
+        PayloadValidation.requireId(peerId, "peerId");
+    }
+}
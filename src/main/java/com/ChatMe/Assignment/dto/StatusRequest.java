@@ -0,0 +1,12 @@
+package com.ChatMe.Assignment.dto;
+
+/**
+ * Inbound status update (/app/status)
+ */
+public record StatusRequest(String userId, String status) {
+
+    public StatusRequest {
+        PayloadValidation.requireId(userId, "userId");
+        PayloadValidation.requireId(status, "status");
+    }
+}
@@ -0,0 +1,11 @@
+package com.ChatMe.Assignment.dto;
+
+/**
+ * Inbound test message (/app/test)
+ */
+public record TestMessageRequest(String userId, String message) {
+
+    public TestMessageRequest {
+        PayloadValidation.requireId(userId, "userId");
+    }
+}
@@ -0,0 +1,14 @@
+package com.ChatMe.Assignment.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Inbound typing indicator (/app/typing). Accepts isTyping as a boolean or as "true"/"false".
+ */
+public record TypingRequest(String senderId, String receiverId, @JsonProperty("isTyping") boolean isTyping) {
+
+    public TypingRequest {
+        PayloadValidation.requireId(senderId, "senderId");
+        PayloadValidation.requireId(receiverId, "receiverId");
+    }
+}
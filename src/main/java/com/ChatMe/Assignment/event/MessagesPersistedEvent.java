@@ -0,0 +1,25 @@
+package com.ChatMe.Assignment.event;
+
+import com.ChatMe.Assignment.model.Message;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+/**
+ * Published once a batch of messages has been committed to MongoDB.
+ * Messages that could not be written are reported in {@link #getFailed()}.
+ */
+@Getter
+public class MessagesPersistedEvent extends ApplicationEvent {
+
+    private final List<Message> persisted;
+
+    private final List<Message> failed;
+
+    public MessagesPersistedEvent(Object source, List<Message> persisted, List<Message> failed) {
+        super(source);
+        this.persisted = persisted;
+        this.failed = failed;
+    }
+}
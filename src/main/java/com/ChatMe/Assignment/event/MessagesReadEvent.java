@@ -0,0 +1,25 @@
+package com.ChatMe.Assignment.event;
+
+import com.ChatMe.Assignment.model.ConversationSummary;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published once a read receipt has been applied to the reader's conversation summary.
+ * {@link #getReadUpTo()} is null when the whole conversation was marked as read.
+ */
+@Getter
+public class MessagesReadEvent extends ApplicationEvent {
+
+    private final ConversationSummary summary;
+
+    private final LocalDateTime readUpTo;
+
+    public MessagesReadEvent(Object source, ConversationSummary summary, LocalDateTime readUpTo) {
+        super(source);
+        this.summary = summary;
+        this.readUpTo = readUpTo;
+    }
+}
@@ -0,0 +1,98 @@
+package com.ChatMe.Assignment.migration;
+
+import com.ChatMe.Assignment.model.Message;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Backfills conversationId on messages stored before the field existed.
+ * Streams the affected documents with a cursor and writes the updates in unordered bulk batches,
+ * so memory use stays constant regardless of collection size. Safe to run repeatedly.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConversationIdBackfill {
+
+    private static final String COLLECTION = "messages";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${chat.migration.conversation-id.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chat.migration.conversation-id.batch-size:1000}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public void backfill() {
+        if (!enabled) {
+            return;
+        }
+
+        Query query = new Query(where("conversationId").exists(false));
+        query.fields().include("senderId", "receiverId");
+        query.cursorBatchSize(batchSize);
+
+        long updated = 0;
+        long skipped = 0;
+        BulkOperations bulk = null;
+        int pending = 0;
+
+        try (Stream<Document> documents = mongoTemplate.stream(query, Document.class, COLLECTION)) {
+            Iterator<Document> cursor = documents.iterator();
+            while (cursor.hasNext()) {
+                Document document = cursor.next();
+                String senderId = document.getString("senderId");
+                String receiverId = document.getString("receiverId");
+
+                if (senderId == null || receiverId == null) {
+                    skipped++;
+                    continue;
+                }
+
+                if (bulk == null) {
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+                }
+                bulk.updateOne(
+                        new Query(where("_id").is(document.get("_id"))),
+                        Update.update("conversationId", Message.createConversationId(senderId, receiverId))
+                );
+
+                if (++pending == batchSize) {
+                    updated += bulk.execute().getModifiedCount();
+                    bulk = null;
+                    pending = 0;
+                }
+            }
+
+            if (pending > 0) {
+                updated += bulk.execute().getModifiedCount();
+            }
+
+            if (updated > 0 || skipped > 0) {
+                log.info("Backfilled conversationId on {} messages ({} skipped with missing participants)",
+                        updated, skipped);
+            }
+
+        } catch (Exception e) {
+            log.error("conversationId backfill failed after {} messages: {}", updated, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.ChatMe.Assignment.migration;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Builds the conversation summaries (inbox) from the stored messages when the collection is empty,
+ * e.g. on the first start after summaries were introduced. A single aggregation groups the messages
+ * per participant and conversation and merges the result into conversation_summaries on the server,
+ * so no message is loaded into the application. Unread counts start at 0, as older messages carry no
+ * read state. Runs after ConversationIdBackfill, which it relies on.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConversationSummaryBackfill {
+
+    private static final String MESSAGES = "messages";
+    private static final String SUMMARIES = "conversation_summaries";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${chat.migration.conversation-summaries.enabled:true}")
+    private boolean enabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(1)
+    public void backfill() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            if (mongoTemplate.getCollection(SUMMARIES).estimatedDocumentCount() > 0) {
+                return;
+            }
+
+            List<Document> pipeline = List.of(
+                    new Document("$match", new Document("conversationId", new Document("$exists", true))),
+                    new Document("$sort", new Document("timestamp", -1)),
+                    // One row per participant of every message
+                    new Document("$project", new Document("conversationId", 1)
+                            .append("senderId", 1)
+                            .append("message", 1)
+                            .append("timestamp", 1)
+                            .append("participant", List.of(
+                                    new Document("userId", "$senderId").append("peerId", "$receiverId"),
+                                    new Document("userId", "$receiverId").append("peerId", "$senderId")))),
+                    new Document("$unwind", "$participant"),
+                    new Document("$group", new Document("_id", new Document("$concat", List.of("$participant.userId", "|", "$conversationId")))
+                            .append("userId", new Document("$first", "$participant.userId"))
+                            .append("peerId", new Document("$first", "$participant.peerId"))
+                            .append("conversationId", new Document("$first", "$conversationId"))
+                            .append("lastMessageId", new Document("$first", new Document("$toString", "$_id")))
+                            .append("lastSenderId", new Document("$first", "$senderId"))
+                            .append("lastMessage", new Document("$first", "$message"))
+                            .append("lastTimestamp", new Document("$first", "$timestamp"))),
+                    new Document("$set", new Document("unreadCount", 0L).append("_class", "ConversationSummary")),
+                    // Summaries written by new messages meanwhile are newer than ours
+                    new Document("$merge", new Document("into", SUMMARIES)
+                            .append("whenMatched", "keepExisting")
+                            .append("whenNotMatched", "insert"))
+            );
+
+            mongoTemplate.getCollection(MESSAGES).aggregate(pipeline).allowDiskUse(true).toCollection();
+
+            long summaries = mongoTemplate.getCollection(SUMMARIES).estimatedDocumentCount();
+            if (summaries > 0) {
+                log.info("Backfilled {} conversation summaries from stored messages", summaries);
+            }
+
+        } catch (Exception e) {
+            log.error("Conversation summary backfill failed: {}", e.getMessage(), e);
+        }
+    }
+}
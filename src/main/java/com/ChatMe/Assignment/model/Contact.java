@@ -0,0 +1,20 @@
+package com.ChatMe.Assignment.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The fields of a user shown in the contact list
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Contact {
+
+    private String uid;
+
+    private String name;
+
+    private String photoURL;
+}
@@ -0,0 +1,26 @@
+package com.ChatMe.Assignment.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of the contact list, ordered by name
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContactPage {
+
+    private List<Contact> contacts;
+
+    private int page;
+
+    private int size;
+
+    private long total;
+
+    private boolean hasNext;
+}
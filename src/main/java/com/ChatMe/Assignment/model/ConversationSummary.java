@@ -0,0 +1,61 @@
+package com.ChatMe.Assignment.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.TypeAlias;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * One conversation in a user's inbox: the last message and how many messages the user hasn't read.
+ * Each conversation has two summaries, one per participant, kept current as messages are created
+ * and read receipts arrive.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "conversation_summaries")
+@TypeAlias("ConversationSummary")
+@CompoundIndexes({
+        // The inbox is a single range scan: a user's conversations, most recent first
+        @CompoundIndex(name = "user_last_timestamp", def = "{ 'userId': 1, 'lastTimestamp': -1 }")
+})
+public class ConversationSummary {
+
+    // See createId
+    @Id
+    private String id;
+
+    // Owner of this inbox entry
+    private String userId;
+
+    // The other participant
+    private String peerId;
+
+    private String conversationId;
+
+    private String lastMessageId;
+
+    private String lastSenderId;
+
+    private String lastMessage;
+
+    private LocalDateTime lastTimestamp;
+
+    private long unreadCount;
+
+    // Newest message the owner has acknowledged with a read receipt
+    private LocalDateTime lastReadAt;
+
+    /**
+     * Id of a user's summary of a conversation
+     */
+    public static String createId(String userId, String conversationId) {
+        return userId + "|" + conversationId;
+    }
+}
@@ -5,6 +5,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.TypeAlias;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -14,6 +16,13 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Document(collection = "messages")
 @TypeAlias("Message")
+@CompoundIndexes({
+        // History queries are a single range scan per conversation; _id breaks timestamp ties for keyset paging
+        @CompoundIndex(name = "conversation_timestamp", def = "{ 'conversationId': 1, 'timestamp': -1, '_id': -1 }"),
+        // Sent/received lists and exports, newest first, optionally limited to a time range
+        @CompoundIndex(name = "sender_timestamp", def = "{ 'senderId': 1, 'timestamp': -1 }"),
+        @CompoundIndex(name = "receiver_timestamp", def = "{ 'receiverId': 1, 'timestamp': -1 }")
+})
 public class Message {
 
     @Id
@@ -23,6 +32,9 @@ public class Message {
 
     private String receiverId;
 
+    // Same for both directions of a chat, see createConversationId
+    private String conversationId;
+
     private String message;
 
     private LocalDateTime timestamp;
@@ -31,7 +43,15 @@ public class Message {
     public Message(String senderId, String receiverId, String message) {
         this.senderId = senderId;
         this.receiverId = receiverId;
+        this.conversationId = createConversationId(senderId, receiverId);
         this.timestamp = LocalDateTime.now();
         this.message = message;
     }
-}
\ No newline at end of file
+
+    /**
+     * Create a consistent conversation ID for two users, regardless of order
+     */
+    public static String createConversationId(String userId1, String userId2) {
+        return userId1.compareTo(userId2) < 0 ? userId1 + "_" + userId2 : userId2 + "_" + userId1;
+    }
+}
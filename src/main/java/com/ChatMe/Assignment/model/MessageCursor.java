@@ -0,0 +1,40 @@
+package com.ChatMe.Assignment.model;
+
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque (timestamp, id) position in a conversation, used for keyset pagination.
+ */
+public record MessageCursor(LocalDateTime timestamp, ObjectId id) {
+
+    private static final char SEPARATOR = '|';
+
+    public static MessageCursor of(Message message) {
+        return new MessageCursor(message.getTimestamp(), new ObjectId(message.getId()));
+    }
+
+    /**
+     * Decode a cursor token produced by {@link #encode()}
+     */
+    public static MessageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new MessageCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    new ObjectId(raw.substring(separator + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    public String encode() {
+        String raw = timestamp.toString() + SEPARATOR + id.toHexString();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,24 @@
+package com.ChatMe.Assignment.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of chat history, oldest message first.
+ * nextCursor continues in the direction that was requested and is null only when the page is empty;
+ * hasMore tells whether that direction has further messages right now.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessagePage {
+
+    private List<Message> messages;
+
+    private String nextCursor;
+
+    private boolean hasMore;
+}
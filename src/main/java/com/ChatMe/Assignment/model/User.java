@@ -3,6 +3,7 @@ package com.ChatMe.Assignment.model;
 import lombok.Data;
 import lombok.Generated;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Data
@@ -14,7 +15,11 @@ public class User {
     private String uid;
 
     private String email;
+
+    // Contact list pages are sorted by name
+    @Indexed(name = "name")
     private String name;
+
     private String photoURL;
     private String provider;
 }
@@ -0,0 +1,15 @@
+package com.ChatMe.Assignment.repository;
+
+import com.ChatMe.Assignment.model.ConversationSummary;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ConversationSummaryRepository extends MongoRepository<ConversationSummary, String>, ConversationSummaryRepositoryCustom {
+
+    // A user's inbox, most recent conversation first
+    List<ConversationSummary> findByUserIdOrderByLastTimestampDesc(String userId, Limit limit);
+}
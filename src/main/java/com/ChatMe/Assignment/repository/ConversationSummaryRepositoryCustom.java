@@ -0,0 +1,28 @@
+package com.ChatMe.Assignment.repository;
+
+import com.ChatMe.Assignment.model.ConversationSummary;
+import com.ChatMe.Assignment.model.Message;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Conversation summary operations that need more than a derived query
+ */
+public interface ConversationSummaryRepositoryCustom {
+
+    /**
+     * Apply new messages to the summaries of both participants (last message, and one more unread
+     * for the receiver unless they have already read past it) with atomic upserts, in a single round
+     * trip. Messages must be in creation order.
+     */
+    void recordMessages(List<Message> messages);
+
+    /**
+     * Apply a read receipt to a user's summary of a conversation. Messages newer than readUpTo stay
+     * unread; a null readUpTo marks everything as read. Returns the updated summary, or empty if the
+     * user has no summary of the conversation.
+     */
+    Optional<ConversationSummary> markRead(String userId, String conversationId, LocalDateTime readUpTo);
+}
@@ -0,0 +1,89 @@
+package com.ChatMe.Assignment.repository;
+
+import com.ChatMe.Assignment.model.ConversationSummary;
+import com.ChatMe.Assignment.model.Message;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@RequiredArgsConstructor
+public class ConversationSummaryRepositoryCustomImpl implements ConversationSummaryRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void recordMessages(List<Message> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        // Ordered, so the last message of a conversation in the batch is the one that sticks
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, ConversationSummary.class);
+        for (Message message : messages) {
+            String senderId = message.getSenderId();
+            String receiverId = message.getReceiverId();
+
+            bulk.upsert(byId(senderId, message.getConversationId()),
+                    lastMessage(senderId, receiverId, message).setOnInsert("unreadCount", 0L));
+            // A note to self is never unread
+            if (!receiverId.equals(senderId)) {
+                bulk.upsert(byId(receiverId, message.getConversationId()),
+                        lastMessage(receiverId, senderId, message).setOnInsert("unreadCount", 0L));
+                // A write-behind message can land after the receiver has already read past it
+                bulk.updateOne(byId(receiverId, message.getConversationId())
+                                .addCriteria(where("lastReadAt").not().gte(message.getTimestamp())),
+                        new Update().inc("unreadCount", 1L));
+            }
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public Optional<ConversationSummary> markRead(String userId, String conversationId, LocalDateTime readUpTo) {
+        FindAndModifyOptions returnNew = FindAndModifyOptions.options().returnNew(true);
+
+        Query query = byId(userId, conversationId);
+        if (readUpTo != null) {
+            query.addCriteria(where("lastTimestamp").lte(readUpTo));
+        }
+        Update read = new Update().set("unreadCount", 0L).set("lastReadAt", readUpTo != null ? readUpTo : LocalDateTime.now());
+
+        ConversationSummary summary = mongoTemplate.findAndModify(query, read, returnNew, ConversationSummary.class);
+        if (summary != null || readUpTo == null) {
+            return Optional.ofNullable(summary);
+        }
+
+        // Messages arrived after the one the reader has seen; those stay unread
+        long unread = mongoTemplate.count(new Query(where("conversationId").is(conversationId)
+                .and("receiverId").is(userId)
+                .and("timestamp").gt(readUpTo)), Message.class);
+        summary = mongoTemplate.findAndModify(byId(userId, conversationId),
+                new Update().set("unreadCount", unread).set("lastReadAt", readUpTo),
+                returnNew, ConversationSummary.class);
+        return Optional.ofNullable(summary);
+    }
+
+    private static Query byId(String userId, String conversationId) {
+        return new Query(where("_id").is(ConversationSummary.createId(userId, conversationId)));
+    }
+
+    private static Update lastMessage(String userId, String peerId, Message message) {
+        return new Update()
+                .set("lastMessageId", message.getId())
+                .set("lastSenderId", message.getSenderId())
+                .set("lastMessage", message.getMessage())
+                .set("lastTimestamp", message.getTimestamp())
+                .setOnInsert("userId", userId)
+                .setOnInsert("peerId", peerId)
+                .setOnInsert("conversationId", message.getConversationId());
+    }
+}
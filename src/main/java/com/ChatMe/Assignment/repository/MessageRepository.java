@@ -1,18 +1,25 @@
 package com.ChatMe.Assignment.repository;
 
 import com.ChatMe.Assignment.model.Message;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface MessageRepository extends MongoRepository<Message, String> {
 
-    // Find messages between two users (both directions)
-    @Query("{ $or: [ { $and: [ { 'senderId': ?0 }, { 'receiverId': ?1 } ] }, { $and: [ { 'senderId': ?1 }, { 'receiverId': ?0 } ] } ] }")
-    List<Message> findMessagesBetweenUsers(String userId1, String userId2);
+    // Find all messages of a conversation (both directions), oldest first
+    List<Message> findByConversationIdOrderByTimestampAsc(String conversationId);
+
+    // Whole conversation oldest first, read through a cursor (streaming history, chat.store=blocking)
+    @Query(value = "{ 'conversationId': ?0 }", sort = "{ 'timestamp': 1, '_id': 1 }")
+    Stream<Message> streamConversation(String conversationId);
 
     // Find messages sent by a specific user
     List<Message> findBySenderIdOrderByTimestampDesc(String senderId);
@@ -20,8 +27,17 @@ public interface MessageRepository extends MongoRepository<Message, String> {
     // Find messages received by a specific user
     List<Message> findByReceiverIdOrderByTimestampDesc(String receiverId);
 
-    // Find recent messages between two users (limited)
-    @Query(value = "{ $or: [ { $and: [ { 'senderId': ?0 }, { 'receiverId': ?1 } ] }, { $and: [ { 'senderId': ?1 }, { 'receiverId': ?0 } ] } ] }",
-            sort = "{ 'timestamp': -1 }")
-    List<Message> findRecentMessagesBetweenUsers(String userId1, String userId2);
-}
\ No newline at end of file
+    // Newest messages of a conversation, limited in the query (recent history and first history page)
+    @Query(value = "{ 'conversationId': ?0 }", sort = "{ 'timestamp': -1, '_id': -1 }")
+    List<Message> findLatestMessagesInConversation(String conversationId, Limit limit);
+
+    // Messages older than the (timestamp, id) cursor, newest first
+    @Query(value = "{ 'conversationId': ?0, $or: [ { 'timestamp': { $lt: ?1 } }, { 'timestamp': ?1, '_id': { $lt: ?2 } } ] }",
+            sort = "{ 'timestamp': -1, '_id': -1 }")
+    List<Message> findMessagesInConversationBefore(String conversationId, LocalDateTime timestamp, ObjectId id, Limit limit);
+
+    // Messages newer than the (timestamp, id) cursor, oldest first
+    @Query(value = "{ 'conversationId': ?0, $or: [ { 'timestamp': { $gt: ?1 } }, { 'timestamp': ?1, '_id': { $gt: ?2 } } ] }",
+            sort = "{ 'timestamp': 1, '_id': 1 }")
+    List<Message> findMessagesInConversationAfter(String conversationId, LocalDateTime timestamp, ObjectId id, Limit limit);
+}
@@ -0,0 +1,18 @@
+package com.ChatMe.Assignment.repository;
+
+import com.ChatMe.Assignment.model.Message;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking access to the messages collection, used with chat.store=reactive
+ */
+@Repository
+public interface ReactiveMessageRepository extends ReactiveMongoRepository<Message, String> {
+
+    // Whole conversation oldest first, emitted as documents arrive from the cursor
+    @Query(value = "{ 'conversationId': ?0 }", sort = "{ 'timestamp': 1, '_id': 1 }")
+    Flux<Message> streamConversation(String conversationId);
+}
@@ -0,0 +1,17 @@
+package com.ChatMe.Assignment.repository;
+
+import com.ChatMe.Assignment.model.User;
+
+import java.util.Optional;
+
+/**
+ * User operations that need more than a derived query
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Atomically insert the user, or update name, photoURL and provider of an existing one,
+     * in a single round trip. Returns the profile as it was before the call (empty if inserted).
+     */
+    Optional<User> upsertProfile(User user);
+}
@@ -0,0 +1,36 @@
+package com.ChatMe.Assignment.repository;
+
+import com.ChatMe.Assignment.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Optional;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@RequiredArgsConstructor
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<User> upsertProfile(User user) {
+        // $set of unchanged values is a no-op on the server, so repeated logins don't rewrite the document
+        Update update = new Update()
+                .set("name", user.getName())
+                .set("photoURL", user.getPhotoURL())
+                .set("provider", user.getProvider())
+                .setOnInsert("email", user.getEmail());
+
+        User previous = mongoTemplate.findAndModify(
+                new Query(where("uid").is(user.getUid())),
+                update,
+                FindAndModifyOptions.options().upsert(true).returnNew(false),
+                User.class
+        );
+        return Optional.ofNullable(previous);
+    }
+}
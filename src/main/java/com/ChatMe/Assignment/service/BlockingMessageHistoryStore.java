@@ -0,0 +1,29 @@
+package com.ChatMe.Assignment.service;
+
+import com.ChatMe.Assignment.model.Message;
+import com.ChatMe.Assignment.repository.MessageRepository;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * History stream over the blocking MessageRepository cursor.
+ * The cursor is read on a bounded-elastic thread, which blocks on every batch fetched from MongoDB.
+ */
+@RequiredArgsConstructor
+public class BlockingMessageHistoryStore implements MessageHistoryStore {
+
+    private final MessageRepository messageRepository;
+
+    @Override
+    public Flux<Message> streamConversation(String conversationId) {
+        // fromStream closes the cursor when the client goes away
+        return Flux.fromStream(() -> messageRepository.streamConversation(conversationId))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public String getName() {
+        return "blocking";
+    }
+}
@@ -0,0 +1,218 @@
+package com.ChatMe.Assignment.service;
+
+import com.ChatMe.Assignment.model.Contact;
+import com.ChatMe.Assignment.model.ContactPage;
+import com.ChatMe.Assignment.model.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Paginated contact list with only the fields the user-select screen shows (uid, name, photoURL).
+ * One list of all contacts, sorted by name, is cached and shared by every requesting user; a page
+ * is cut from it after leaving out the requesting user. Saved users are applied to the cached list
+ * in place. Each page carries an ETag computed from its content, so repeated loads of an unchanged
+ * page cost no response body.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ContactListService {
+
+    private static final Comparator<Contact> BY_NAME = Comparator
+            .comparing(Contact::getName, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Contact::getUid);
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${chat.users.contacts.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    // Above this many users, pages are queried from the database instead
+    @Value("${chat.users.contacts.cache.max-contacts:100000}")
+    private int maxCachedContacts;
+
+    // Replaced, never modified, so readers need no lock; null until loaded
+    private volatile ContactList contactList;
+
+    // Bumped on every change; lets a loader detect that it raced with a user update
+    private long generation;
+
+    private long hits;
+    private long misses;
+
+    /**
+     * A contact page and the ETag of its content
+     */
+    public record TaggedPage(ContactPage page, String etag) {
+    }
+
+    /**
+     * Get one page of contacts ordered by name, excluding the given user
+     */
+    public TaggedPage getPage(String excludeUserId, int page, int size) throws JsonProcessingException {
+        ContactList contacts = contacts();
+        ContactPage contactPage = contacts != null
+                ? contacts.page(excludeUserId, page, size)
+                : query(excludeUserId, page, size);
+
+        String etag = "\"" + DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(contactPage)) + "\"";
+        return new TaggedPage(contactPage, etag);
+    }
+
+    /**
+     * Apply a saved user to the cached list
+     */
+    public synchronized void update(User user) {
+        generation++;
+        if (contactList == null) {
+            return;
+        }
+        ContactList updated = contactList.with(new Contact(user.getUid(), user.getName(), user.getPhotoURL()));
+        contactList = updated.size() <= maxCachedContacts ? updated : null;
+    }
+
+    /**
+     * Cache statistics (for monitoring)
+     */
+    public synchronized Map<String, Object> getStats() {
+        return Map.of(
+                "enabled", cacheEnabled,
+                "cachedContacts", contactList != null ? contactList.size() : 0,
+                "hits", hits,
+                "misses", misses
+        );
+    }
+
+    private ContactList contacts() {
+        if (!cacheEnabled) {
+            return null;
+        }
+
+        long stamp;
+        synchronized (this) {
+            if (contactList != null) {
+                hits++;
+                return contactList;
+            }
+            misses++;
+            stamp = generation;
+        }
+
+        ContactList loaded = load();
+
+        synchronized (this) {
+            // Don't cache a list that may have been read before a concurrent save
+            if (loaded != null && generation == stamp) {
+                contactList = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    private ContactList load() {
+        long total = mongoTemplate.count(new Query(), User.class);
+        if (total > maxCachedContacts) {
+            log.debug("Not caching contact list: {} users (max {})", total, maxCachedContacts);
+            return null;
+        }
+
+        Query query = new Query();
+        query.fields().include("name", "photoURL");
+
+        List<Contact> contacts = new ArrayList<>((int) total);
+        for (User user : mongoTemplate.find(query, User.class)) {
+            contacts.add(new Contact(user.getUid(), user.getName(), user.getPhotoURL()));
+        }
+        // Sorted here, so updates can find their position with the same order
+        contacts.sort(BY_NAME);
+
+        log.debug("Loaded contact list: {} users", contacts.size());
+        return ContactList.of(contacts);
+    }
+
+    private ContactPage query(String excludeUserId, int page, int size) {
+        Query filter = new Query();
+        if (excludeUserId != null && !excludeUserId.isEmpty()) {
+            filter.addCriteria(where("uid").ne(excludeUserId));
+        }
+
+        long total = mongoTemplate.count(filter, User.class);
+
+        Query query = Query.of(filter)
+                .with(Sort.by("name", "uid"))
+                .skip((long) page * size)
+                .limit(size);
+        query.fields().include("name", "photoURL");
+
+        List<Contact> contacts = new ArrayList<>();
+        for (User user : mongoTemplate.find(query, User.class)) {
+            contacts.add(new Contact(user.getUid(), user.getName(), user.getPhotoURL()));
+        }
+        return new ContactPage(contacts, page, size, total, (long) (page + 1) * size < total);
+    }
+
+    /**
+     * All contacts sorted by name, with a uid lookup to find any of them by binary search
+     */
+    private record ContactList(List<Contact> sorted, Map<String, Contact> byUid) {
+
+        static ContactList of(List<Contact> sorted) {
+            Map<String, Contact> byUid = new HashMap<>(sorted.size() * 2);
+            for (Contact contact : sorted) {
+                byUid.put(contact.getUid(), contact);
+            }
+            return new ContactList(Collections.unmodifiableList(sorted), byUid);
+        }
+
+        int size() {
+            return sorted.size();
+        }
+
+        ContactPage page(String excludeUserId, int page, int size) {
+            Contact excluded = excludeUserId != null ? byUid.get(excludeUserId) : null;
+            int excludedAt = excluded != null ? Collections.binarySearch(sorted, excluded, BY_NAME) : -1;
+
+            int total = sorted.size() - (excludedAt >= 0 ? 1 : 0);
+            int from = (int) Math.min((long) page * size, total);
+            int to = (int) Math.min((long) from + size, total);
+
+            List<Contact> contacts = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                // Positions at and after the excluded user shift by one
+                contacts.add(sorted.get(excludedAt >= 0 && i >= excludedAt ? i + 1 : i));
+            }
+            return new ContactPage(contacts, page, size, total, to < total);
+        }
+
+        ContactList with(Contact contact) {
+            List<Contact> updated = new ArrayList<>(sorted);
+            Map<String, Contact> updatedByUid = new HashMap<>(byUid);
+
+            Contact previous = updatedByUid.put(contact.getUid(), contact);
+            if (previous != null) {
+                updated.remove(Collections.binarySearch(updated, previous, BY_NAME));
+            }
+            int at = Collections.binarySearch(updated, contact, BY_NAME);
+            updated.add(-at - 1, contact);
+            return new ContactList(Collections.unmodifiableList(updated), updatedByUid);
+        }
+    }
+}
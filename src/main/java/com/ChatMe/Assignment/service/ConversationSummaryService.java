@@ -0,0 +1,347 @@
+package com.ChatMe.Assignment.service;
+
+import com.ChatMe.Assignment.event.MessagesPersistedEvent;
+import com.ChatMe.Assignment.event.MessagesReadEvent;
+import com.ChatMe.Assignment.model.ConversationSummary;
+import com.ChatMe.Assignment.model.Message;
+import com.ChatMe.Assignment.repository.ConversationSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Per-user inbox: the latest message and unread count of every conversation, materialized in the
+ * conversation_summaries collection so the inbox loads with one indexed read instead of a scan over
+ * all received messages. Summaries are updated incrementally for every created message and every
+ * read receipt.
+ *
+ * The most recent conversations of active users are also cached in memory, newest first, and kept
+ * current write-through. A cached inbox that can't be updated exactly is dropped and reloaded, but
+ * not while the user has messages queued for write-behind that the stored summaries don't show yet.
+ * The cache is split into independently locked segments by user, each with its own LRU order and
+ * a share of the user limit, so inboxes in different segments don't contend.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ConversationSummaryService {
+
+    private static final int WRITE_STAMP_STRIPES = 1024;
+
+    // Divides WRITE_STAMP_STRIPES, so every write stamp belongs to exactly one segment
+    private static final int SEGMENTS = 16;
+
+    private final ConversationSummaryRepository summaryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${chat.inbox.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${chat.inbox.cache.max-users:10000}")
+    private int maxUsers;
+
+    // Conversations cached per user, and the largest inbox page served
+    @Value("${chat.inbox.max-conversations:100}")
+    private int maxConversations;
+
+    private final Segment[] segments = createSegments();
+
+    // Bumped on every write to a user's inbox; lets a loader detect that it raced with a write.
+    // A stamp is guarded by the segment its stripe belongs to.
+    private final long[] writeStamps = new long[WRITE_STAMP_STRIPES];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder failedUpdates = new LongAdder();
+
+    /**
+     * Apply a message that has been saved to the summaries of both participants
+     */
+    public void recordMessage(Message message) {
+        try {
+            summaryRepository.recordMessages(List.of(message));
+            cacheMessage(message, 0);
+        } catch (Exception e) {
+            // The message itself is saved; only the inbox is behind
+            log.warn("⚠️ Failed to update conversation summaries for message {}: {}", message.getId(), e.getMessage());
+            invalidate(message.getSenderId(), message.getReceiverId(), true);
+        }
+    }
+
+    /**
+     * Apply a message queued for write-behind to the cached inboxes only.
+     * The stored summaries follow once its batch has been committed.
+     */
+    public void recordPendingMessage(Message message) {
+        cacheMessage(message, 1);
+    }
+
+    /**
+     * Update the stored summaries for a committed write-behind batch in one round trip
+     */
+    @EventListener
+    public void handleMessagesPersisted(MessagesPersistedEvent event) {
+        try {
+            summaryRepository.recordMessages(event.getPersisted());
+        } catch (Exception e) {
+            log.warn("⚠️ Failed to update conversation summaries for {} messages: {}",
+                    event.getPersisted().size(), e.getMessage());
+            event.getPersisted().forEach(message -> invalidate(message.getSenderId(), message.getReceiverId(), true));
+        }
+        // These were counted in the cache when they were queued
+        event.getFailed().forEach(message -> invalidate(message.getSenderId(), message.getReceiverId(), false));
+
+        if (cacheEnabled) {
+            event.getPersisted().forEach(message -> forEachParticipant(message, this::settle));
+            event.getFailed().forEach(message -> forEachParticipant(message, this::settle));
+        }
+    }
+
+    /**
+     * Get a user's most recent conversations, newest first (at most chat.inbox.max-conversations)
+     */
+    public List<ConversationSummary> getInbox(String userId, int limit) {
+        int size = Math.max(1, Math.min(limit, maxConversations));
+        if (!cacheEnabled) {
+            return summaryRepository.findByUserIdOrderByLastTimestampDesc(userId, Limit.of(size));
+        }
+
+        Segment segment = segment(userId);
+        long stamp;
+        synchronized (segment) {
+            List<ConversationSummary> cached = segment.inboxes.get(userId);
+            if (cached != null) {
+                hits.increment();
+                return new ArrayList<>(cached.subList(0, Math.min(size, cached.size())));
+            }
+            misses.increment();
+            stamp = writeStamps[stripe(userId)];
+        }
+
+        List<ConversationSummary> loaded = summaryRepository.findByUserIdOrderByLastTimestampDesc(userId, Limit.of(maxConversations));
+
+        synchronized (segment) {
+            // Don't cache an inbox that may have been read before a concurrent update,
+            // or that is missing messages still queued for write-behind
+            if (writeStamps[stripe(userId)] == stamp && !segment.pendingWrites.containsKey(userId)) {
+                segment.inboxes.put(userId, new ArrayList<>(loaded));
+                evictIfNeeded(segment);
+            }
+        }
+        log.debug("Loaded inbox of user {}: {} conversations", userId, loaded.size());
+        return new ArrayList<>(loaded.subList(0, Math.min(size, loaded.size())));
+    }
+
+    /**
+     * Apply a read receipt: readerId has read the chat with peerId up to readUpTo (everything if null).
+     * Publishes a MessagesReadEvent and returns the updated summary, or empty if there is nothing to mark.
+     */
+    public Optional<ConversationSummary> markRead(String readerId, String peerId, LocalDateTime readUpTo) {
+        String conversationId = Message.createConversationId(readerId, peerId);
+        Optional<ConversationSummary> updated = summaryRepository.markRead(readerId, conversationId, readUpTo);
+
+        updated.ifPresent(summary -> {
+            cacheRead(summary);
+            eventPublisher.publishEvent(new MessagesReadEvent(this, summary, readUpTo));
+            log.debug("User {} read conversation {} up to {} ({} unread)", readerId, conversationId, readUpTo, summary.getUnreadCount());
+        });
+        return updated;
+    }
+
+    /**
+     * Cache statistics (for monitoring)
+     */
+    public Map<String, Object> getStats() {
+        int cachedInboxes = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                cachedInboxes += segment.inboxes.size();
+            }
+        }
+
+        return Map.of(
+                "cacheEnabled", cacheEnabled,
+                "cachedInboxes", cachedInboxes,
+                "hits", hits.sum(),
+                "misses", misses.sum(),
+                "evictions", evictions.sum(),
+                "failedUpdates", failedUpdates.sum()
+        );
+    }
+
+    private void cacheMessage(Message message, int pending) {
+        if (!cacheEnabled) {
+            return;
+        }
+
+        String senderId = message.getSenderId();
+        String receiverId = message.getReceiverId();
+        // One segment at a time, never nested, so two messages in opposite directions can't deadlock
+        cacheMessage(senderId, receiverId, message, false, pending);
+        if (!receiverId.equals(senderId)) {
+            cacheMessage(receiverId, senderId, message, true, pending);
+        }
+    }
+
+    private void cacheMessage(String userId, String peerId, Message message, boolean unread, int pending) {
+        Segment segment = segment(userId);
+        synchronized (segment) {
+            writeStamps[stripe(userId)]++;
+            if (pending != 0) {
+                addPending(segment, userId, pending);
+            }
+
+            List<ConversationSummary> inbox = segment.inboxes.get(userId);
+            if (inbox == null) {
+                return;
+            }
+
+            ConversationSummary previous = remove(inbox, message.getConversationId());
+            if (previous == null && inbox.size() == maxConversations) {
+                // The conversation may exist beyond the cached ones, with an unread count we don't know
+                segment.inboxes.remove(userId);
+                return;
+            }
+
+            // Cached summaries are replaced, never modified, so copies handed out stay consistent
+            long unreadCount = (previous != null ? previous.getUnreadCount() : 0) + (unread ? 1 : 0);
+            inbox.add(0, new ConversationSummary(
+                    ConversationSummary.createId(userId, message.getConversationId()),
+                    userId,
+                    peerId,
+                    message.getConversationId(),
+                    message.getId(),
+                    message.getSenderId(),
+                    message.getMessage(),
+                    message.getTimestamp(),
+                    unreadCount,
+                    previous != null ? previous.getLastReadAt() : null
+            ));
+        }
+    }
+
+    private void cacheRead(ConversationSummary summary) {
+        if (!cacheEnabled) {
+            return;
+        }
+
+        Segment segment = segment(summary.getUserId());
+        synchronized (segment) {
+            writeStamps[stripe(summary.getUserId())]++;
+            List<ConversationSummary> inbox = segment.inboxes.get(summary.getUserId());
+            if (inbox == null) {
+                return;
+            }
+
+            for (int i = 0; i < inbox.size(); i++) {
+                ConversationSummary cached = inbox.get(i);
+                if (cached.getConversationId().equals(summary.getConversationId())) {
+                    // Keep the cached last message, which may be ahead of the stored one under write-behind
+                    ConversationSummary read = new ConversationSummary(
+                            cached.getId(), cached.getUserId(), cached.getPeerId(), cached.getConversationId(),
+                            cached.getLastMessageId(), cached.getLastSenderId(), cached.getLastMessage(),
+                            cached.getLastTimestamp(), summary.getUnreadCount(), summary.getLastReadAt());
+                    inbox.set(i, read);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void invalidate(String senderId, String receiverId, boolean failedUpdate) {
+        if (failedUpdate) {
+            failedUpdates.increment();
+        }
+        for (String userId : List.of(senderId, receiverId)) {
+            Segment segment = segment(userId);
+            synchronized (segment) {
+                writeStamps[stripe(userId)]++;
+                segment.inboxes.remove(userId);
+            }
+        }
+    }
+
+    private void settle(String userId) {
+        Segment segment = segment(userId);
+        synchronized (segment) {
+            // A load that read the summaries before they were stored must not be cached
+            writeStamps[stripe(userId)]++;
+            addPending(segment, userId, -1);
+        }
+    }
+
+    private static void forEachParticipant(Message message, Consumer<String> action) {
+        action.accept(message.getSenderId());
+        if (!message.getReceiverId().equals(message.getSenderId())) {
+            action.accept(message.getReceiverId());
+        }
+    }
+
+    private static void addPending(Segment segment, String userId, int delta) {
+        // The flush can be reported before the enqueueing thread counts the message, so counts may dip below zero
+        segment.pendingWrites.merge(userId, delta, (count, change) -> count + change == 0 ? null : count + change);
+    }
+
+    private static ConversationSummary remove(List<ConversationSummary> inbox, String conversationId) {
+        Iterator<ConversationSummary> summaries = inbox.iterator();
+        while (summaries.hasNext()) {
+            ConversationSummary summary = summaries.next();
+            if (summary.getConversationId().equals(conversationId)) {
+                summaries.remove();
+                return summary;
+            }
+        }
+        return null;
+    }
+
+    private void evictIfNeeded(Segment segment) {
+        int segmentMaxUsers = Math.max(1, (maxUsers + SEGMENTS - 1) / SEGMENTS);
+
+        Iterator<List<ConversationSummary>> lru = segment.inboxes.values().iterator();
+        while (segment.inboxes.size() > segmentMaxUsers && lru.hasNext()) {
+            lru.next();
+            lru.remove();
+            evictions.increment();
+        }
+    }
+
+    private Segment segment(String userId) {
+        return segments[stripe(userId) % SEGMENTS];
+    }
+
+    private static int stripe(String userId) {
+        return (userId.hashCode() & 0x7fffffff) % WRITE_STAMP_STRIPES;
+    }
+
+    private static Segment[] createSegments() {
+        Segment[] segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+        return segments;
+    }
+
+    private static class Segment {
+        // Access-ordered, so iteration starts at the least recently used inbox
+        private final LinkedHashMap<String, List<ConversationSummary>> inboxes = new LinkedHashMap<>(64, 0.75f, true);
+
+        // Write-behind messages per user whose summaries are not stored yet; their inboxes can't be loaded
+        private final Map<String, Integer> pendingWrites = new HashMap<>();
+    }
+}
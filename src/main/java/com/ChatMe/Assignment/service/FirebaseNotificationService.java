@@ -1,72 +1,372 @@
 // src/main/java/com/ChatMe/Assignment/service/FirebaseNotificationService.java
 package com.ChatMe.Assignment.service;
 
+import com.ChatMe.Assignment.config.ExecutionModeConfig;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class FirebaseNotificationService {
 
+    private final SimpUserRegistry userRegistry;
+    private final MeterRegistry meterRegistry;
+    private final ExecutionModeConfig executionMode;
+
     @Value("${firebase.functions.base-url:https://us-central1-chatme-assignment.cloudfunctions.net}")
     private String firebaseFunctionsBaseUrl;
 
-    private final RestTemplate restTemplate;
+    @Value("${firebase.notifications.workers:4}")
+    private int workers;
+
+    @Value("${firebase.notifications.queue-capacity:1000}")
+    private int queueCapacity;
+
+    // What to do when the queue is full: drop-oldest or drop-newest
+    @Value("${firebase.notifications.overflow-policy:drop-oldest}")
+    private String overflowPolicy;
+
+    @Value("${firebase.notifications.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${firebase.notifications.backoff-ms:200}")
+    private long backoffMs;
+
+    // Notifications for the same receiver within this window are sent as one (0 disables coalescing)
+    @Value("${firebase.notifications.coalesce-window-ms:1500}")
+    private long coalesceWindowMs;
+
+    // Receivers with an open WebSocket session already see the message, so they get no push
+    @Value("${firebase.notifications.skip-online-receivers:true}")
+    private boolean skipOnlineReceivers;
+
+    @Value("${firebase.notifications.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${firebase.notifications.read-timeout-ms:5000}")
+    private long readTimeoutMs;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong skippedOnline = new AtomicLong();
+    private final AtomicLong totalLatencyMillis = new AtomicLong();
+    private final AtomicLong maxLatencyMillis = new AtomicLong();
+
+    // Pending notifications per receiverId, waiting for the coalescing window to close
+    private final ConcurrentHashMap<String, PendingNotifications> pending = new ConcurrentHashMap<>();
+
+    private RestTemplate restTemplate;
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService coalescingScheduler;
+
+    // Built once in start(), not looked up in the registry per delivery
+    private Timer successTimer;
+    private Timer failureTimer;
+
+    @PostConstruct
+    public void start() {
+        // The JDK client keeps connections to the Cloud Function alive and reuses them
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        this.restTemplate = new RestTemplate(requestFactory);
+
+        // With virtual threads a blocked call costs no platform thread; workers still caps concurrent calls
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = executionMode.isVirtual()
+                ? executionMode.virtualThreadExecutor("push-notification-").getVirtualThreadFactory()
+                : runnable -> {
+                    Thread thread = new Thread(runnable, "push-notification-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                };
+        this.executor = new ThreadPoolExecutor(
+                workers, workers,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory,
+                overflowHandler()
+        );
+
+        this.coalescingScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "push-notification-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        registerMetrics();
+
+        log.info("Push notification dispatcher started (workers={}, queueCapacity={}, overflowPolicy={}, coalesceWindowMs={})",
+                workers, queueCapacity, overflowPolicy, coalesceWindowMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        coalescingScheduler.shutdownNow();
+        // Whatever is still waiting for its window goes out now
+        pending.keySet().forEach(this::flushPending);
 
-    public FirebaseNotificationService() {
-        this.restTemplate = new RestTemplate();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("Push notification dispatcher stopped with {} notifications pending", executor.getQueue().size());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
     }
 
     /**
-     * Trigger Firebase Function to send push notification
+     * Trigger Firebase Function to send push notification.
+     * Only queues the notification - delivery happens on the dispatcher's worker threads,
+     * so the caller never waits on the Cloud Function. Bursts for the same receiver are
+     * coalesced into a single notification.
      */
     public void sendPushNotification(String receiverId, String senderId, String message, String senderName) {
-        try {
-            // Prepare the request payload
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("receiverId", receiverId);
-            payload.put("senderId", senderId);
-            payload.put("message", message);
-            payload.put("senderName", senderName != null ? senderName : senderId);
-
-            // Set headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
-            // Create the request entity
-            HttpEntity<Map<String, Object>> requestEntity = new HttpEntity<>(payload, headers);
-
-            // Call Firebase Function
-            String functionUrl = firebaseFunctionsBaseUrl + "/sendNotificationHTTP";
-
-            log.debug("Calling Firebase Function: {} with payload: {}", functionUrl, payload);
-
-            ResponseEntity<Map> response = restTemplate.postForEntity(
-                    functionUrl,
-                    requestEntity,
-                    Map.class
-            );
-
-            if (response.getStatusCode().is2xxSuccessful()) {
-                log.info("Push notification sent successfully for message to user: {}", receiverId);
-                log.debug("Firebase Function response: {}", response.getBody());
+        String displayName = senderName != null ? senderName : senderId;
+
+        if (coalesceWindowMs <= 0) {
+            dispatch(receiverId, senderId, message, displayName, 1);
+            return;
+        }
+
+        pending.compute(receiverId, (key, batch) -> {
+            if (batch == null) {
+                batch = new PendingNotifications();
+                coalescingScheduler.schedule(() -> flushPending(key), coalesceWindowMs, TimeUnit.MILLISECONDS);
             } else {
-                log.warn("Firebase Function returned non-success status: {}", response.getStatusCode());
+                coalesced.incrementAndGet();
             }
+            batch.add(senderId, displayName, message);
+            return batch;
+        });
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to send push notification via Firebase Function: {}", e.getMessage(), e);
-            // Don't throw exception - notification failure shouldn't break message sending
+    private void flushPending(String receiverId) {
+        PendingNotifications batch = pending.remove(receiverId);
+        if (batch == null) {
+            return;
+        }
+
+        if (batch.count == 1) {
+            dispatch(receiverId, batch.lastSenderId, batch.lastMessage, batch.senderNames.get(batch.lastSenderId), 1);
+            return;
+        }
+
+        String senderNames = String.join(", ", batch.senderNames.values());
+        dispatch(receiverId, batch.lastSenderId, batch.count + " new messages from " + senderNames, senderNames, batch.count);
+    }
+
+    private void dispatch(String receiverId, String senderId, String message, String senderName, int count) {
+        if (skipOnlineReceivers && userRegistry.getUser(receiverId) != null) {
+            skippedOnline.incrementAndGet();
+            log.debug("Skipping push notification for {}: receiver has an active WebSocket session", receiverId);
+            return;
+        }
+
+        // Prepare the request payload
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("receiverId", receiverId);
+        payload.put("senderId", senderId);
+        payload.put("message", message);
+        payload.put("senderName", senderName);
+        payload.put("count", count);
+
+        long enqueuedAt = System.nanoTime();
+        executor.execute(() -> deliver(payload, enqueuedAt));
+    }
+
+    /**
+     * Dispatcher statistics (for monitoring)
+     */
+    public Map<String, Object> getStats() {
+        long delivered = sent.get();
+        return Map.ofEntries(
+                Map.entry("queueDepth", executor.getQueue().size()),
+                Map.entry("activeWorkers", executor.getActiveCount()),
+                Map.entry("pendingReceivers", pending.size()),
+                Map.entry("sent", delivered),
+                Map.entry("failed", failed.get()),
+                Map.entry("dropped", dropped.get()),
+                Map.entry("coalesced", coalesced.get()),
+                Map.entry("skippedOnline", skippedOnline.get()),
+                Map.entry("retries", retries.get()),
+                Map.entry("averageLatencyMs", delivered > 0 ? totalLatencyMillis.get() / delivered : 0),
+                Map.entry("maxLatencyMs", maxLatencyMillis.get())
+        );
+    }
+
+    private void deliver(Map<String, Object> payload, long enqueuedAt) {
+        Object receiverId = payload.get("receiverId");
+
+        // Set headers
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        // Create the request entity
+        HttpEntity<Map<String, Object>> requestEntity = new HttpEntity<>(payload, headers);
+
+        // Call Firebase Function
+        String functionUrl = firebaseFunctionsBaseUrl + "/sendNotificationHTTP";
+
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                log.debug("Calling Firebase Function: {} with payload: {} (attempt {})", functionUrl, payload, attempt);
+
+                ResponseEntity<Map> response = restTemplate.postForEntity(
+                        functionUrl,
+                        requestEntity,
+                        Map.class
+                );
+
+                if (response.getStatusCode().is2xxSuccessful()) {
+                    recordDelivery(enqueuedAt);
+                    log.info("Push notification sent successfully for message to user: {}", receiverId);
+                    log.debug("Firebase Function response: {}", response.getBody());
+                } else {
+                    recordFailure(enqueuedAt);
+                    log.warn("Firebase Function returned non-success status: {}", response.getStatusCode());
+                }
+                return;
+
+            } catch (HttpClientErrorException e) {
+                // 4xx - the request itself is wrong, retrying will not help
+                recordFailure(enqueuedAt);
+                log.error("Firebase Function rejected push notification for user {}: {}", receiverId, e.getStatusCode());
+                return;
+            } catch (Exception e) {
+                if (attempt == maxAttempts) {
+                    recordFailure(enqueuedAt);
+                    log.error("Failed to send push notification via Firebase Function after {} attempts: {}",
+                            attempt, e.getMessage(), e);
+                    return;
+                }
+
+                retries.incrementAndGet();
+                log.warn("Push notification attempt {} for user {} failed, retrying: {}", attempt, receiverId, e.getMessage());
+                if (!sleepBeforeRetry(attempt)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private boolean sleepBeforeRetry(int attempt) {
+        // Exponential backoff with jitter, so retries from many workers do not line up
+        long backoff = backoffMs << (attempt - 1);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void recordDelivery(long enqueuedAt) {
+        long elapsedNanos = System.nanoTime() - enqueuedAt;
+        successTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        long latency = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        sent.incrementAndGet();
+        totalLatencyMillis.addAndGet(latency);
+        maxLatencyMillis.accumulateAndGet(latency, Math::max);
+    }
+
+    private void recordFailure(long enqueuedAt) {
+        failureTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+        failed.incrementAndGet();
+    }
+
+    private Timer deliveryTimer(String outcome) {
+        return Timer.builder("chat.notifications.delivery")
+                .description("Time from queueing a push notification until the Cloud Function answered")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private void registerMetrics() {
+        successTimer = deliveryTimer("success");
+        failureTimer = deliveryTimer("failure");
+        Gauge.builder("chat.notifications.queue", executor, pool -> pool.getQueue().size())
+                .description("Push notifications waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("chat.notifications.pending_receivers", pending, Map::size)
+                .description("Receivers with notifications waiting for the coalescing window")
+                .register(meterRegistry);
+        FunctionCounter.builder("chat.notifications.dropped", dropped, AtomicLong::get)
+                .register(meterRegistry);
+        FunctionCounter.builder("chat.notifications.coalesced", coalesced, AtomicLong::get)
+                .register(meterRegistry);
+        FunctionCounter.builder("chat.notifications.skipped_online", skippedOnline, AtomicLong::get)
+                .register(meterRegistry);
+        FunctionCounter.builder("chat.notifications.retries", retries, AtomicLong::get)
+                .register(meterRegistry);
+    }
+
+    private RejectedExecutionHandler overflowHandler() {
+        if ("drop-newest".equalsIgnoreCase(overflowPolicy)) {
+            return (runnable, pool) -> {
+                dropped.incrementAndGet();
+                log.warn("Push notification queue full, dropping new notification");
+            };
         }
+
+        return (runnable, pool) -> {
+            if (pool.isShutdown()) {
+                dropped.incrementAndGet();
+                return;
+            }
+            // Make room by discarding the oldest pending notification
+            if (pool.getQueue().poll() != null) {
+                dropped.incrementAndGet();
+                log.warn("Push notification queue full, dropped oldest notification");
+            }
+            if (!pool.getQueue().offer(runnable)) {
+                dropped.incrementAndGet();
+            }
+        };
     }
 
     /**
@@ -86,4 +386,21 @@ public class FirebaseNotificationService {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Notifications for one receiver collected during the coalescing window
+     */
+    private static class PendingNotifications {
+        private final Map<String, String> senderNames = new LinkedHashMap<>();
+        private String lastSenderId;
+        private String lastMessage;
+        private int count;
+
+        private void add(String senderId, String senderName, String message) {
+            senderNames.put(senderId, senderName);
+            lastSenderId = senderId;
+            lastMessage = message;
+            count++;
+        }
+    }
+}
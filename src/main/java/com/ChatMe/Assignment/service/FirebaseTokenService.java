@@ -1,21 +1,124 @@
 package com.ChatMe.Assignment.service;
 
-import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.ErrorCode;
+import com.google.firebase.auth.AuthErrorCode;
 import com.google.firebase.auth.FirebaseAuthException;
 import com.google.firebase.auth.FirebaseToken;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class FirebaseTokenService {
 
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final FirebaseTokenVerifier tokenVerifier;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${firebase.token-cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${firebase.token-cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    // Upper bound on how long a verified token is trusted, even if its exp claim is later
+    @Value("${firebase.token-cache.max-ttl-seconds:3600}")
+    private long cacheMaxTtlSeconds;
+
+    // Verified tokens keyed by a SHA-256 hash of the raw token, so raw tokens are never kept in memory
+    private final ConcurrentHashMap<String, CachedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    private final AtomicLong cacheEvictions = new AtomicLong();
+    private final AtomicLong verifications = new AtomicLong();
+    private final AtomicLong verificationNanos = new AtomicLong();
+
+    // Built once; looking a meter up in the registry on every verification is not free
+    private Timer validTimer;
+    private Timer invalidTimer;
+
+    @PostConstruct
+    public void registerMetrics() {
+        validTimer = verificationTimer("valid");
+        invalidTimer = verificationTimer("invalid");
+        Gauge.builder("chat.auth.token_cache.size", verifiedTokens, Map::size)
+                .description("Verified tokens held in the cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("chat.auth.token_cache.requests", cacheHits, AtomicLong::get)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("chat.auth.token_cache.requests", cacheMisses, AtomicLong::get)
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Verify a Firebase ID token. Tokens that were verified before are served from the
+     * cache until their exp claim, skipping signature verification.
+     * A missing or blank token is rejected like any other invalid token.
+     */
     public FirebaseToken verifyToken(String idToken) throws FirebaseAuthException {
+        if (idToken == null || idToken.isBlank()) {
+            log.error("Failed to verify Firebase token: no token given");
+            throw new FirebaseAuthException(ErrorCode.INVALID_ARGUMENT, "ID token must not be null or empty",
+                    null, null, AuthErrorCode.INVALID_ID_TOKEN);
+        }
+
+        String key = cacheEnabled ? hash(idToken) : null;
+
+        if (key != null) {
+            CachedToken cached = verifiedTokens.get(key);
+            if (cached != null) {
+                if (cached.expiresAtMillis() > System.currentTimeMillis()) {
+                    cacheHits.incrementAndGet();
+                    return cached.token();
+                }
+                verifiedTokens.remove(key, cached);
+            }
+            cacheMisses.incrementAndGet();
+        }
+
+        long start = System.nanoTime();
         try {
-            FirebaseToken decodedToken = FirebaseAuth.getInstance().verifyIdToken(idToken);
+            FirebaseToken decodedToken = tokenVerifier.verifyIdToken(idToken);
+            long elapsed = System.nanoTime() - start;
+            validTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            verificationNanos.addAndGet(elapsed);
+            verifications.incrementAndGet();
             log.debug("Token verified successfully for user: {}", decodedToken.getUid());
+
+            if (key != null) {
+                cache(key, decodedToken);
+            }
             return decodedToken;
         } catch (FirebaseAuthException e) {
+            invalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
             log.error("Failed to verify Firebase token: {}", e.getMessage());
             throw e;
         }
@@ -39,4 +142,67 @@ public class FirebaseTokenService {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Token cache statistics (for monitoring)
+     */
+    public Map<String, Object> getCacheStats() {
+        long count = verifications.get();
+        return Map.of(
+                "enabled", cacheEnabled,
+                "size", verifiedTokens.size(),
+                "hits", cacheHits.get(),
+                "misses", cacheMisses.get(),
+                "evictions", cacheEvictions.get(),
+                "verifications", count,
+                "averageVerificationMicros", count > 0 ? TimeUnit.NANOSECONDS.toMicros(verificationNanos.get() / count) : 0
+        );
+    }
+
+    private Timer verificationTimer(String outcome) {
+        return Timer.builder("chat.auth.token.verify")
+                .description("Firebase ID token signature verification (cache misses only)")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private void cache(String key, FirebaseToken token) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + TimeUnit.SECONDS.toMillis(cacheMaxTtlSeconds);
+
+        Object exp = token.getClaims().get("exp");
+        if (exp instanceof Number) {
+            expiresAt = Math.min(expiresAt, TimeUnit.SECONDS.toMillis(((Number) exp).longValue()));
+        }
+        if (expiresAt <= now) {
+            return;
+        }
+
+        if (verifiedTokens.size() >= cacheMaxSize) {
+            evict(now);
+        }
+        verifiedTokens.put(key, new CachedToken(token, expiresAt));
+    }
+
+    private void evict(long now) {
+        // Expired tokens go first
+        verifiedTokens.values().removeIf(cached -> cached.expiresAtMillis() <= now);
+
+        // Still full: drop arbitrary entries until there is 10% headroom
+        int target = cacheMaxSize - Math.max(1, cacheMaxSize / 10);
+        Iterator<CachedToken> iterator = verifiedTokens.values().iterator();
+        while (verifiedTokens.size() > target && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            cacheEvictions.incrementAndGet();
+        }
+    }
+
+    private static String hash(String idToken) {
+        byte[] digest = SHA_256.get().digest(idToken.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(digest);
+    }
+
+    private record CachedToken(FirebaseToken token, long expiresAtMillis) {
+    }
+}
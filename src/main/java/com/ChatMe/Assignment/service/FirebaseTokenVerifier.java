@@ -0,0 +1,15 @@
+package com.ChatMe.Assignment.service;
+
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseToken;
+
+/**
+ * Checks the signature of a Firebase ID token and decodes it.
+ * The Firebase Admin SDK implementation is registered by FirebaseConfig; tests and load tools
+ * can supply their own bean (with firebase.admin.enabled=false) to run without Firebase.
+ */
+@FunctionalInterface
+public interface FirebaseTokenVerifier {
+
+    FirebaseToken verifyIdToken(String idToken) throws FirebaseAuthException;
+}
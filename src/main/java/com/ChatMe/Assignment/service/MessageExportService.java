@@ -0,0 +1,108 @@
+package com.ChatMe.Assignment.service;
+
+import com.ChatMe.Assignment.model.Message;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Export of a user's sent or received messages, newest first.
+ * Messages are read through a MongoDB cursor and serialized straight into the output stream,
+ * so memory use stays the same however many messages the user has. The queries are range
+ * scans over the sender_timestamp and receiver_timestamp indexes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MessageExportService {
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${chat.export.batch-size:500}")
+    private int batchSize;
+
+    public enum Direction {
+        SENT("senderId"),
+        RECEIVED("receiverId");
+
+        private final String field;
+
+        Direction(String field) {
+            this.field = field;
+        }
+    }
+
+    public enum Format {
+        // One JSON message per line
+        NDJSON,
+        // A single JSON array, written element by element
+        JSON
+    }
+
+    /**
+     * Write the messages a user sent or received in [from, to) to out (both bounds optional).
+     * Returns the number of messages written. The output stream is flushed but not closed.
+     */
+    public long export(Direction direction, String userId, LocalDateTime from, LocalDateTime to,
+                       Format format, OutputStream out) throws IOException {
+        Criteria criteria = where(direction.field).is(userId);
+        if (from != null || to != null) {
+            Criteria timestamp = where("timestamp");
+            if (from != null) {
+                timestamp.gte(from);
+            }
+            if (to != null) {
+                timestamp.lt(to);
+            }
+            criteria.andOperator(timestamp);
+        }
+
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.DESC, "timestamp"));
+        query.cursorBatchSize(batchSize);
+
+        // Flushing after every message would send one tiny chunk per message
+        ObjectWriter writer = objectMapper.writerFor(Message.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        long count = 0;
+        try (Stream<Message> messages = mongoTemplate.stream(query, Message.class);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            if (format == Format.JSON) {
+                generator.writeStartArray();
+            }
+            for (Message message : (Iterable<Message>) messages::iterator) {
+                writer.writeValue(generator, message);
+                if (format == Format.NDJSON) {
+                    generator.writeRaw('\n');
+                }
+                count++;
+            }
+            if (format == Format.JSON) {
+                generator.writeEndArray();
+            }
+        }
+
+        log.debug("Exported {} messages {} by user {} (from: {}, to: {})",
+                count, direction == Direction.SENT ? "sent" : "received", userId, from, to);
+        return count;
+    }
+}
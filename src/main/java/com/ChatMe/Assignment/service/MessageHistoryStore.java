@@ -0,0 +1,22 @@
+package com.ChatMe.Assignment.service;
+
+import com.ChatMe.Assignment.model.Message;
+import reactor.core.publisher.Flux;
+
+/**
+ * Source of streamed chat history. The implementation is chosen by chat.store
+ * (see MessageStoreConfig), so both stores can be compared under the same load.
+ * Messages still in the write-behind buffer show up once they are flushed.
+ */
+public interface MessageHistoryStore {
+
+    /**
+     * Every message of a conversation, oldest first, emitted as it is read from the cursor
+     */
+    Flux<Message> streamConversation(String conversationId);
+
+    /**
+     * Store name (blocking or reactive)
+     */
+    String getName();
+}
@@ -1,12 +1,22 @@
 package com.ChatMe.Assignment.service;
 
 import com.ChatMe.Assignment.model.Message;
+import com.ChatMe.Assignment.model.MessageCursor;
+import com.ChatMe.Assignment.model.MessagePage;
 import com.ChatMe.Assignment.repository.MessageRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -14,6 +24,28 @@ import java.util.List;
 public class MessageService {
 
     private final MessageRepository messageRepository;
+    private final MessageWriteBehindBuffer writeBehindBuffer;
+    private final RecentMessageCache recentMessageCache;
+    private final ConversationSummaryService conversationSummaryService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${chat.history.max-page-size:100}")
+    private int maxPageSize;
+
+    @Value("${chat.history.recent-limit:50}")
+    private int recentLimit;
+
+    // One timer per save path, built once instead of looked up in the registry per message
+    private Timer writeBehindTimer;
+    private Timer directTimer;
+    private Timer failedTimer;
+
+    @PostConstruct
+    public void registerMetrics() {
+        writeBehindTimer = saveTimer("write-behind");
+        directTimer = saveTimer("direct");
+        failedTimer = saveTimer("failed");
+    }
 
     /**
      * Save a new message to the database
@@ -34,7 +66,8 @@ public class MessageService {
      */
     public List<Message> getChatHistory(String userId1, String userId2) {
         try {
-            List<Message> messages = messageRepository.findMessagesBetweenUsers(userId1, userId2);
+            List<Message> messages = messageRepository.findByConversationIdOrderByTimestampAsc(
+                    Message.createConversationId(userId1, userId2));
             log.debug("Retrieved {} messages between users {} and {}", messages.size(), userId1, userId2);
             return messages;
         } catch (Exception e) {
@@ -44,15 +77,72 @@ public class MessageService {
     }
 
     /**
-     * Get recent messages between two users (limited to last 50)
+     * Get one page of chat history between two users using (timestamp, id) keyset pagination.
+     * Without a cursor the newest page is returned; 'before' walks back in time and 'after' forward.
+     */
+    public MessagePage getChatHistoryPage(String userId1, String userId2, String before, String after, int limit) {
+        if (before != null && after != null) {
+            throw new IllegalArgumentException("Only one of 'before' and 'after' may be given");
+        }
+
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        // Fetch one extra message to find out whether another page exists
+        Limit fetchLimit = Limit.of(pageSize + 1);
+
+        String conversationId = Message.createConversationId(userId1, userId2);
+        List<Message> messages;
+        boolean newestFirst;
+        if (after != null) {
+            MessageCursor cursor = MessageCursor.decode(after);
+            messages = messageRepository.findMessagesInConversationAfter(
+                    conversationId, cursor.timestamp(), cursor.id(), fetchLimit);
+            newestFirst = false;
+        } else if (before != null) {
+            MessageCursor cursor = MessageCursor.decode(before);
+            messages = messageRepository.findMessagesInConversationBefore(
+                    conversationId, cursor.timestamp(), cursor.id(), fetchLimit);
+            newestFirst = true;
+        } else {
+            messages = messageRepository.findLatestMessagesInConversation(conversationId, fetchLimit);
+            newestFirst = true;
+        }
+
+        boolean hasMore = messages.size() > pageSize;
+        if (hasMore) {
+            messages.remove(pageSize);
+        }
+
+        // The last message in query order is where the next page starts. Kept on the last page too,
+        // so a client that has caught up can poll 'after' it for newer messages.
+        String nextCursor = messages.isEmpty() ? null : MessageCursor.of(messages.get(messages.size() - 1)).encode();
+
+        if (newestFirst) {
+            Collections.reverse(messages);
+        }
+
+        log.debug("Retrieved page of {} messages between users {} and {} (hasMore: {})",
+                messages.size(), userId1, userId2, hasMore);
+        return new MessagePage(messages, nextCursor, hasMore);
+    }
+
+    /**
+     * Get recent messages between two users, newest first (limited to chat.history.recent-limit, default 50).
+     * Served from the recent message cache when the conversation is hot.
      */
     public List<Message> getRecentChatHistory(String userId1, String userId2) {
         try {
-            List<Message> messages = messageRepository.findRecentMessagesBetweenUsers(userId1, userId2);
-            // Limit to last 50 messages if needed
-            if (messages.size() > 50) {
-                messages = messages.subList(0, 50);
+            String conversationId = Message.createConversationId(userId1, userId2);
+
+            List<Message> cached = recentMessageCache.get(conversationId);
+            if (cached != null) {
+                log.debug("Served {} recent messages between users {} and {} from cache", cached.size(), userId1, userId2);
+                return cached;
             }
+
+            long writeStamp = recentMessageCache.writeStamp(conversationId);
+            List<Message> messages = messageRepository.findLatestMessagesInConversation(
+                    conversationId, Limit.of(recentLimit));
+            recentMessageCache.populate(conversationId, messages, writeStamp);
             log.debug("Retrieved {} recent messages between users {} and {}", messages.size(), userId1, userId2);
             return messages;
         } catch (Exception e) {
@@ -90,15 +180,55 @@ public class MessageService {
     }
 
     /**
-     * Create and save a new message
+     * Create and save a new message.
+     * With write-behind enabled the message gets its ID here and is persisted asynchronously;
+     * a MessagesPersistedEvent is published once its batch has been committed.
+     * The conversation summaries (inbox) of both participants are updated either way.
      */
     public Message createMessage(String senderId, String receiverId, String messageContent) {
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
             Message message = new Message(senderId, receiverId, messageContent);
-            return saveMessage(message);
+
+            if (writeBehindBuffer.isEnabled()) {
+                message.setId(new ObjectId().toHexString());
+                if (writeBehindBuffer.enqueue(message)) {
+                    log.debug("Message queued for write-behind: {}", message.getId());
+                    recentMessageCache.appendPending(message);
+                    conversationSummaryService.recordPendingMessage(message);
+                    sample.stop(writeBehindTimer);
+                    return message;
+                }
+                // Queue is full - persist on the caller's thread instead
+            }
+
+            Message savedMessage = saveMessage(message);
+            recentMessageCache.append(savedMessage);
+            conversationSummaryService.recordMessage(savedMessage);
+            sample.stop(directTimer);
+            return savedMessage;
         } catch (Exception e) {
+            sample.stop(failedTimer);
             log.error("Error creating message: {}", e.getMessage());
             throw new RuntimeException("Failed to create message", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Write-behind, recent-history cache and inbox cache statistics (for monitoring)
+     */
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "writeBehind", writeBehindBuffer.getStats(),
+                "recentCache", recentMessageCache.getStats(),
+                "inbox", conversationSummaryService.getStats()
+        );
+    }
+
+    private Timer saveTimer(String path) {
+        return Timer.builder("chat.messages.save")
+                .description("Time to accept a new message (queue or insert)")
+                .tag("path", path)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,238 @@
+package com.ChatMe.Assignment.service;
+
+import com.ChatMe.Assignment.event.MessagesPersistedEvent;
+import com.ChatMe.Assignment.model.Message;
+import com.ChatMe.Assignment.repository.MessageRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind buffer for chat messages.
+ * Messages are queued by the caller and flushed to MongoDB in bulk inserts,
+ * bounded by batch size and by a maximum linger time.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MessageWriteBehindBuffer {
+
+    private final MessageRepository messageRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${chat.messages.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${chat.messages.write-behind.batch-size:200}")
+    private int batchSize;
+
+    @Value("${chat.messages.write-behind.max-linger-ms:20}")
+    private long maxLingerMs;
+
+    @Value("${chat.messages.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+
+    // How long a producer waits for queue space before falling back to a synchronous save
+    @Value("${chat.messages.write-behind.offer-timeout-ms:250}")
+    private long offerTimeoutMs;
+
+    private final AtomicLong enqueuedMessages = new AtomicLong();
+    private final AtomicLong rejectedMessages = new AtomicLong();
+    private final AtomicLong flushedBatches = new AtomicLong();
+    private final AtomicLong flushedMessages = new AtomicLong();
+    private final AtomicLong failedMessages = new AtomicLong();
+
+    private BlockingQueue<Message> queue;
+    private Thread flusher;
+    private volatile boolean running;
+    private Timer flushTimer;
+
+    @PostConstruct
+    public void start() {
+        Gauge.builder("chat.messages.write_behind.queue", this, MessageWriteBehindBuffer::getQueueDepth)
+                .description("Messages waiting to be flushed to MongoDB")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("chat.messages.write_behind.flush")
+                .description("Time to persist one write-behind batch")
+                .register(meterRegistry);
+
+        if (!enabled) {
+            log.info("Message write-behind disabled, messages are saved synchronously");
+            return;
+        }
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        flusher = new Thread(this::runFlushLoop, "message-write-behind");
+        flusher.start();
+        log.info("Message write-behind enabled (batchSize={}, maxLingerMs={}, queueCapacity={})",
+                batchSize, maxLingerMs, queueCapacity);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher == null) {
+            return;
+        }
+
+        running = false;
+        try {
+            // Let the flusher drain whatever is still queued
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (!queue.isEmpty()) {
+            log.warn("Write-behind stopped with {} messages still queued, flushing inline", queue.size());
+            List<Message> remaining = new ArrayList<>();
+            queue.drainTo(remaining);
+            flush(remaining);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queue a message for persistence. Blocks for at most the offer timeout when the
+     * queue is full and returns false if the message could not be queued, in which
+     * case the caller is expected to save it itself.
+     */
+    public boolean enqueue(Message message) {
+        if (!running) {
+            return false;
+        }
+
+        try {
+            if (queue.offer(message, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                // stop() may have drained the queue between the check above and the offer. If the message
+                // is still queued it would never be flushed, so take it back and let the caller save it.
+                if (!running && queue.remove(message)) {
+                    return false;
+                }
+                enqueuedMessages.incrementAndGet();
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        rejectedMessages.incrementAndGet();
+        log.warn("Write-behind queue full ({} messages), applying backpressure", queue.size());
+        return false;
+    }
+
+    public int getQueueDepth() {
+        return queue != null ? queue.size() : 0;
+    }
+
+    /**
+     * Buffer statistics (for monitoring)
+     */
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "enabled", enabled,
+                "queueDepth", getQueueDepth(),
+                "enqueued", enqueuedMessages.get(),
+                "rejected", rejectedMessages.get(),
+                "flushedBatches", flushedBatches.get(),
+                "flushedMessages", flushedMessages.get(),
+                "failed", failedMessages.get()
+        );
+    }
+
+    private void runFlushLoop() {
+        long lingerNanos = TimeUnit.MILLISECONDS.toNanos(maxLingerMs);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                Message first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                List<Message> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+
+                // Keep collecting until the batch is full or the linger time has passed
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    Message next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(batch);
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Unexpected error in write-behind flush loop: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void flush(List<Message> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<Message> persisted = batch;
+        List<Message> failed = List.of();
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        try {
+            // Single insertMany round trip for the whole batch
+            messageRepository.insert(batch);
+        } catch (Exception e) {
+            log.warn("Bulk insert of {} messages failed, retrying individually: {}", batch.size(), e.getMessage());
+            persisted = new ArrayList<>(batch.size());
+            failed = new ArrayList<>();
+
+            // save() upserts by the server-assigned id, so documents that made it in are not duplicated
+            for (Message message : batch) {
+                try {
+                    messageRepository.save(message);
+                    persisted.add(message);
+                } catch (Exception saveError) {
+                    log.error("Error saving message {}: {}", message.getId(), saveError.getMessage());
+                    failed.add(message);
+                }
+            }
+        }
+
+        sample.stop(flushTimer);
+        flushedBatches.incrementAndGet();
+        flushedMessages.addAndGet(persisted.size());
+        failedMessages.addAndGet(failed.size());
+        log.debug("Flushed {} messages ({} failed)", persisted.size(), failed.size());
+
+        eventPublisher.publishEvent(new MessagesPersistedEvent(this, persisted, failed));
+    }
+}
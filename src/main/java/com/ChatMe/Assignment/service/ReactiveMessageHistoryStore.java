@@ -0,0 +1,26 @@
+package com.ChatMe.Assignment.service;
+
+import com.ChatMe.Assignment.model.Message;
+import com.ChatMe.Assignment.repository.ReactiveMessageRepository;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+
+/**
+ * History stream on the reactive MongoDB driver. No thread waits for the database;
+ * documents are requested from the cursor as fast as the client reads them.
+ */
+@RequiredArgsConstructor
+public class ReactiveMessageHistoryStore implements MessageHistoryStore {
+
+    private final ReactiveMessageRepository reactiveMessageRepository;
+
+    @Override
+    public Flux<Message> streamConversation(String conversationId) {
+        return reactiveMessageRepository.streamConversation(conversationId);
+    }
+
+    @Override
+    public String getName() {
+        return "reactive";
+    }
+}
@@ -0,0 +1,288 @@
+package com.ChatMe.Assignment.service;
+
+import com.ChatMe.Assignment.event.MessagesPersistedEvent;
+import com.ChatMe.Assignment.model.Message;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory cache of the most recent messages of hot conversations.
+ * Each conversation keeps a ring buffer of its last N messages (newest first), kept current
+ * write-through by MessageService. Conversations are evicted least-recently-used once either
+ * the entry count or the estimated total size is exceeded.
+ *
+ * The cache is split into independently locked segments, each with its own LRU order and a
+ * share of the limits, so conversations in different segments don't contend.
+ */
+@Component
+public class RecentMessageCache {
+
+    // Rough per-message overhead (object headers, references, LocalDateTime)
+    private static final int MESSAGE_OVERHEAD_BYTES = 96;
+
+    private static final int WRITE_STAMP_STRIPES = 1024;
+
+    // Divides WRITE_STAMP_STRIPES, so every write stamp belongs to exactly one segment
+    private static final int SEGMENTS = 16;
+
+    @Value("${chat.cache.recent.enabled:true}")
+    private boolean enabled;
+
+    // Kept equal to the recent history size so a cached conversation can answer the whole request
+    @Value("${chat.history.recent-limit:50}")
+    private int messagesPerConversation;
+
+    @Value("${chat.cache.recent.max-conversations:10000}")
+    private int maxConversations;
+
+    @Value("${chat.cache.recent.max-bytes:67108864}")
+    private long maxBytes;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    // Bumped on every write to a conversation; lets a loader detect that it raced with a write.
+    // A stamp is guarded by the segment its stripe belongs to.
+    private final long[] writeStamps = new long[WRITE_STAMP_STRIPES];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public RecentMessageCache() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Get the cached messages of a conversation, newest first, or null on a miss
+     */
+    public List<Message> get(String conversationId) {
+        if (!enabled) {
+            return null;
+        }
+
+        Segment segment = segment(conversationId);
+        synchronized (segment) {
+            Entry entry = segment.conversations.get(conversationId);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+
+            hits.increment();
+            return new ArrayList<>(entry.messages);
+        }
+    }
+
+    /**
+     * Current write stamp of a conversation. Take it before loading from the database
+     * and pass it to {@link #populate} to avoid caching a stale result.
+     */
+    public long writeStamp(String conversationId) {
+        synchronized (segment(conversationId)) {
+            return writeStamps[stripe(conversationId)];
+        }
+    }
+
+    /**
+     * Cache messages loaded from the database (newest first), unless the conversation
+     * has been written to since the given stamp was taken or has writes that are not in
+     * the database yet
+     */
+    public void populate(String conversationId, List<Message> newestFirst, long stamp) {
+        if (!enabled) {
+            return;
+        }
+
+        Segment segment = segment(conversationId);
+        synchronized (segment) {
+            if (writeStamps[stripe(conversationId)] != stamp
+                    || segment.pendingWrites.containsKey(conversationId)
+                    || segment.conversations.containsKey(conversationId)) {
+                return;
+            }
+
+            Entry entry = new Entry();
+            for (Message message : newestFirst) {
+                if (entry.messages.size() == messagesPerConversation) {
+                    break;
+                }
+                entry.messages.addLast(message);
+                entry.bytes += estimateSize(message);
+            }
+
+            segment.conversations.put(conversationId, entry);
+            segment.bytes += entry.bytes;
+            evictIfNeeded(segment);
+        }
+    }
+
+    /**
+     * Write-through for a newly saved message. Only conversations that are already
+     * cached are updated, so a cached entry always holds a complete suffix of the history.
+     */
+    public void append(Message message) {
+        append(message, 0);
+    }
+
+    /**
+     * Write-through for a message queued for write-behind. Until its MessagesPersistedEvent
+     * arrives the database is behind the cache, so the conversation is not loaded into it.
+     */
+    public void appendPending(Message message) {
+        append(message, 1);
+    }
+
+    /**
+     * Reconcile with a committed write-behind batch: loads that read the database before the
+     * commit can't be cached any more, and conversations holding a message that could not be
+     * written are dropped, to be reloaded from what was actually stored
+     */
+    @EventListener
+    public void handleMessagesPersisted(MessagesPersistedEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        event.getPersisted().forEach(message -> settle(message, false));
+        event.getFailed().forEach(message -> settle(message, true));
+    }
+
+    /**
+     * Cache statistics (for monitoring)
+     */
+    public Map<String, Object> getStats() {
+        int conversations = 0;
+        long totalBytes = 0;
+        int pendingConversations = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                conversations += segment.conversations.size();
+                totalBytes += segment.bytes;
+                pendingConversations += segment.pendingWrites.size();
+            }
+        }
+
+        return Map.of(
+                "enabled", enabled,
+                "conversations", conversations,
+                "estimatedBytes", totalBytes,
+                "pendingConversations", pendingConversations,
+                "hits", hits.sum(),
+                "misses", misses.sum(),
+                "evictions", evictions.sum()
+        );
+    }
+
+    private void append(Message message, int pending) {
+        if (!enabled) {
+            return;
+        }
+
+        String conversationId = message.getConversationId();
+        Segment segment = segment(conversationId);
+        synchronized (segment) {
+            writeStamps[stripe(conversationId)]++;
+            if (pending != 0) {
+                addPending(segment, conversationId, pending);
+            }
+
+            // Counts as an access, so conversations with live traffic stay at the fresh end of the LRU order
+            Entry entry = segment.conversations.get(conversationId);
+            if (entry == null) {
+                return;
+            }
+
+            entry.messages.addFirst(message);
+            long size = estimateSize(message);
+            entry.bytes += size;
+            segment.bytes += size;
+
+            if (entry.messages.size() > messagesPerConversation) {
+                long removed = estimateSize(entry.messages.removeLast());
+                entry.bytes -= removed;
+                segment.bytes -= removed;
+            }
+
+            evictIfNeeded(segment);
+        }
+    }
+
+    private void settle(Message message, boolean failed) {
+        String conversationId = message.getConversationId();
+        Segment segment = segment(conversationId);
+        synchronized (segment) {
+            writeStamps[stripe(conversationId)]++;
+            addPending(segment, conversationId, -1);
+
+            if (failed) {
+                Entry entry = segment.conversations.remove(conversationId);
+                if (entry != null) {
+                    segment.bytes -= entry.bytes;
+                }
+            }
+        }
+    }
+
+    private static void addPending(Segment segment, String conversationId, int delta) {
+        // The event of a fast flush can beat the write-through of its message, so a count may
+        // briefly be negative; it is dropped once it is back at zero
+        segment.pendingWrites.merge(conversationId, delta, (count, change) -> count + change == 0 ? null : count + change);
+    }
+
+    private void evictIfNeeded(Segment segment) {
+        int segmentMaxConversations = Math.max(1, (maxConversations + SEGMENTS - 1) / SEGMENTS);
+        long segmentMaxBytes = maxBytes / SEGMENTS;
+
+        Iterator<Entry> lru = segment.conversations.values().iterator();
+        while ((segment.conversations.size() > segmentMaxConversations || segment.bytes > segmentMaxBytes) && lru.hasNext()) {
+            segment.bytes -= lru.next().bytes;
+            lru.remove();
+            evictions.increment();
+        }
+    }
+
+    private Segment segment(String conversationId) {
+        return segments[stripe(conversationId) % SEGMENTS];
+    }
+
+    private static int stripe(String conversationId) {
+        return (conversationId.hashCode() & 0x7fffffff) % WRITE_STAMP_STRIPES;
+    }
+
+    private static long estimateSize(Message message) {
+        return MESSAGE_OVERHEAD_BYTES
+                + 2L * (length(message.getId()) + length(message.getSenderId()) + length(message.getReceiverId())
+                + length(message.getConversationId()) + length(message.getMessage()));
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    private static class Segment {
+        // Access-ordered, so iteration starts at the least recently used conversation
+        private final LinkedHashMap<String, Entry> conversations = new LinkedHashMap<>(64, 0.75f, true);
+
+        // Conversation -> messages queued for write-behind whose batch has not been committed yet
+        private final Map<String, Integer> pendingWrites = new HashMap<>();
+
+        private long bytes;
+    }
+
+    private static class Entry {
+        private final ArrayDeque<Message> messages = new ArrayDeque<>();
+        private long bytes;
+    }
+}
@@ -0,0 +1,196 @@
+package com.ChatMe.Assignment.service;
+
+import com.ChatMe.Assignment.model.User;
+import com.ChatMe.Assignment.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded read-through cache of user profiles by uid.
+ * Misses load from the database and are cached for a TTL, after which the next read reloads
+ * the profile. Unknown uids are cached too (for a shorter TTL) so repeated lookups of a
+ * missing user don't reach the database. Saved users are written through with {@link #put}.
+ *
+ * The cache is split into independently locked segments, each with its own LRU order and a
+ * share of the size limit, so lookups of users in different segments don't contend.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserProfileCache {
+
+    private static final int WRITE_STAMP_STRIPES = 256;
+
+    // Divides WRITE_STAMP_STRIPES, so every write stamp belongs to exactly one segment
+    private static final int SEGMENTS = 16;
+
+    private final UserRepository userRepository;
+
+    @Value("${chat.users.profile-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chat.users.profile-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${chat.users.profile-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${chat.users.profile-cache.negative-ttl-seconds:30}")
+    private long negativeTtlSeconds;
+
+    private final Segment[] segments = createSegments();
+
+    // Bumped on every write-through; lets a loader detect that it raced with a save.
+    // A stamp is guarded by the segment its stripe belongs to.
+    private final long[] writeStamps = new long[WRITE_STAMP_STRIPES];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Get a user profile, loading it from the database on a miss or after its TTL
+     */
+    public Optional<User> get(String uid) {
+        if (!enabled) {
+            return userRepository.findById(uid);
+        }
+
+        Segment segment = segment(uid);
+        long stamp;
+        synchronized (segment) {
+            Entry entry = segment.profiles.get(uid);
+            if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+                if (entry.user == null) {
+                    negativeHits.increment();
+                    return Optional.empty();
+                }
+                hits.increment();
+                return Optional.of(entry.user);
+            }
+            misses.increment();
+            stamp = writeStamps[stripe(uid)];
+        }
+
+        Optional<User> loaded = userRepository.findById(uid);
+
+        synchronized (segment) {
+            // A profile saved while we were loading is newer than what we read
+            if (writeStamps[stripe(uid)] == stamp) {
+                store(segment, uid, loaded.orElse(null));
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * The cached profile of a user if it is present and fresh, without loading it
+     */
+    public User getIfCached(String uid) {
+        if (!enabled) {
+            return null;
+        }
+        Segment segment = segment(uid);
+        synchronized (segment) {
+            Entry entry = segment.profiles.get(uid);
+            return entry != null && entry.expiresAt > System.currentTimeMillis() ? entry.user : null;
+        }
+    }
+
+    /**
+     * Display name of a user, or the fallback if the user or their name is unknown
+     */
+    public String getDisplayName(String uid, String fallback) {
+        return get(uid)
+                .map(User::getName)
+                .filter(name -> !name.isBlank())
+                .orElse(fallback);
+    }
+
+    /**
+     * Write-through for a saved user
+     */
+    public void put(User user) {
+        if (!enabled || user == null || user.getUid() == null) {
+            return;
+        }
+        Segment segment = segment(user.getUid());
+        synchronized (segment) {
+            writeStamps[stripe(user.getUid())]++;
+            store(segment, user.getUid(), user);
+        }
+    }
+
+    /**
+     * Cache statistics (for monitoring)
+     */
+    public Map<String, Object> getStats() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.profiles.size();
+            }
+        }
+
+        return Map.of(
+                "enabled", enabled,
+                "size", size,
+                "hits", hits.sum(),
+                "negativeHits", negativeHits.sum(),
+                "misses", misses.sum(),
+                "evictions", evictions.sum()
+        );
+    }
+
+    private void store(Segment segment, String uid, User user) {
+        long ttl = user != null ? ttlSeconds : negativeTtlSeconds;
+        segment.profiles.put(uid, new Entry(user, System.currentTimeMillis() + ttl * 1000));
+
+        int segmentMaxSize = Math.max(1, (maxSize + SEGMENTS - 1) / SEGMENTS);
+        Iterator<Entry> lru = segment.profiles.values().iterator();
+        while (segment.profiles.size() > segmentMaxSize && lru.hasNext()) {
+            lru.next();
+            lru.remove();
+            evictions.increment();
+        }
+    }
+
+    private Segment segment(String uid) {
+        return segments[stripe(uid) % SEGMENTS];
+    }
+
+    private static int stripe(String uid) {
+        return (uid.hashCode() & 0x7fffffff) % WRITE_STAMP_STRIPES;
+    }
+
+    private static Segment[] createSegments() {
+        Segment[] segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+        return segments;
+    }
+
+    private static class Segment {
+        // Access-ordered, so iteration starts at the least recently used profile
+        private final LinkedHashMap<String, Entry> profiles = new LinkedHashMap<>(64, 0.75f, true);
+    }
+
+    private static class Entry {
+        // null for a uid that does not exist
+        private final User user;
+        private final long expiresAt;
+
+        private Entry(User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.ChatMe.Assignment.service;
+
+import com.ChatMe.Assignment.model.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory n-gram index over normalized user names and emails.
+ * Every name and email is split into its 1-, 2- and 3-character grams. A query is answered by
+ * intersecting the posting sets of its grams and checking the few remaining candidates, instead
+ * of running an unanchored $regex over the whole users collection.
+ *
+ * The index is rebuilt from a streaming cursor on startup and kept current by {@link #index}
+ * whenever a user is saved. Until the first rebuild has finished, {@link #search} returns null
+ * and callers fall back to the database.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserSearchIndex {
+
+    private static final int MAX_GRAM = 3;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // Lower rank sorts first
+    private static final int RANK_EXACT = 0;
+    private static final int RANK_NAME_PREFIX = 1;
+    private static final int RANK_WORD_PREFIX = 2;
+    private static final int RANK_NAME_SUBSTRING = 3;
+    private static final int RANK_EMAIL_PREFIX = 4;
+    private static final int RANK_EMAIL_SUBSTRING = 5;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${chat.users.search.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chat.users.search.rebuild-batch-size:1000}")
+    private int rebuildBatchSize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // uid -> indexed entry
+    private Map<String, Entry> entries = new HashMap<>();
+
+    // gram -> uids whose name or email contains it
+    private Map<String, Set<String>> postings = new HashMap<>();
+
+    // Users saved while a rebuild is streaming, applied on top of the rebuilt index
+    private Map<String, User> savedDuringRebuild;
+
+    private volatile boolean ready;
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder lookupNanos = new LongAdder();
+    private volatile long lastRebuildMillis;
+
+    /**
+     * Paged search result
+     */
+    public record Result(List<User> users, int total) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            savedDuringRebuild = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<String, Entry> rebuiltEntries = new HashMap<>();
+        Map<String, Set<String>> rebuiltPostings = new HashMap<>();
+
+        Query query = new Query();
+        query.cursorBatchSize(rebuildBatchSize);
+
+        try (Stream<User> users = mongoTemplate.stream(query, User.class)) {
+            users.forEach(user -> add(rebuiltEntries, rebuiltPostings, user));
+        } catch (Exception e) {
+            log.error("User search index rebuild failed: {}", e.getMessage(), e);
+            lock.writeLock().lock();
+            try {
+                savedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            savedDuringRebuild.values().forEach(user -> add(rebuiltEntries, rebuiltPostings, user));
+            savedDuringRebuild = null;
+            entries = rebuiltEntries;
+            postings = rebuiltPostings;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        lastRebuildMillis = System.currentTimeMillis() - start;
+        log.info("User search index built: {} users, {} grams in {} ms",
+                rebuiltEntries.size(), rebuiltPostings.size(), lastRebuildMillis);
+    }
+
+    /**
+     * Add or refresh a user in the index (called after the user is saved)
+     */
+    public void index(User user) {
+        if (!enabled || user == null || user.getUid() == null) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (savedDuringRebuild != null) {
+                savedDuringRebuild.put(user.getUid(), user);
+            }
+            add(entries, postings, user);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * Ranked search over names and emails: exact name, name prefix, word prefix, name substring,
+     * then email matches. Returns null while the index is not ready.
+     */
+    public Result search(String query, String excludeUserId, int page, int size) {
+        if (!isReady()) {
+            return null;
+        }
+
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return new Result(List.of(), 0);
+        }
+
+        long start = System.nanoTime();
+        List<Match> matches = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            for (String uid : candidates(normalized)) {
+                if (uid.equals(excludeUserId)) {
+                    continue;
+                }
+                Entry entry = entries.get(uid);
+                int rank = rank(entry, normalized);
+                if (rank >= 0) {
+                    matches.add(new Match(entry, rank));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        matches.sort(Comparator.comparingInt(Match::rank)
+                .thenComparingInt(match -> match.entry().name().length())
+                .thenComparing(match -> match.entry().name())
+                .thenComparing(match -> match.entry().user().getUid()));
+
+        int from = (int) Math.min((long) page * size, matches.size());
+        int to = Math.min(from + size, matches.size());
+        List<User> users = new ArrayList<>(to - from);
+        for (Match match : matches.subList(from, to)) {
+            users.add(match.entry().user());
+        }
+
+        lookups.increment();
+        lookupNanos.add(System.nanoTime() - start);
+        return new Result(users, matches.size());
+    }
+
+    /**
+     * Index statistics (for monitoring)
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("users", entries.size());
+            stats.put("grams", postings.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+        long count = lookups.sum();
+        stats.put("ready", isReady());
+        stats.put("lookups", count);
+        stats.put("avgLookupMicros", count == 0 ? 0 : lookupNanos.sum() / count / 1000);
+        stats.put("lastRebuildMillis", lastRebuildMillis);
+        return stats;
+    }
+
+    /**
+     * Lower-case, strip accents and collapse whitespace
+     */
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String stripped = MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return WHITESPACE.matcher(stripped.toLowerCase(Locale.ROOT).trim()).replaceAll(" ");
+    }
+
+    private Set<String> candidates(String query) {
+        if (query.length() <= MAX_GRAM) {
+            return postings.getOrDefault(query, Set.of());
+        }
+
+        // Start from the rarest trigram and intersect the rest into it
+        Set<String> smallest = null;
+        List<Set<String>> others = new ArrayList<>();
+        for (int i = 0; i + MAX_GRAM <= query.length(); i++) {
+            Set<String> posting = postings.get(query.substring(i, i + MAX_GRAM));
+            if (posting == null) {
+                return Set.of();
+            }
+            if (smallest == null || posting.size() < smallest.size()) {
+                if (smallest != null) {
+                    others.add(smallest);
+                }
+                smallest = posting;
+            } else {
+                others.add(posting);
+            }
+        }
+
+        Set<String> result = new HashSet<>();
+        for (String uid : smallest) {
+            if (others.stream().allMatch(posting -> posting.contains(uid))) {
+                result.add(uid);
+            }
+        }
+        return result;
+    }
+
+    private static int rank(Entry entry, String query) {
+        String name = entry.name();
+        if (name.equals(query)) {
+            return RANK_EXACT;
+        }
+        if (name.startsWith(query)) {
+            return RANK_NAME_PREFIX;
+        }
+        if (name.contains(query)) {
+            return name.contains(" " + query) ? RANK_WORD_PREFIX : RANK_NAME_SUBSTRING;
+        }
+        if (entry.email().startsWith(query)) {
+            return RANK_EMAIL_PREFIX;
+        }
+        if (entry.email().contains(query)) {
+            return RANK_EMAIL_SUBSTRING;
+        }
+        // Grams matched but the query does not occur as a whole
+        return -1;
+    }
+
+    private static void add(Map<String, Entry> entries, Map<String, Set<String>> postings, User user) {
+        String uid = user.getUid();
+        Entry previous = entries.get(uid);
+        Entry entry = new Entry(user, normalize(user.getName()), normalize(user.getEmail()));
+
+        Set<String> grams = new HashSet<>();
+        addGrams(grams, entry.name());
+        addGrams(grams, entry.email());
+
+        if (previous != null) {
+            Set<String> oldGrams = new HashSet<>();
+            addGrams(oldGrams, previous.name());
+            addGrams(oldGrams, previous.email());
+            oldGrams.removeAll(grams);
+            for (String gram : oldGrams) {
+                Set<String> posting = postings.get(gram);
+                if (posting != null) {
+                    posting.remove(uid);
+                    if (posting.isEmpty()) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+        }
+
+        for (String gram : grams) {
+            postings.computeIfAbsent(gram, key -> new HashSet<>()).add(uid);
+        }
+        entries.put(uid, entry);
+    }
+
+    private static void addGrams(Set<String> grams, String value) {
+        for (int length = 1; length <= MAX_GRAM; length++) {
+            for (int i = 0; i + length <= value.length(); i++) {
+                grams.add(value.substring(i, i + length));
+            }
+        }
+    }
+
+    private record Entry(User user, String name, String email) {
+    }
+
+    private record Match(Entry entry, int rank) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.ChatMe.Assignment.websocket;
+
+import org.springframework.messaging.Message;
+
+import java.util.function.Consumer;
+
+/**
+ * Pub/sub channel that connects the in-memory brokers of several ChatMe nodes.
+ * Every published message is delivered to all subscribed nodes except the one that published it.
+ */
+public interface BrokerBackplane {
+
+    void publish(String originNodeId, Message<byte[]> message);
+
+    void subscribe(String nodeId, Consumer<Message<byte[]>> listener);
+
+    void unsubscribe(String nodeId);
+}
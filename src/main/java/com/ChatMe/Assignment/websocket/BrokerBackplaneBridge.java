@@ -0,0 +1,122 @@
+package com.ChatMe.Assignment.websocket;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeType;
+import org.springframework.util.StringUtils;
+
+/**
+ * Connects this node's in-memory broker to a {@link BrokerBackplane}.
+ * Intercepts messages on the broker channel and forwards topic messages, and user messages
+ * for users that are not connected to this node, to the other nodes. Messages arriving
+ * from the backplane are injected into the local broker channel.
+ */
+@Slf4j
+public class BrokerBackplaneBridge implements ChannelInterceptor {
+
+    // Marks messages that came in over the backplane so they are not published again
+    static final String ORIGIN_NODE_HEADER = "chatme-origin-node";
+
+    private static final String TOPIC_PREFIX = "/topic/";
+
+    private final BrokerBackplane backplane;
+    private final String nodeId;
+    private final String userDestinationPrefix;
+
+    // Broker beans are created by the WebSocket configuration that registers this interceptor,
+    // so they are looked up lazily
+    private final ObjectProvider<SimpMessagingTemplate> messagingTemplate;
+    private final ObjectProvider<SimpUserRegistry> userRegistry;
+
+    public BrokerBackplaneBridge(BrokerBackplane backplane, String nodeId, String userDestinationPrefix,
+                                 ObjectProvider<SimpMessagingTemplate> messagingTemplate,
+                                 ObjectProvider<SimpUserRegistry> userRegistry) {
+        this.backplane = backplane;
+        this.nodeId = nodeId;
+        this.userDestinationPrefix = userDestinationPrefix.endsWith("/") ? userDestinationPrefix : userDestinationPrefix + "/";
+        this.messagingTemplate = messagingTemplate;
+        this.userRegistry = userRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        backplane.subscribe(nodeId, this::receive);
+    }
+
+    @PreDestroy
+    public void stop() {
+        backplane.unsubscribe(nodeId);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        String destination = accessor.getDestination();
+
+        if (destination == null
+                || accessor.getMessageType() != SimpMessageType.MESSAGE
+                || accessor.getHeader(ORIGIN_NODE_HEADER) != null
+                || !(message.getPayload() instanceof byte[] payload)) {
+            return message;
+        }
+
+        if (destination.startsWith(TOPIC_PREFIX) || isRemoteUserDestination(destination)) {
+            backplane.publish(nodeId, copy(destination, accessor.getContentType(), payload));
+        }
+
+        return message;
+    }
+
+    private void receive(Message<byte[]> message) {
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination == null) {
+            return;
+        }
+
+        // Only deliver user messages here if the user is actually connected to this node
+        if (destination.startsWith(userDestinationPrefix) && !isLocalUser(destination)) {
+            return;
+        }
+
+        messagingTemplate.getObject().send(destination, message);
+    }
+
+    private boolean isRemoteUserDestination(String destination) {
+        return destination.startsWith(userDestinationPrefix) && !isLocalUser(destination);
+    }
+
+    private boolean isLocalUser(String destination) {
+        // /user/{userId}/queue/...
+        int start = userDestinationPrefix.length();
+        int end = destination.indexOf('/', start);
+        if (end < 0) {
+            return false;
+        }
+        String user = StringUtils.replace(destination.substring(start, end), "%2F", "/");
+        return userRegistry.getObject().getUser(user) != null;
+    }
+
+    private Message<byte[]> copy(String destination, MimeType contentType, byte[] payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(destination);
+        if (contentType != null) {
+            accessor.setContentType(contentType);
+        }
+        accessor.setHeader(ORIGIN_NODE_HEADER, nodeId);
+        return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+    }
+}
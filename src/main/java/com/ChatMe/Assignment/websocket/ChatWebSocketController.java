@@ -1,18 +1,38 @@
 // src/main/java/com/ChatMe/Assignment/websocket/ChatWebSocketController.java - COMPLETE FIXED VERSION
 package com.ChatMe.Assignment.websocket;
 
+import com.ChatMe.Assignment.dto.ChatMessageRequest;
+import com.ChatMe.Assignment.dto.ConnectRequest;
+import com.ChatMe.Assignment.dto.JoinRequest;
+import com.ChatMe.Assignment.dto.PresenceWatchRequest;
+import com.ChatMe.Assignment.dto.ReadReceiptRequest;
+import com.ChatMe.Assignment.dto.StatusRequest;
+import com.ChatMe.Assignment.dto.TestMessageRequest;
+import com.ChatMe.Assignment.dto.TypingRequest;
+import com.ChatMe.Assignment.event.MessagesPersistedEvent;
+import com.ChatMe.Assignment.event.MessagesReadEvent;
+import com.ChatMe.Assignment.model.ConversationSummary;
 import com.ChatMe.Assignment.model.Message;
+import com.ChatMe.Assignment.service.ConversationSummaryService;
 import com.ChatMe.Assignment.service.MessageService;
 import com.ChatMe.Assignment.service.FirebaseNotificationService;
+import com.ChatMe.Assignment.service.UserProfileCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.stereotype.Controller;
 
 import java.security.Principal;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @Controller
@@ -23,62 +43,56 @@ public class ChatWebSocketController {
     private final MessageService messageService;
     private final SimpMessagingTemplate messagingTemplate;
     private final FirebaseNotificationService firebaseNotificationService;
+    private final MessageFanout messageFanout;
+    private final PresenceRegistry presenceRegistry;
+    private final TypingIndicatorThrottle typingIndicatorThrottle;
+    private final UserProfileCache userProfileCache;
+    private final ConversationExecutor conversationExecutor;
+    private final ConversationSummaryService conversationSummaryService;
 
     /**
      * Handle incoming chat messages via WebSocket
      * Clients send messages to /app/chat
      */
     @MessageMapping("/chat")
-    public void handleChatMessage(@Payload Map<String, String> messageData, Principal principal) {
+    public void handleChatMessage(@Payload ChatMessageRequest request, Principal principal) {
         try {
-            String senderId = messageData.get("senderId");
-            String receiverId = messageData.get("receiverId");
-            String messageContent = messageData.get("message");
+            String senderId = request.senderId();
+            String receiverId = request.receiverId();
 
-            // Validate required fields
-            if (senderId == null || receiverId == null || messageContent == null) {
-                log.error("❌ Invalid message data: missing required fields");
-                return;
-            }
+            log.info("📨 Received WebSocket message from {} to {}: {}", senderId, receiverId, request.message());
+
+            // Messages of one chat are saved and broadcast in arrival order; other chats run in parallel
+            conversationExecutor.execute(createChatId(senderId, receiverId), () -> deliverChatMessage(request));
+
+        } catch (Exception e) {
+            log.error("❌ Error handling chat message: {}", e.getMessage(), e);
+        }
+    }
 
-            log.info("📨 Received WebSocket message from {} to {}: {}", senderId, receiverId, messageContent);
+    private void deliverChatMessage(ChatMessageRequest request) {
+        try {
+            String senderId = request.senderId();
+            String receiverId = request.receiverId();
+            String messageContent = request.message();
 
             // 💾 Save message to database first
             Message savedMessage = messageService.createMessage(senderId, receiverId, messageContent);
             log.info("✅ Message saved to database: {}", savedMessage.getId());
 
-            // 🔥 FIXED: Send to BOTH users immediately for real-time updates
-
-            // 1. Send to receiver's personal queue (/user/{receiverId}/queue/messages)
-            messagingTemplate.convertAndSendToUser(
-                    receiverId,
-                    "/queue/messages",
-                    savedMessage
-            );
-            log.debug("📨 Message sent to receiver: {}", receiverId);
-
-            // 2. Send confirmation back to sender (/user/{senderId}/queue/messages)
-            messagingTemplate.convertAndSendToUser(
-                    senderId,
-                    "/queue/messages",
-                    savedMessage
-            );
-            log.debug("📨 Message confirmation sent to sender: {}", senderId);
-
-            // 3. FIXED: Also send to shared chat topic for both users
-            String chatId = createChatId(senderId, receiverId);
-            messagingTemplate.convertAndSend("/topic/chat/" + chatId, savedMessage);
-            log.debug("📨 Message sent to chat topic: /topic/chat/{}", chatId);
-
-            // 4. Send to global chat topic that both users can subscribe to
-            messagingTemplate.convertAndSend("/topic/chat/" + senderId, savedMessage);
-            messagingTemplate.convertAndSend("/topic/chat/" + receiverId, savedMessage);
+            // 🔥 Send to BOTH users immediately for real-time updates
+            // (personal queues, shared chat topic and per-user topics, depending on the routing profile)
+            messageFanout.fanout(savedMessage);
+            presenceRegistry.recordConversation(senderId, receiverId);
+            // The sender has stopped typing once the message is out
+            typingIndicatorThrottle.clear(senderId, receiverId);
 
             log.info("✅ Message broadcasted successfully via WebSocket");
 
             // 🔔 Trigger Firebase Function for push notification
             try {
-                String senderName = messageData.get("senderName");
+                // Prefer the stored profile name over whatever the client sent
+                String senderName = userProfileCache.getDisplayName(senderId, request.senderName());
                 firebaseNotificationService.sendPushNotification(
                         receiverId,
                         senderId,
@@ -96,36 +110,50 @@ public class ChatWebSocketController {
     }
 
     /**
-     * FIXED: Handle typing indicators
+     * Handle typing indicators.
+     * Frames go through the typing throttle, which only forwards state changes to the receiver.
      */
     @MessageMapping("/typing")
-    public void handleTypingIndicator(@Payload Map<String, String> typingData) {
+    public void handleTypingIndicator(@Payload TypingRequest request,
+                                      @Header(name = SimpMessageHeaderAccessor.SESSION_ID_HEADER, required = false) String sessionId) {
         try {
-            String senderId = typingData.get("senderId");
-            String receiverId = typingData.get("receiverId");
-            String isTyping = typingData.get("isTyping");
+            log.debug("✍️ Typing indicator: {} -> {} (typing: {})",
+                    request.senderId(), request.receiverId(), request.isTyping());
+
+            typingIndicatorThrottle.onTypingFrame(sessionId, request.senderId(), request.receiverId(), request.isTyping());
+
+        } catch (Exception e) {
+            log.error("❌ Error handling typing indicator: {}", e.getMessage());
+        }
+    }
 
-            if (senderId == null || receiverId == null) {
-                log.warn("❌ Invalid typing data: missing senderId or receiverId");
+    /**
+     * Handle read receipts: the reader has seen the chat up to readUpTo.
+     * Runs on the conversation's stripe, so it is applied in order with the chat's messages.
+     * Clients send receipts to /app/read
+     */
+    @MessageMapping("/read")
+    public void handleReadReceipt(@Payload ReadReceiptRequest request, Principal principal) {
+        try {
+            String readerId = request.readerId();
+
+            if (principal != null && !readerId.equals(principal.getName())) {
+                log.warn("⚠️ User {} trying to send a read receipt for {}", principal.getName(), readerId);
                 return;
             }
 
-            log.debug("✍️ Typing indicator: {} -> {} (typing: {})", senderId, receiverId, isTyping);
+            log.debug("👀 Read receipt: {} read chat with {} up to {}", readerId, request.peerId(), request.readUpTo());
 
-            // Send typing indicator to receiver
-            messagingTemplate.convertAndSendToUser(
-                    receiverId,
-                    "/queue/typing",
-                    Map.of(
-                            "senderId", senderId,
-                            "isTyping", isTyping != null ? isTyping : "false"
-                    )
-            );
-
-            log.debug("✅ Typing indicator sent successfully");
+            conversationExecutor.execute(createChatId(readerId, request.peerId()), () -> {
+                try {
+                    conversationSummaryService.markRead(readerId, request.peerId(), request.readUpTo());
+                } catch (Exception e) {
+                    log.error("❌ Error applying read receipt: {}", e.getMessage());
+                }
+            });
 
         } catch (Exception e) {
-            log.error("❌ Error handling typing indicator: {}", e.getMessage());
+            log.error("❌ Error handling read receipt: {}", e.getMessage());
         }
     }
 
@@ -134,10 +162,10 @@ public class ChatWebSocketController {
      */
     @MessageMapping("/status")
     @SendToUser("/queue/status")
-    public Map<String, String> handleUserStatus(@Payload Map<String, String> statusData, Principal principal) {
+    public Map<String, String> handleUserStatus(@Payload StatusRequest request, Principal principal) {
         try {
-            String userId = statusData.get("userId");
-            String status = statusData.get("status");
+            String userId = request.userId();
+            String status = request.status();
 
             if (principal != null && !userId.equals(principal.getName())) {
                 log.warn("⚠️ User {} trying to update status for {}", principal.getName(), userId);
@@ -146,12 +174,8 @@ public class ChatWebSocketController {
 
             log.info("👤 User {} status changed to: {}", userId, status);
 
-            // Broadcast user status to all users
-            messagingTemplate.convertAndSend("/topic/user-status", Map.of(
-                    "userId", userId,
-                    "status", status,
-                    "timestamp", String.valueOf(System.currentTimeMillis())
-            ));
+            // Push the status to the user's contacts only
+            presenceRegistry.updateStatus(userId, status);
 
             return Map.of(
                     "userId", userId,
@@ -165,33 +189,63 @@ public class ChatWebSocketController {
         }
     }
 
+    /**
+     * Subscribe to status changes of the given users (e.g. the contact list on screen)
+     * and get their current status back
+     */
+    @MessageMapping("/presence/watch")
+    @SendToUser("/queue/presence")
+    public Map<String, Object> handlePresenceWatch(@Payload PresenceWatchRequest request, Principal principal) {
+        try {
+            List<String> userIds = request.userIds();
+            if (principal != null) {
+                presenceRegistry.watch(principal.getName(), userIds);
+            }
+
+            return Map.of(
+                    "type", "snapshot",
+                    "statuses", presenceRegistry.snapshot(userIds),
+                    "timestamp", String.valueOf(System.currentTimeMillis())
+            );
+
+        } catch (Exception e) {
+            log.error("❌ Error handling presence watch: {}", e.getMessage());
+            return Map.of("error", "Failed to watch presence");
+        }
+    }
+
     /**
      * Handle user joining/leaving notifications
      */
     @MessageMapping("/join")
-    public void handleUserJoin(@Payload Map<String, String> joinData, Principal principal) {
+    public void handleUserJoin(@Payload JoinRequest request, Principal principal) {
         try {
-            String userId = joinData.get("userId");
-            String action = joinData.get("action");
+            String userId = request.userId();
+            String action = request.action();
 
             if (principal != null && !userId.equals(principal.getName())) {
                 log.warn("⚠️ Unauthorized join/leave action");
                 return;
             }
 
+            // Online/offline is tracked from the STOMP session lifecycle by PresenceRegistry
             log.info("👤 User {} {}", userId, action);
 
-            messagingTemplate.convertAndSend("/topic/user-status", Map.of(
-                    "userId", userId,
-                    "action", action,
-                    "timestamp", String.valueOf(System.currentTimeMillis())
-            ));
-
         } catch (Exception e) {
             log.error("❌ Error handling user join/leave: {}", e.getMessage());
         }
     }
 
+    /**
+     * Frames that fail to deserialize into their payload record (missing ids, bad JSON)
+     * are dropped here instead of reaching the handlers
+     */
+    @MessageExceptionHandler(MessageConversionException.class)
+    public void handleInvalidPayload(MessageConversionException e,
+                                     @Header(name = SimpMessageHeaderAccessor.DESTINATION_HEADER, required = false) String destination) {
+        log.warn("❌ Invalid payload on {}: {}", destination, e.getMostSpecificCause().getMessage());
+    }
+
     /**
      *  Public method to send messages programmatically (called from REST API)
      */
@@ -200,26 +254,10 @@ public class ChatWebSocketController {
             log.info("📢 Broadcasting message via WebSocket: {} -> {}",
                     message.getSenderId(), message.getReceiverId());
 
-            // Send to both users' personal queues
-            messagingTemplate.convertAndSendToUser(
-                    message.getReceiverId(),
-                    "/queue/messages",
-                    message
-            );
-
-            messagingTemplate.convertAndSendToUser(
-                    message.getSenderId(),
-                    "/queue/messages",
-                    message
-            );
-
-            // Send to shared chat topic
-            String chatId = createChatId(message.getSenderId(), message.getReceiverId());
-            messagingTemplate.convertAndSend("/topic/chat/" + chatId, message);
-
-            // Send to individual user topics
-            messagingTemplate.convertAndSend("/topic/chat/" + message.getSenderId(), message);
-            messagingTemplate.convertAndSend("/topic/chat/" + message.getReceiverId(), message);
+            // Send to both users' personal queues and the chat topics
+            messageFanout.fanout(message);
+            presenceRegistry.recordConversation(message.getSenderId(), message.getReceiverId());
+            typingIndicatorThrottle.clear(message.getSenderId(), message.getReceiverId());
 
             log.info("✅ Message broadcasted successfully: {}", message.getId());
 
@@ -228,14 +266,63 @@ public class ChatWebSocketController {
         }
     }
 
+    /**
+     * Send a durable acknowledgement to the sender once a message has been committed
+     * (/user/{senderId}/queue/acks)
+     */
+    @EventListener
+    public void handleMessagesPersisted(MessagesPersistedEvent event) {
+        sendAcks(event.getPersisted(), "persisted");
+        sendAcks(event.getFailed(), "failed");
+    }
+
+    /**
+     * Tell the other participant that their messages have been read
+     * (/user/{peerId}/queue/receipts)
+     */
+    @EventListener
+    public void handleMessagesRead(MessagesReadEvent event) {
+        ConversationSummary summary = event.getSummary();
+        try {
+            Map<String, String> receipt = new LinkedHashMap<>();
+            receipt.put("type", "read");
+            receipt.put("readerId", summary.getUserId());
+            receipt.put("conversationId", summary.getConversationId());
+            receipt.put("readUpTo", String.valueOf(summary.getLastReadAt()));
+            receipt.put("timestamp", String.valueOf(System.currentTimeMillis()));
+            messagingTemplate.convertAndSendToUser(summary.getPeerId(), "/queue/receipts", receipt);
+        } catch (Exception e) {
+            log.warn("⚠️ Failed to send read receipt to {}: {}", summary.getPeerId(), e.getMessage());
+        }
+    }
+
+    private void sendAcks(List<Message> messages, String status) {
+        for (Message message : messages) {
+            try {
+                messagingTemplate.convertAndSendToUser(
+                        message.getSenderId(),
+                        "/queue/acks",
+                        Map.of(
+                                "messageId", message.getId(),
+                                "receiverId", message.getReceiverId(),
+                                "status", status,
+                                "timestamp", String.valueOf(System.currentTimeMillis())
+                        )
+                );
+            } catch (Exception e) {
+                log.warn("⚠️ Failed to send {} ack for message {}: {}", status, message.getId(), e.getMessage());
+            }
+        }
+    }
+
     /**
      * Test endpoint to verify WebSocket functionality
      */
     @MessageMapping("/test")
-    public void handleTestMessage(@Payload Map<String, String> testData, Principal principal) {
+    public void handleTestMessage(@Payload TestMessageRequest request, Principal principal) {
         try {
-            String userId = testData.get("userId");
-            String testMessage = testData.get("message");
+            String userId = request.userId();
+            String testMessage = request.message();
 
             log.info("🧪 Test message received from {}: {}", userId, testMessage);
 
@@ -261,9 +348,9 @@ public class ChatWebSocketController {
      * Handle connection establishment notifications
      */
     @MessageMapping("/connect")
-    public void handleUserConnect(@Payload Map<String, String> connectData, Principal principal) {
+    public void handleUserConnect(@Payload ConnectRequest request, Principal principal) {
         try {
-            String userId = connectData.get("userId");
+            String userId = request.userId();
 
             log.info("🔌 User connected: {}", userId);
 
@@ -278,13 +365,7 @@ public class ChatWebSocketController {
                     )
             );
 
-            // Notify other users about new connection (optional)
-            messagingTemplate.convertAndSend("/topic/user-status", Map.of(
-                    "userId", userId,
-                    "status", "online",
-                    "action", "connect",
-                    "timestamp", String.valueOf(System.currentTimeMillis())
-            ));
+            // Contacts are told by PresenceRegistry once the STOMP session is connected
 
         } catch (Exception e) {
             log.error("❌ Error handling user connect: {}", e.getMessage());
@@ -295,20 +376,13 @@ public class ChatWebSocketController {
      * Handle disconnection notifications
      */
     @MessageMapping("/disconnect")
-    public void handleUserDisconnect(@Payload Map<String, String> disconnectData, Principal principal) {
+    public void handleUserDisconnect(@Payload ConnectRequest request, Principal principal) {
         try {
-            String userId = disconnectData.get("userId");
+            String userId = request.userId();
 
+            // Contacts are told by PresenceRegistry when the last session of the user closes
             log.info("🔌 User disconnecting: {}", userId);
 
-            // Notify other users about disconnection
-            messagingTemplate.convertAndSend("/topic/user-status", Map.of(
-                    "userId", userId,
-                    "status", "offline",
-                    "action", "disconnect",
-                    "timestamp", String.valueOf(System.currentTimeMillis())
-            ));
-
         } catch (Exception e) {
             log.error("❌ Error handling user disconnect: {}", e.getMessage());
         }
@@ -319,19 +393,8 @@ public class ChatWebSocketController {
      * This ensures both users subscribe to the same chat topic
      */
     private String createChatId(String userId1, String userId2) {
-        // Create consistent chat ID regardless of order
-        return userId1.compareTo(userId2) < 0 ? userId1 + "_" + userId2 : userId2 + "_" + userId1;
-    }
-
-    /**
-     * Utility method to validate message data
-     */
-    private boolean isValidMessageData(Map<String, String> messageData) {
-        return messageData != null &&
-                messageData.get("senderId") != null &&
-                messageData.get("receiverId") != null &&
-                messageData.get("message") != null &&
-                !messageData.get("message").trim().isEmpty();
+        // Same ID the messages are stored under
+        return Message.createConversationId(userId1, userId2);
     }
 
     /**
@@ -346,19 +409,26 @@ public class ChatWebSocketController {
      * Get WebSocket connection statistics (for monitoring)
      */
     public Map<String, Object> getConnectionStats() {
-        return Map.of(
-                "service", "ChatWebSocketController",
-                "status", "active",
-                "timestamp", System.currentTimeMillis(),
-                "endpoints", Map.of(
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("service", "ChatWebSocketController");
+        stats.put("status", "active");
+        stats.put("timestamp", System.currentTimeMillis());
+        stats.put("activeSessions", presenceRegistry.getSessionCount());
+        stats.put("onlineUsers", presenceRegistry.getOnlineUserCount());
+        stats.put("fanout", messageFanout.getStats());
+        stats.put("typing", typingIndicatorThrottle.getStats());
+        stats.put("conversationExecutor", conversationExecutor.getStats());
+        stats.put("endpoints", Map.of(
                         "chat", "/app/chat",
                         "typing", "/app/typing",
+                        "read", "/app/read",
                         "status", "/app/status",
                         "join", "/app/join",
+                        "presenceWatch", "/app/presence/watch",
                         "test", "/app/test",
                         "connect", "/app/connect",
                         "disconnect", "/app/disconnect"
-                )
-        );
+                ));
+        return stats;
     }
 }
\ No newline at end of file
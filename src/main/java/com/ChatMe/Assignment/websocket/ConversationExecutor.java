@@ -0,0 +1,243 @@
+package com.ChatMe.Assignment.websocket;
+
+import com.ChatMe.Assignment.config.ExecutionModeConfig;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Striped executor for work that must stay in order within a conversation.
+ * Every conversation id maps to one stripe, and each stripe runs its tasks one at a time on its
+ * own worker, so persist-then-broadcast of two messages in the same chat never overtake each other
+ * while different conversations run in parallel on the other stripes.
+ *
+ * A full stripe queue blocks the caller for up to the offer timeout, which pushes back on the
+ * inbound channel instead of growing without bound; a task that still doesn't fit is rejected.
+ * Tasks are also rejected once the executor has been stopped. With enabled=false tasks run on
+ * the calling thread.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConversationExecutor {
+
+    private final ExecutionModeConfig executionMode;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${chat.conversation-executor.enabled:true}")
+    private boolean enabled;
+
+    // 0 = one stripe per available processor
+    @Value("${chat.conversation-executor.stripes:0}")
+    private int stripeCount;
+
+    @Value("${chat.conversation-executor.queue-capacity:10000}")
+    private int queueCapacity;
+
+    // How long a caller waits for space in a full stripe before its task is rejected
+    @Value("${chat.conversation-executor.offer-timeout-ms:5000}")
+    private long offerTimeoutMs;
+
+    private final List<Stripe> stripes = new ArrayList<>();
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("Conversation executor disabled, chat messages are handled on the inbound channel threads");
+            return;
+        }
+
+        int count = stripeCount > 0 ? stripeCount : Runtime.getRuntime().availableProcessors();
+        ThreadFactory threadFactory = executionMode.isVirtual()
+                ? executionMode.virtualThreadExecutor("conversation-stripe-").getVirtualThreadFactory()
+                : runnable -> {
+                    Thread thread = new Thread(runnable);
+                    thread.setDaemon(true);
+                    return thread;
+                };
+
+        running = true;
+        for (int i = 0; i < count; i++) {
+            Stripe stripe = new Stripe(new LinkedBlockingQueue<>(queueCapacity));
+            Thread worker = threadFactory.newThread(() -> runStripe(stripe));
+            worker.setName("conversation-stripe-" + i);
+            stripe.worker = worker;
+            stripes.add(stripe);
+
+            Gauge.builder("chat.conversation_executor.queue", stripe.queue, BlockingQueue::size)
+                    .description("Tasks waiting in a conversation stripe")
+                    .tag("stripe", String.valueOf(i))
+                    .register(meterRegistry);
+            FunctionCounter.builder("chat.conversation_executor.completed", stripe.completed, LongAdder::sum)
+                    .tag("stripe", String.valueOf(i))
+                    .register(meterRegistry);
+
+            worker.start();
+        }
+
+        log.info("Conversation executor started (stripes={}, queueCapacity={})", count, queueCapacity);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for (Stripe stripe : stripes) {
+            try {
+                // Workers finish what is already queued
+                stripe.worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (stripe.worker.isAlive()) {
+                log.warn("Conversation stripe {} stopped with {} tasks pending", stripe.worker.getName(), stripe.queue.size());
+                continue;
+            }
+            // Tasks queued while the worker was exiting would otherwise never run (or complete their futures)
+            Runnable task;
+            while ((task = stripe.queue.poll()) != null) {
+                runTask(stripe, task);
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Run a task after every task submitted earlier for the same conversation.
+     * Throws RejectedExecutionException if the executor is stopped or the stripe stays full for the offer timeout.
+     */
+    public void execute(String conversationId, Runnable task) {
+        if (!enabled) {
+            task.run();
+            return;
+        }
+
+        if (!running) {
+            throw new RejectedExecutionException("Conversation executor is stopped");
+        }
+
+        Stripe stripe = stripeFor(conversationId);
+        boolean queued;
+        try {
+            queued = stripe.queue.offer(task, offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while queueing task for conversation " + conversationId, e);
+        }
+        if (!queued) {
+            throw new RejectedExecutionException("Conversation stripe full (" + queueCapacity + " tasks) for " + conversationId);
+        }
+
+        // stop() may have drained the stripe between the check above and the offer. If the task is
+        // still queued nobody will run it, so take it back; otherwise a worker or stop() has it.
+        if (!running && stripe.queue.remove(task)) {
+            throw new RejectedExecutionException("Conversation executor is stopped");
+        }
+    }
+
+    /**
+     * Like {@link #execute}, for callers that need the result.
+     * A rejected task completes the future exceptionally instead of throwing.
+     */
+    public <T> CompletableFuture<T> submit(String conversationId, Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            execute(conversationId, () -> {
+                try {
+                    result.complete(task.get());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Queue depth per stripe (for monitoring)
+     */
+    public Map<String, Object> getStats() {
+        List<Integer> queueDepths = new ArrayList<>(stripes.size());
+        long completed = 0;
+        long failed = 0;
+        for (Stripe stripe : stripes) {
+            queueDepths.add(stripe.queue.size());
+            completed += stripe.completed.sum();
+            failed += stripe.failed.sum();
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("stripes", stripes.size());
+        stats.put("queueDepths", queueDepths);
+        stats.put("completed", completed);
+        stats.put("failed", failed);
+        return stats;
+    }
+
+    private Stripe stripeFor(String conversationId) {
+        return stripes.get((conversationId.hashCode() & 0x7fffffff) % stripes.size());
+    }
+
+    private void runStripe(Stripe stripe) {
+        while (running || !stripe.queue.isEmpty()) {
+            Runnable task;
+            try {
+                task = stripe.queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (task != null) {
+                runTask(stripe, task);
+            }
+        }
+    }
+
+    private static void runTask(Stripe stripe, Runnable task) {
+        try {
+            task.run();
+            stripe.completed.increment();
+        } catch (Exception e) {
+            // One failing task must not stop the conversations behind it
+            stripe.failed.increment();
+            log.error("❌ Conversation task failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private static class Stripe {
+        private final BlockingQueue<Runnable> queue;
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private Thread worker;
+
+        private Stripe(BlockingQueue<Runnable> queue) {
+            this.queue = queue;
+        }
+    }
+}
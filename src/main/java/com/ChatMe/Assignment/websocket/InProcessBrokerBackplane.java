@@ -0,0 +1,45 @@
+package com.ChatMe.Assignment.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Backplane that connects all ChatMe application contexts running in the same JVM.
+ * Stands in for an external pub/sub system, e.g. to run two app instances against
+ * each other in an integration test.
+ */
+@Slf4j
+public class InProcessBrokerBackplane implements BrokerBackplane {
+
+    // Shared by every application context in the JVM
+    private static final Map<String, Consumer<Message<byte[]>>> NODES = new ConcurrentHashMap<>();
+
+    @Override
+    public void publish(String originNodeId, Message<byte[]> message) {
+        NODES.forEach((nodeId, listener) -> {
+            if (nodeId.equals(originNodeId)) {
+                return;
+            }
+            try {
+                listener.accept(message);
+            } catch (Exception e) {
+                log.warn("⚠️ Backplane delivery to node {} failed: {}", nodeId, e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void subscribe(String nodeId, Consumer<Message<byte[]>> listener) {
+        NODES.put(nodeId, listener);
+        log.info("Node {} joined the in-process broker backplane ({} nodes)", nodeId, NODES.size());
+    }
+
+    @Override
+    public void unsubscribe(String nodeId) {
+        NODES.remove(nodeId);
+    }
+}
@@ -0,0 +1,145 @@
+package com.ChatMe.Assignment.websocket;
+
+import com.ChatMe.Assignment.model.Message;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Delivers a chat message to every destination in the routing profile.
+ * The message is serialized to JSON once and the same byte array is reused for all
+ * destinations, instead of one Jackson pass per convertAndSend call.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MessageFanout {
+
+    /**
+     * Destination types a chat message can be routed to
+     */
+    public enum DestinationType {
+        // /user/{userId}/queue/messages for sender and receiver
+        USER_QUEUE,
+        // /topic/chat/{conversationId}
+        CONVERSATION_TOPIC,
+        // /topic/chat/{userId} for sender and receiver
+        USER_TOPIC
+    }
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    // Routing profile: comma separated destination types, e.g. "user-queue" to drop the redundant topics
+    @Value("${chat.fanout.destinations:user-queue,conversation-topic,user-topic}")
+    private List<String> destinations;
+
+    // Per destination type send latency; the timer counts double as delivery counts
+    private final Map<DestinationType, Timer> deliveries = new EnumMap<>(DestinationType.class);
+    private final Map<DestinationType, Counter> failures = new EnumMap<>(DestinationType.class);
+
+    private Set<DestinationType> routingProfile;
+    private Timer serializeTimer;
+
+    @PostConstruct
+    public void init() {
+        routingProfile = EnumSet.noneOf(DestinationType.class);
+        for (String destination : destinations) {
+            routingProfile.add(DestinationType.valueOf(destination.trim().toUpperCase(Locale.ROOT).replace('-', '_')));
+        }
+        for (DestinationType type : DestinationType.values()) {
+            String tag = type.name().toLowerCase(Locale.ROOT);
+            deliveries.put(type, Timer.builder("chat.fanout.send")
+                    .description("Time to hand a message to the broker for one destination")
+                    .tag("destination", tag)
+                    .register(meterRegistry));
+            failures.put(type, Counter.builder("chat.fanout.failures")
+                    .tag("destination", tag)
+                    .register(meterRegistry));
+        }
+        serializeTimer = Timer.builder("chat.fanout.serialize")
+                .description("Time to serialize a message for fan-out")
+                .register(meterRegistry);
+        log.info("Message fan-out routing profile: {}", routingProfile);
+    }
+
+    /**
+     * Send a message to both participants on every destination of the routing profile
+     */
+    public void fanout(Message message) throws JsonProcessingException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        byte[] payload = objectMapper.writeValueAsBytes(message);
+        sample.stop(serializeTimer);
+
+        String senderId = message.getSenderId();
+        String receiverId = message.getReceiverId();
+
+        if (routingProfile.contains(DestinationType.USER_QUEUE)) {
+            send(userDestination(receiverId, "/queue/messages"), payload, DestinationType.USER_QUEUE);
+            send(userDestination(senderId, "/queue/messages"), payload, DestinationType.USER_QUEUE);
+        }
+
+        if (routingProfile.contains(DestinationType.CONVERSATION_TOPIC)) {
+            send("/topic/chat/" + Message.createConversationId(senderId, receiverId), payload, DestinationType.CONVERSATION_TOPIC);
+        }
+
+        if (routingProfile.contains(DestinationType.USER_TOPIC)) {
+            send("/topic/chat/" + senderId, payload, DestinationType.USER_TOPIC);
+            send("/topic/chat/" + receiverId, payload, DestinationType.USER_TOPIC);
+        }
+    }
+
+    /**
+     * Delivery counts per destination type (for monitoring)
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("routingProfile", routingProfile);
+        deliveries.forEach((type, timer) -> stats.put(type.name(), timer.count()));
+        stats.put("failures", (long) failures.values().stream().mapToDouble(Counter::count).sum());
+        return stats;
+    }
+
+    private void send(String destination, byte[] payload, DestinationType type) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            // Fresh headers per destination; only the payload bytes are shared
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+            accessor.setLeaveMutable(true);
+
+            messagingTemplate.send(destination, MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+            sample.stop(deliveries.get(type));
+        } catch (Exception e) {
+            failures.get(type).increment();
+            log.warn("⚠️ Failed to deliver message to {}: {}", destination, e.getMessage());
+        }
+    }
+
+    private String userDestination(String userId, String destination) {
+        // Same encoding as SimpMessagingTemplate.convertAndSendToUser
+        return messagingTemplate.getUserDestinationPrefix() + StringUtils.replace(userId, "/", "%2F") + destination;
+    }
+}
@@ -0,0 +1,229 @@
+package com.ChatMe.Assignment.websocket;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Server-side presence, driven by STOMP session lifecycle events.
+ * A user is online while at least one of their sessions is connected, so crashed clients
+ * go offline when their session is closed. Status changes are pushed only to the user's
+ * contacts on /user/{contactId}/queue/presence.
+ *
+ * Contacts are users who chatted with the user or asked to watch them, and are tracked
+ * only while the watching user is online.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PresenceRegistry {
+
+    public static final String ONLINE = "online";
+    public static final String OFFLINE = "offline";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final MeterRegistry meterRegistry;
+
+    // userId -> connected STOMP session IDs
+    private final Map<String, Set<String>> sessionsByUser = new ConcurrentHashMap<>();
+
+    // sessionId -> userId, to resolve disconnects that arrive without a principal
+    private final Map<String, String> userBySession = new ConcurrentHashMap<>();
+
+    // userId -> status reported by the client (away, busy, ...) while online
+    private final Map<String, String> statuses = new ConcurrentHashMap<>();
+
+    // userId -> users that get that user's status changes
+    private final Map<String, Set<String>> watchers = new ConcurrentHashMap<>();
+
+    // userId -> users that user is watching, so the watches can be dropped when they go offline
+    private final Map<String, Set<String>> watching = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("chat.sessions.active", this, PresenceRegistry::getSessionCount)
+                .description("Connected STOMP sessions")
+                .register(meterRegistry);
+        Gauge.builder("chat.users.online", this, PresenceRegistry::getOnlineUserCount)
+                .description("Users with at least one connected session")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void handleSessionConnected(SessionConnectedEvent event) {
+        Principal user = event.getUser();
+        String sessionId = StompHeaderAccessor.wrap(event.getMessage()).getSessionId();
+        if (user == null || sessionId == null) {
+            return;
+        }
+
+        String userId = user.getName();
+        userBySession.put(sessionId, userId);
+
+        boolean cameOnline = addSession(userId, sessionId);
+        if (cameOnline) {
+            log.info("👤 User {} is online", userId);
+            notifyWatchers(userId, ONLINE);
+        }
+    }
+
+    @EventListener
+    public void handleSessionDisconnect(SessionDisconnectEvent event) {
+        String userId = userBySession.remove(event.getSessionId());
+        if (userId == null) {
+            return;
+        }
+
+        boolean wentOffline = removeSession(userId, event.getSessionId());
+        if (wentOffline) {
+            log.info("👤 User {} is offline", userId);
+            statuses.remove(userId);
+            notifyWatchers(userId, OFFLINE);
+            stopWatching(userId);
+        }
+    }
+
+    public boolean isOnline(String userId) {
+        return sessionsByUser.containsKey(userId);
+    }
+
+    public String getStatus(String userId) {
+        if (!isOnline(userId)) {
+            return OFFLINE;
+        }
+        return statuses.getOrDefault(userId, ONLINE);
+    }
+
+    public int getOnlineUserCount() {
+        return sessionsByUser.size();
+    }
+
+    public int getSessionCount() {
+        return userBySession.size();
+    }
+
+    /**
+     * Status of the given users, or of every online user when none are given
+     */
+    public Map<String, String> snapshot(Collection<String> userIds) {
+        Map<String, String> snapshot = new LinkedHashMap<>();
+        if (userIds == null || userIds.isEmpty()) {
+            sessionsByUser.keySet().forEach(userId -> snapshot.put(userId, getStatus(userId)));
+        } else {
+            userIds.forEach(userId -> snapshot.put(userId, getStatus(userId)));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Update a client-reported status (away, busy, ...) and tell the user's contacts
+     */
+    public void updateStatus(String userId, String status) {
+        if (!isOnline(userId)) {
+            return;
+        }
+
+        String previous = statuses.put(userId, status);
+        if (!status.equals(previous)) {
+            notifyWatchers(userId, status);
+        }
+    }
+
+    /**
+     * Let a watcher receive status changes of the given users
+     */
+    public void watch(String watcherId, Collection<String> userIds) {
+        if (!isOnline(watcherId)) {
+            return;
+        }
+        for (String userId : userIds) {
+            if (!userId.equals(watcherId)) {
+                watchers.computeIfAbsent(userId, key -> ConcurrentHashMap.newKeySet()).add(watcherId);
+                watching.computeIfAbsent(watcherId, key -> ConcurrentHashMap.newKeySet()).add(userId);
+            }
+        }
+    }
+
+    /**
+     * Make two chat participants each other's contacts
+     */
+    public void recordConversation(String userId1, String userId2) {
+        watch(userId1, Set.of(userId2));
+        watch(userId2, Set.of(userId1));
+    }
+
+    private boolean addSession(String userId, String sessionId) {
+        boolean[] first = new boolean[1];
+        sessionsByUser.compute(userId, (key, sessions) -> {
+            if (sessions == null) {
+                sessions = ConcurrentHashMap.newKeySet();
+                first[0] = true;
+            }
+            sessions.add(sessionId);
+            return sessions;
+        });
+        return first[0];
+    }
+
+    private boolean removeSession(String userId, String sessionId) {
+        boolean[] last = new boolean[1];
+        sessionsByUser.computeIfPresent(userId, (key, sessions) -> {
+            sessions.remove(sessionId);
+            if (sessions.isEmpty()) {
+                last[0] = true;
+                return null;
+            }
+            return sessions;
+        });
+        return last[0];
+    }
+
+    private void stopWatching(String watcherId) {
+        Set<String> targets = watching.remove(watcherId);
+        if (targets == null) {
+            return;
+        }
+        for (String target : targets) {
+            watchers.computeIfPresent(target, (key, set) -> {
+                set.remove(watcherId);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    private void notifyWatchers(String userId, String status) {
+        Set<String> userWatchers = watchers.get(userId);
+        if (userWatchers == null || userWatchers.isEmpty()) {
+            return;
+        }
+
+        Map<String, String> update = Map.of(
+                "userId", userId,
+                "status", status,
+                "timestamp", String.valueOf(System.currentTimeMillis())
+        );
+
+        for (String watcherId : userWatchers) {
+            try {
+                messagingTemplate.convertAndSendToUser(watcherId, "/queue/presence", update);
+            } catch (Exception e) {
+                log.warn("⚠️ Failed to send presence update for {} to {}: {}", userId, watcherId, e.getMessage());
+            }
+        }
+    }
+}
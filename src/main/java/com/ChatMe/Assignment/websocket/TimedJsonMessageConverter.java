@@ -0,0 +1,57 @@
+package com.ChatMe.Assignment.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JSON converter for inbound STOMP frames that records how long each payload takes to parse,
+ * tagged with the payload type (chat.inbound.parse)
+ */
+public class TimedJsonMessageConverter extends MappingJackson2MessageConverter {
+
+    private final MeterRegistry meterRegistry;
+
+    // Timers per payload type, built on first use; the set of payload types is small and fixed
+    private final Map<Class<?>, ParseTimers> timers = new ConcurrentHashMap<>();
+
+    public TimedJsonMessageConverter(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        super(objectMapper);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected Object convertFromInternal(Message<?> message, Class<?> targetClass, @Nullable Object conversionHint) {
+        ParseTimers parseTimers = timers.computeIfAbsent(targetClass, this::parseTimers);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Timer timer = parseTimers.failure();
+        try {
+            Object payload = super.convertFromInternal(message, targetClass, conversionHint);
+            timer = parseTimers.success();
+            return payload;
+        } finally {
+            sample.stop(timer);
+        }
+    }
+
+    private ParseTimers parseTimers(Class<?> targetClass) {
+        return new ParseTimers(parseTimer(targetClass, "success"), parseTimer(targetClass, "failure"));
+    }
+
+    private Timer parseTimer(Class<?> targetClass, String outcome) {
+        return Timer.builder("chat.inbound.parse")
+                .description("Time to deserialize an inbound STOMP payload")
+                .tag("payload", targetClass.getSimpleName())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record ParseTimers(Timer success, Timer failure) {
+    }
+}
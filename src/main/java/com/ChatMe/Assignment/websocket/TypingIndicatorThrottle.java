@@ -0,0 +1,170 @@
+package com.ChatMe.Assignment.websocket;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Server-side typing indicator stage.
+ * Keeps typing state per (sender, receiver) pair and only forwards state transitions to the
+ * receiver. "Typing" expires on its own if the client stops sending frames, and frames above
+ * the per-session rate cap are dropped before any state is touched; frames that stop typing are
+ * always applied.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TypingIndicatorThrottle {
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    // How long "isTyping=true" holds without a refreshing frame
+    @Value("${chat.typing.timeout-ms:5000}")
+    private long typingTimeoutMs;
+
+    @Value("${chat.typing.max-frames-per-second:5}")
+    private int maxFramesPerSecond;
+
+    // "senderId|receiverId" -> time at which the typing state expires
+    private final Map<String, Long> typingUntil = new ConcurrentHashMap<>();
+
+    // sessionId -> frames received in the current one-second window
+    private final Map<String, RateWindow> rateWindows = new ConcurrentHashMap<>();
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder emitted = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    private ScheduledExecutorService sweeper;
+
+    @PostConstruct
+    public void start() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "typing-indicator-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(100, typingTimeoutMs / 5);
+        sweeper.scheduleWithFixedDelay(this::expireStaleTyping, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * Handle one typing frame from a client session
+     */
+    public void onTypingFrame(String sessionId, String senderId, String receiverId, boolean isTyping) {
+        received.increment();
+
+        if (!isTyping) {
+            // Never rate limited, or the receiver would see "typing" until the timeout
+            clear(senderId, receiverId);
+            return;
+        }
+
+        if (sessionId != null && !tryAcquire(sessionId)) {
+            rateLimited.increment();
+            return;
+        }
+
+        // Only the first frame of a typing burst is forwarded; later ones just extend the timeout
+        Long previous = typingUntil.put(senderId + "|" + receiverId, System.currentTimeMillis() + typingTimeoutMs);
+        if (previous == null) {
+            emit(senderId, receiverId, true);
+        }
+    }
+
+    /**
+     * End the sender's typing state, if any, e.g. because their message has been sent
+     */
+    public void clear(String senderId, String receiverId) {
+        if (typingUntil.remove(senderId + "|" + receiverId) != null) {
+            emit(senderId, receiverId, false);
+        }
+    }
+
+    @EventListener
+    public void handleSessionDisconnect(SessionDisconnectEvent event) {
+        rateWindows.remove(event.getSessionId());
+    }
+
+    /**
+     * Typing pipeline statistics (for monitoring)
+     */
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "activeTypers", typingUntil.size(),
+                "received", received.sum(),
+                "emitted", emitted.sum(),
+                "rateLimited", rateLimited.sum(),
+                "expired", expired.sum()
+        );
+    }
+
+    private boolean tryAcquire(String sessionId) {
+        long second = System.currentTimeMillis() / 1000;
+        int[] count = new int[1];
+        rateWindows.compute(sessionId, (key, current) -> {
+            if (current == null || current.second != second) {
+                current = new RateWindow(second, 0);
+            }
+            count[0] = ++current.count;
+            return current;
+        });
+        return count[0] <= maxFramesPerSecond;
+    }
+
+    private void expireStaleTyping() {
+        long now = System.currentTimeMillis();
+        typingUntil.forEach((key, until) -> {
+            if (until <= now && typingUntil.remove(key, until)) {
+                expired.increment();
+                int separator = key.indexOf('|');
+                emit(key.substring(0, separator), key.substring(separator + 1), false);
+            }
+        });
+    }
+
+    private void emit(String senderId, String receiverId, boolean isTyping) {
+        try {
+            messagingTemplate.convertAndSendToUser(
+                    receiverId,
+                    "/queue/typing",
+                    Map.of(
+                            "senderId", senderId,
+                            "isTyping", String.valueOf(isTyping)
+                    )
+            );
+            emitted.increment();
+        } catch (Exception e) {
+            log.warn("⚠️ Failed to send typing indicator {} -> {}: {}", senderId, receiverId, e.getMessage());
+        }
+    }
+
+    private static class RateWindow {
+        private final long second;
+        private int count;
+
+        private RateWindow(long second, int count) {
+            this.second = second;
+            this.count = count;
+        }
+    }
+}
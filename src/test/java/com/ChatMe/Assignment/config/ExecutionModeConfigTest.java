@@ -0,0 +1,62 @@
+package com.ChatMe.Assignment.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assumptions.assumeThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class ExecutionModeConfigTest {
+
+    @Test
+    void platformThreadsByDefault() {
+        ExecutionModeConfig config = config("platform");
+
+        assertThat(config.isVirtual()).isFalse();
+
+        ProtocolHandler protocolHandler = mock(ProtocolHandler.class);
+        config.executionModeProtocolHandlerCustomizer().customize(protocolHandler);
+        verify(protocolHandler, never()).setExecutor(any());
+    }
+
+    @Test
+    void virtualModeFallsBackBeforeJava21() {
+        assumeThat(JavaVersion.getJavaVersion().isOlderThan(JavaVersion.TWENTY_ONE)).isTrue();
+
+        ExecutionModeConfig config = config("virtual");
+
+        assertThat(config.isVirtual()).isFalse();
+    }
+
+    @Test
+    void virtualModeUsesVirtualThreadsOnJava21() {
+        assumeThat(JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE)).isTrue();
+
+        ExecutionModeConfig config = config("VIRTUAL");
+
+        assertThat(config.isVirtual()).isTrue();
+        ProtocolHandler protocolHandler = mock(ProtocolHandler.class);
+        config.executionModeProtocolHandlerCustomizer().customize(protocolHandler);
+        verify(protocolHandler).setExecutor(isA(VirtualThreadExecutor.class));
+    }
+
+    @Test
+    void unknownModeUsesPlatformThreads() {
+        assertThat(config("reactive").isVirtual()).isFalse();
+    }
+
+    private static ExecutionModeConfig config(String mode) {
+        ExecutionModeConfig config = new ExecutionModeConfig();
+        ReflectionTestUtils.setField(config, "mode", mode);
+        config.resolveMode();
+        return config;
+    }
+}
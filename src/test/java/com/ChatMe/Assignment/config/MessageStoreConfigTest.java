@@ -0,0 +1,39 @@
+package com.ChatMe.Assignment.config;
+
+import com.ChatMe.Assignment.repository.MessageRepository;
+import com.ChatMe.Assignment.repository.ReactiveMessageRepository;
+import com.ChatMe.Assignment.service.BlockingMessageHistoryStore;
+import com.ChatMe.Assignment.service.MessageHistoryStore;
+import com.ChatMe.Assignment.service.ReactiveMessageHistoryStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class MessageStoreConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(MessageStoreConfig.class)
+            .withBean(MessageRepository.class, () -> mock(MessageRepository.class))
+            .withBean(ReactiveMessageRepository.class, () -> mock(ReactiveMessageRepository.class));
+
+    @Test
+    void blockingStoreIsTheDefault() {
+        contextRunner.run(context -> assertThat(context.getBean(MessageHistoryStore.class))
+                .isInstanceOf(BlockingMessageHistoryStore.class));
+    }
+
+    @Test
+    void reactiveStoreIsSelectedByProperty() {
+        contextRunner.withPropertyValues("chat.store=reactive")
+                .run(context -> assertThat(context.getBean(MessageHistoryStore.class))
+                        .isInstanceOf(ReactiveMessageHistoryStore.class));
+    }
+
+    @Test
+    void unknownStoreLeavesNoHistoryStore() {
+        contextRunner.withPropertyValues("chat.store=cassandra")
+                .run(context -> assertThat(context).doesNotHaveBean(MessageHistoryStore.class));
+    }
+}
@@ -0,0 +1,44 @@
+package com.ChatMe.Assignment.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReactiveMongoAutoConfigurationFilterTest {
+
+    private static final String[] CANDIDATES = {
+            MongoAutoConfiguration.class.getName(),
+            MongoDataAutoConfiguration.class.getName(),
+            MongoReactiveAutoConfiguration.class.getName(),
+            MongoReactiveDataAutoConfiguration.class.getName(),
+            MongoReactiveRepositoriesAutoConfiguration.class.getName(),
+            null
+    };
+
+    @Test
+    void blockingStoreLeavesTheReactiveDriverOut() {
+        assertThat(filter(null).match(CANDIDATES, null)).containsExactly(true, true, false, false, false, true);
+        assertThat(filter("blocking").match(CANDIDATES, null)).containsExactly(true, true, false, false, false, true);
+    }
+
+    @Test
+    void reactiveStoreKeepsEverything() {
+        assertThat(filter("reactive").match(CANDIDATES, null)).containsExactly(true, true, true, true, true, true);
+    }
+
+    private static ReactiveMongoAutoConfigurationFilter filter(String store) {
+        MockEnvironment environment = new MockEnvironment();
+        if (store != null) {
+            environment.setProperty("chat.store", store);
+        }
+        ReactiveMongoAutoConfigurationFilter filter = new ReactiveMongoAutoConfigurationFilter();
+        filter.setEnvironment(environment);
+        return filter;
+    }
+}
@@ -0,0 +1,213 @@
+package com.ChatMe.Assignment.controller;
+
+import com.ChatMe.Assignment.model.ConversationSummary;
+import com.ChatMe.Assignment.model.Message;
+import com.ChatMe.Assignment.support.OfflineApplicationTest;
+import com.ChatMe.Assignment.support.TestFirebaseTokens;
+import com.ChatMe.Assignment.websocket.ConversationExecutor;
+import com.mongodb.reactivestreams.client.MongoClient;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChatRestControllerTest extends OfflineApplicationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ChatRestController chatRestController;
+
+    @Autowired
+    private ConversationExecutor conversationExecutor;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Test
+    void sendStoresMessage() {
+        ResponseEntity<Message> response = restTemplate.postForEntity("/api/chat/send",
+                Map.of("senderId", "alice", "receiverId", "bob", "message", "hello"), Message.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getSenderId()).isEqualTo("alice");
+        assertThat(response.getBody().getMessage()).isEqualTo("hello");
+        assertThat(response.getBody().getId()).isNotNull();
+    }
+
+    @Test
+    void sendWithoutReceiverIsBadRequest() {
+        ResponseEntity<String> response = restTemplate.postForEntity("/api/chat/send",
+                Map.of("senderId", "alice", "message", "hello"), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verify(messageRepository, never()).save(any(Message.class));
+    }
+
+    @Test
+    void sendAnswersServiceUnavailableWhenItsStripeIsStuck() throws Exception {
+        String senderId = "alice-" + UUID.randomUUID();
+        String conversationId = Message.createConversationId(senderId, "bob");
+        CountDownLatch release = new CountDownLatch(1);
+        conversationExecutor.execute(conversationId, () -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        ReflectionTestUtils.setField(chatRestController, "sendTimeoutMs", 200L);
+
+        try {
+            ResponseEntity<String> response = restTemplate.postForEntity("/api/chat/send",
+                    Map.of("senderId", senderId, "receiverId", "bob", "message", "hello"), String.class);
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        } finally {
+            ReflectionTestUtils.setField(chatRestController, "sendTimeoutMs", 10_000L);
+            release.countDown();
+            // Let the abandoned send finish before the repository mocks are reset
+            conversationExecutor.submit(conversationId, () -> null).get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void historyStreamsOneJsonMessagePerLine() {
+        when(messageRepository.streamConversation(Message.createConversationId("alice", "bob")))
+                .thenReturn(Stream.of(withId(new Message("alice", "bob", "first")), withId(new Message("bob", "alice", "second"))));
+
+        ResponseEntity<String> response = restTemplate.exchange("/api/chat/history/stream?user1=bob&user2=alice",
+                HttpMethod.GET, accepting(MediaType.APPLICATION_NDJSON), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType().isCompatibleWith(MediaType.APPLICATION_NDJSON)).isTrue();
+        assertThat(response.getBody().lines().toList())
+                .hasSize(2)
+                .satisfies(lines -> {
+                    assertThat(lines.get(0)).contains("\"message\":\"first\"");
+                    assertThat(lines.get(1)).contains("\"message\":\"second\"");
+                });
+    }
+
+    @Test
+    void historyStreamsServerSentEvents() {
+        Message message = withId(new Message("alice", "bob", "hello"));
+        when(messageRepository.streamConversation(message.getConversationId())).thenReturn(Stream.of(message));
+
+        ResponseEntity<String> response = restTemplate.exchange("/api/chat/history/stream?user1=alice&user2=bob",
+                HttpMethod.GET, accepting(MediaType.TEXT_EVENT_STREAM), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .contains("id:" + message.getId())
+                .contains("event:message")
+                .contains("\"message\":\"hello\"");
+    }
+
+    @Test
+    void blockingStoreStartsNoReactiveMongoClient() {
+        assertThat(applicationContext.getBeanNamesForType(MongoClient.class)).isEmpty();
+        assertThat(applicationContext.getBeanNamesForType(ReactiveMongoTemplate.class)).isEmpty();
+    }
+
+    @Test
+    void readReceiptIsAppliedForTheAuthenticatedReader() {
+        String bobId = "bob-" + UUID.randomUUID();
+        String conversationId = Message.createConversationId("alice", bobId);
+        when(conversationSummaryRepository.markRead(bobId, conversationId, null)).thenReturn(Optional.of(
+                new ConversationSummary(ConversationSummary.createId(bobId, conversationId), bobId, "alice",
+                        conversationId, "m1", "alice", "hello", LocalDateTime.now(), 0, LocalDateTime.now())));
+
+        ResponseEntity<ConversationSummary> response = restTemplate.exchange("/api/chat/read", HttpMethod.POST,
+                readReceipt(bobId, bobId), ConversationSummary.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getUnreadCount()).isZero();
+    }
+
+    @Test
+    void readReceiptWithoutTokenIsUnauthorized() {
+        ResponseEntity<String> response = restTemplate.postForEntity("/api/chat/read",
+                Map.of("readerId", "bob", "peerId", "alice"), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        verify(conversationSummaryRepository, never()).markRead(any(), any(), any());
+    }
+
+    @Test
+    void readReceiptForSomeoneElseIsForbidden() {
+        ResponseEntity<String> response = restTemplate.exchange("/api/chat/read", HttpMethod.POST,
+                readReceipt("mallory", "bob"), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        verify(conversationSummaryRepository, never()).markRead(any(), any(), any());
+    }
+
+    @Test
+    void readReceiptAnswersServiceUnavailableWhenItsStripeIsStuck() throws Exception {
+        String bobId = "bob-" + UUID.randomUUID();
+        String conversationId = Message.createConversationId("alice", bobId);
+        CountDownLatch release = new CountDownLatch(1);
+        conversationExecutor.execute(conversationId, () -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        ReflectionTestUtils.setField(chatRestController, "sendTimeoutMs", 200L);
+
+        try {
+            ResponseEntity<String> response = restTemplate.exchange("/api/chat/read", HttpMethod.POST,
+                    readReceipt(bobId, bobId), String.class);
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        } finally {
+            ReflectionTestUtils.setField(chatRestController, "sendTimeoutMs", 10_000L);
+            release.countDown();
+            conversationExecutor.submit(conversationId, () -> null).get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static HttpEntity<Map<String, String>> readReceipt(String uid, String readerId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(TestFirebaseTokens.tokenFor(uid));
+        return new HttpEntity<>(Map.of("readerId", readerId, "peerId", "alice"), headers);
+    }
+
+    private static HttpEntity<Void> accepting(MediaType mediaType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(mediaType));
+        return new HttpEntity<>(headers);
+    }
+
+    private static Message withId(Message message) {
+        message.setId(new ObjectId().toHexString());
+        return message;
+    }
+}
@@ -0,0 +1,74 @@
+package com.ChatMe.Assignment.controller;
+
+import com.ChatMe.Assignment.model.Message;
+import com.ChatMe.Assignment.support.OfflineApplicationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * A history that takes longer to stream than the async request timeout still arrives whole
+ */
+@TestPropertySource(properties = "spring.mvc.async.request-timeout=200ms")
+class HistoryStreamTimeoutTest extends OfflineApplicationTest {
+
+    private static final int MESSAGES = 8;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void ndjsonStreamOutlivesTheAsyncRequestTimeout() {
+        stubSlowHistory();
+
+        ResponseEntity<String> response = stream(MediaType.APPLICATION_NDJSON);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().lines()).hasSize(MESSAGES);
+    }
+
+    @Test
+    void eventStreamOutlivesTheAsyncRequestTimeout() {
+        stubSlowHistory();
+
+        ResponseEntity<String> response = stream(MediaType.TEXT_EVENT_STREAM);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().lines().filter(line -> line.startsWith("event:message"))).hasSize(MESSAGES);
+    }
+
+    // About 800 ms in all, four times the timeout
+    private void stubSlowHistory() {
+        when(messageRepository.streamConversation(Message.createConversationId("alice", "bob")))
+                .thenAnswer(invocation -> IntStream.range(0, MESSAGES).mapToObj(i -> {
+                    try {
+                        Thread.sleep(100);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    Message message = new Message("alice", "bob", "m" + i);
+                    message.setId("id-" + i);
+                    return message;
+                }));
+    }
+
+    private ResponseEntity<String> stream(MediaType mediaType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(mediaType));
+        return restTemplate.exchange("/api/chat/history/stream?user1=alice&user2=bob", HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+    }
+}
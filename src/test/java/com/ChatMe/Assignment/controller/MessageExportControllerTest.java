@@ -0,0 +1,106 @@
+package com.ChatMe.Assignment.controller;
+
+import com.ChatMe.Assignment.service.MessageExportService;
+import com.ChatMe.Assignment.support.OfflineApplicationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class MessageExportControllerTest extends OfflineApplicationTest {
+
+    private static final String EXPORT = "{\"message\":\"hello\"}\n";
+
+    @MockitoBean
+    private MessageExportService messageExportService;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Test
+    void sentMessagesAreExportedAsNdjson() throws Exception {
+        stubExport(MessageExportService.Direction.SENT);
+
+        HttpResponse<String> response = get("/api/chat/sent/alice/export?from=2026-01-01T00:00:00&to=2026-02-01T00:00:00", false);
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(type -> assertThat(type).startsWith("application/x-ndjson"));
+        assertThat(response.headers().firstValue("Content-Encoding")).isEmpty();
+        assertThat(response.body()).isEqualTo(EXPORT);
+        verify(messageExportService).export(eq(MessageExportService.Direction.SENT), eq("alice"),
+                eq(LocalDateTime.of(2026, 1, 1, 0, 0)), eq(LocalDateTime.of(2026, 2, 1, 0, 0)),
+                eq(MessageExportService.Format.NDJSON), any());
+    }
+
+    @Test
+    void receivedMessagesAreGzippedWhenTheClientAcceptsIt() throws Exception {
+        stubExport(MessageExportService.Direction.RECEIVED);
+
+        HttpResponse<byte[]> response = httpClient.send(request("/api/chat/received/bob/export?format=json", true),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(type -> assertThat(type).startsWith("application/json"));
+        assertThat(response.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            assertThat(new String(body.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(EXPORT);
+        }
+    }
+
+    @Test
+    void unknownFormatIsBadRequest() throws Exception {
+        assertThat(get("/api/chat/sent/alice/export?format=csv", false).statusCode()).isEqualTo(400);
+        verifyNoInteractions(messageExportService);
+    }
+
+    @Test
+    void emptyRangeIsBadRequest() throws Exception {
+        HttpResponse<String> response = get("/api/chat/sent/alice/export?from=2026-02-01T00:00:00&to=2026-01-01T00:00:00", false);
+
+        assertThat(response.statusCode()).isEqualTo(400);
+        verifyNoInteractions(messageExportService);
+    }
+
+    @Test
+    void failureBeforeTheFirstChunkIsServerError() throws Exception {
+        when(messageExportService.export(any(), any(), any(), any(), any(), any()))
+                .thenThrow(new IOException("cursor lost"));
+
+        assertThat(get("/api/chat/sent/alice/export", false).statusCode()).isEqualTo(500);
+    }
+
+    private void stubExport(MessageExportService.Direction direction) throws IOException {
+        when(messageExportService.export(eq(direction), any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(5);
+            out.write(EXPORT.getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+    }
+
+    private HttpResponse<String> get(String path, boolean gzip) throws Exception {
+        return httpClient.send(request(path, gzip), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest request(String path, boolean gzip) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+        if (gzip) {
+            request.header("Accept-Encoding", "gzip");
+        }
+        return request.build();
+    }
+}
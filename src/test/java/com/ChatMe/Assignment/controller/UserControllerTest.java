@@ -0,0 +1,113 @@
+package com.ChatMe.Assignment.controller;
+
+import com.ChatMe.Assignment.model.User;
+import com.ChatMe.Assignment.support.OfflineApplicationTest;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.data.mongodb.core.query.MongoRegexCreator;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserControllerTest extends OfflineApplicationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void newUserIsSavedWithOneUpsert() {
+        User user = user("user-" + UUID.randomUUID(), "Alice");
+
+        ResponseEntity<User> response = restTemplate.postForEntity("/api/users", user, User.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(user);
+        verify(userRepository, times(1)).upsertProfile(any(User.class));
+        // Only this user: connections left over from other tests may still be looking up their own profiles
+        verify(userRepository, never()).findById(user.getUid());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void unchangedProfileIsNotWrittenAgain() {
+        User user = user("user-" + UUID.randomUUID(), "Alice");
+
+        restTemplate.postForEntity("/api/users", user, User.class);
+        ResponseEntity<User> again = restTemplate.postForEntity("/api/users", user, User.class);
+
+        assertThat(again.getBody()).isEqualTo(user);
+        verify(userRepository, times(1)).upsertProfile(any(User.class));
+    }
+
+    @Test
+    void changedProfileIsUpdatedKeepingStoredFields() {
+        String uid = "user-" + UUID.randomUUID();
+        User stored = user(uid, "Alice");
+        stored.setEmail("first@example.com");
+        when(userRepository.upsertProfile(any(User.class))).thenReturn(Optional.of(stored));
+
+        User renamed = user(uid, "Alice Smith");
+        renamed.setEmail("second@example.com");
+        ResponseEntity<User> response = restTemplate.postForEntity("/api/users", renamed, User.class);
+
+        assertThat(response.getBody().getName()).isEqualTo("Alice Smith");
+        assertThat(response.getBody().getEmail()).isEqualTo("first@example.com");
+    }
+
+    @Test
+    void userWithoutUidIsBadRequest() {
+        ResponseEntity<User> response = restTemplate.postForEntity("/api/users", new User(), User.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verify(userRepository, never()).upsertProfile(any(User.class));
+    }
+
+    @Test
+    void searchFallsBackToTheDatabaseWithTheQueryAsTyped() {
+        // chat.users.search.enabled=false here, so the index never becomes ready
+        User alice = user("user-" + UUID.randomUUID(), "Alice");
+        when(userRepository.findByNameContainingIgnoreCaseAndUidNot("ali", "bob")).thenReturn(List.of(alice));
+
+        ResponseEntity<User[]> response = restTemplate.getForEntity("/api/users/search?query= ali &excludeUserId=bob", User[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).containsExactly(alice);
+        assertThat(response.getHeaders().getFirst("X-Total-Count")).isEqualTo("1");
+    }
+
+    @Test
+    void databaseSearchPassesPunctuationThroughForSpringDataToQuote() {
+        when(userRepository.findByNameContainingIgnoreCase(any())).thenReturn(List.of());
+
+        restTemplate.getForEntity("/api/users/search?query={query}", User[].class, "o'brien (jr.)");
+
+        ArgumentCaptor<String> name = ArgumentCaptor.forClass(String.class);
+        verify(userRepository).findByNameContainingIgnoreCase(name.capture());
+        assertThat(name.getValue()).isEqualTo("o'brien (jr.)");
+        // What the derived query turns it into still matches the name literally
+        String regex = MongoRegexCreator.INSTANCE.toRegularExpression(name.getValue(), MongoRegexCreator.MatchMode.CONTAINING);
+        assertThat(Pattern.compile(regex, Pattern.CASE_INSENSITIVE).matcher("Pat O'Brien (Jr.)").matches()).isTrue();
+    }
+
+    private static User user(String uid, String name) {
+        User user = new User();
+        user.setUid(uid);
+        user.setName(name);
+        user.setPhotoURL("https://example.com/" + uid + ".png");
+        user.setProvider("google.com");
+        return user;
+    }
+}
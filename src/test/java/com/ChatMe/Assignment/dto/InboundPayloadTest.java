@@ -0,0 +1,72 @@
+package com.ChatMe.Assignment.dto;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InboundPayloadTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void chatMessageIsReadIntoRecord() throws Exception {
+        ChatMessageRequest request = objectMapper.readValue(
+                "{\"senderId\":\"alice\",\"receiverId\":\"bob\",\"message\":\"hi\",\"senderName\":\"Alice\"}",
+                ChatMessageRequest.class);
+
+        assertThat(request).isEqualTo(new ChatMessageRequest("alice", "bob", "hi", "Alice"));
+    }
+
+    @Test
+    void chatMessageWithoutParticipantsIsRejected() {
+        assertThatThrownBy(() -> objectMapper.readValue("{\"senderId\":\"alice\",\"message\":\"hi\"}", ChatMessageRequest.class))
+                .isInstanceOf(JsonMappingException.class)
+                .hasMessageContaining("receiverId is required");
+        assertThatThrownBy(() -> objectMapper.readValue("{\"senderId\":\" \",\"receiverId\":\"bob\",\"message\":\"hi\"}", ChatMessageRequest.class))
+                .isInstanceOf(JsonMappingException.class)
+                .hasMessageContaining("senderId is required");
+    }
+
+    @Test
+    void chatMessageWithoutTextIsRejected() {
+        assertThatThrownBy(() -> objectMapper.readValue("{\"senderId\":\"alice\",\"receiverId\":\"bob\"}", ChatMessageRequest.class))
+                .isInstanceOf(JsonMappingException.class)
+                .hasMessageContaining("message is required");
+    }
+
+    @Test
+    void typingAcceptsBooleanAndString() throws Exception {
+        TypingRequest asBoolean = objectMapper.readValue(
+                "{\"senderId\":\"alice\",\"receiverId\":\"bob\",\"isTyping\":true}", TypingRequest.class);
+        TypingRequest asString = objectMapper.readValue(
+                "{\"senderId\":\"alice\",\"receiverId\":\"bob\",\"isTyping\":\"true\"}", TypingRequest.class);
+        TypingRequest stopped = objectMapper.readValue(
+                "{\"senderId\":\"alice\",\"receiverId\":\"bob\",\"isTyping\":\"false\"}", TypingRequest.class);
+
+        assertThat(asBoolean.isTyping()).isTrue();
+        assertThat(asString.isTyping()).isTrue();
+        assertThat(stopped.isTyping()).isFalse();
+    }
+
+    @Test
+    void statusRequiresUserAndStatus() {
+        assertThatThrownBy(() -> objectMapper.readValue("{\"userId\":\"alice\"}", StatusRequest.class))
+                .isInstanceOf(JsonMappingException.class)
+                .hasMessageContaining("status is required");
+    }
+
+    @Test
+    void presenceWatchWithoutUsersIsEmpty() throws Exception {
+        PresenceWatchRequest request = objectMapper.readValue("{}", PresenceWatchRequest.class);
+
+        assertThat(request.userIds()).isEmpty();
+        assertThatThrownBy(() -> objectMapper.readValue("{\"userIds\":[\"alice\"]}", PresenceWatchRequest.class).userIds().add("bob"))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThat(objectMapper.readValue("{\"userIds\":[\"alice\"]}", PresenceWatchRequest.class).userIds()).isEqualTo(List.of("alice"));
+    }
+}
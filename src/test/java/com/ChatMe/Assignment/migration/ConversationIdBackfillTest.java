@@ -0,0 +1,84 @@
+package com.ChatMe.Assignment.migration;
+
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ConversationIdBackfillTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations bulk = mock(BulkOperations.class);
+
+    @Test
+    void setsConversationIdInBatches() {
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("messages"))).thenReturn(Stream.of(
+                message(1, "bob", "alice"),
+                message(2, "alice", "bob"),
+                message(3, null, "bob"),
+                message(4, "carol", "alice")));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "messages")).thenReturn(bulk);
+        BulkWriteResult result = mock(BulkWriteResult.class);
+        when(result.getModifiedCount()).thenReturn(2, 1);
+        when(bulk.execute()).thenReturn(result);
+
+        backfill(true, 2).backfill();
+
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(3)).updateOne(any(Query.class), updates.capture());
+        assertThat(updates.getAllValues())
+                .extracting(update -> update.getUpdateObject().get("$set", Document.class).getString("conversationId"))
+                .containsExactly("alice_bob", "alice_bob", "alice_carol");
+        // One full batch of two and the remainder
+        verify(bulk, times(2)).execute();
+    }
+
+    @Test
+    void onlyReadsMessagesWithoutConversationId() {
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("messages"))).thenReturn(Stream.empty());
+
+        backfill(true, 10).backfill();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(query.capture(), eq(Document.class), eq("messages"));
+        assertThat(query.getValue().getQueryObject().get("conversationId", Document.class))
+                .isEqualTo(new Document("$exists", false));
+    }
+
+    @Test
+    void disabledBackfillDoesNothing() {
+        backfill(false, 10).backfill();
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    private ConversationIdBackfill backfill(boolean enabled, int batchSize) {
+        ConversationIdBackfill backfill = new ConversationIdBackfill(mongoTemplate);
+        ReflectionTestUtils.setField(backfill, "enabled", enabled);
+        ReflectionTestUtils.setField(backfill, "batchSize", batchSize);
+        return backfill;
+    }
+
+    private static Document message(int id, String senderId, String receiverId) {
+        Document document = new Document("_id", id);
+        document.put("senderId", senderId);
+        document.put("receiverId", receiverId);
+        return document;
+    }
+}
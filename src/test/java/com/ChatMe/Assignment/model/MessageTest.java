@@ -0,0 +1,23 @@
+package com.ChatMe.Assignment.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MessageTest {
+
+    @Test
+    void conversationIdIsTheSameForBothDirections() {
+        assertThat(Message.createConversationId("alice", "bob")).isEqualTo("alice_bob");
+        assertThat(Message.createConversationId("bob", "alice")).isEqualTo("alice_bob");
+    }
+
+    @Test
+    void newMessageCarriesItsConversationId() {
+        Message message = new Message("bob", "alice", "hello");
+
+        assertThat(message.getConversationId()).isEqualTo("alice_bob");
+        assertThat(message.getId()).isNull();
+        assertThat(message.getTimestamp()).isNotNull();
+    }
+}
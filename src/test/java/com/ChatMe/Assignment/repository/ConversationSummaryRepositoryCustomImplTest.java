@@ -0,0 +1,95 @@
+package com.ChatMe.Assignment.repository;
+
+import com.ChatMe.Assignment.model.ConversationSummary;
+import com.ChatMe.Assignment.model.Message;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConversationSummaryRepositoryCustomImplTest {
+
+    private static final LocalDateTime SENT_AT = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations bulk = mock(BulkOperations.class);
+    private final ConversationSummaryRepositoryCustomImpl repository = new ConversationSummaryRepositoryCustomImpl(mongoTemplate);
+
+    @BeforeEach
+    void stubBulk() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, ConversationSummary.class)).thenReturn(bulk);
+    }
+
+    @Test
+    void bothSummariesAreUpsertedWithoutCountingUnread() {
+        repository.recordMessages(List.of(message("alice", "bob")));
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(2)).upsert(queries.capture(), updates.capture());
+        verify(bulk).execute();
+
+        String conversationId = Message.createConversationId("alice", "bob");
+        assertThat(queries.getAllValues()).extracting(Query::getQueryObject).containsExactly(
+                new Document("_id", ConversationSummary.createId("alice", conversationId)),
+                new Document("_id", ConversationSummary.createId("bob", conversationId)));
+        for (Update update : updates.getAllValues()) {
+            assertThat(update.getUpdateObject().get("$set", Document.class)).containsEntry("lastMessage", "hello");
+            assertThat(update.getUpdateObject().get("$setOnInsert", Document.class)).containsEntry("unreadCount", 0L);
+            assertThat(update.getUpdateObject()).doesNotContainKey("$inc");
+        }
+    }
+
+    @Test
+    void receiverUnreadCountSkipsMessagesAlreadyReadPast() {
+        repository.recordMessages(List.of(message("alice", "bob")));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulk).updateOne(query.capture(), update.capture());
+
+        // A read receipt that overtook the write-behind flush already covers this message
+        assertThat(query.getValue().getQueryObject())
+                .containsEntry("_id", ConversationSummary.createId("bob", Message.createConversationId("alice", "bob")))
+                .containsEntry("lastReadAt", new Document("$not", new Document("$gte", SENT_AT)));
+        assertThat(update.getValue().getUpdateObject()).isEqualTo(new Document("$inc", new Document("unreadCount", 1L)));
+    }
+
+    @Test
+    void noteToSelfIsNeverUnread() {
+        repository.recordMessages(List.of(message("alice", "alice")));
+
+        verify(bulk, times(1)).upsert(any(Query.class), any(Update.class));
+        verify(bulk, never()).updateOne(any(Query.class), any(Update.class));
+    }
+
+    @Test
+    void emptyBatchIsNotWritten() {
+        repository.recordMessages(List.of());
+
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(ConversationSummary.class));
+    }
+
+    private static Message message(String senderId, String receiverId) {
+        Message message = new Message(senderId, receiverId, "hello");
+        message.setId("m-" + senderId + "-" + receiverId);
+        message.setTimestamp(SENT_AT);
+        return message;
+    }
+}
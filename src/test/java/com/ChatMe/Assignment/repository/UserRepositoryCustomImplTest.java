@@ -0,0 +1,69 @@
+package com.ChatMe.Assignment.repository;
+
+import com.ChatMe.Assignment.model.User;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserRepositoryCustomImplTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final UserRepositoryCustomImpl repository = new UserRepositoryCustomImpl(mongoTemplate);
+
+    @Test
+    void profileIsUpsertedInOneFindAndModify() {
+        repository.upsertProfile(user("alice", "Alice", "alice@example.com"));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), options.capture(), eq(User.class));
+
+        assertThat(query.getValue().getQueryObject()).isEqualTo(new Document("uid", "alice"));
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class))
+                .containsEntry("name", "Alice")
+                .containsEntry("photoURL", "https://example.com/alice.png")
+                .containsEntry("provider", "google.com")
+                .doesNotContainKey("email");
+        // The email of an existing account is never overwritten
+        assertThat(update.getValue().getUpdateObject().get("$setOnInsert", Document.class))
+                .isEqualTo(new Document("email", "alice@example.com"));
+        assertThat(options.getValue().isUpsert()).isTrue();
+        assertThat(options.getValue().isReturnNew()).isFalse();
+    }
+
+    @Test
+    void previousProfileIsReturned() {
+        User previous = user("alice", "Old Alice", "alice@example.com");
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(User.class)))
+                .thenReturn(previous);
+
+        assertThat(repository.upsertProfile(user("alice", "Alice", "alice@example.com"))).containsSame(previous);
+    }
+
+    @Test
+    void newUserHasNoPreviousProfile() {
+        assertThat(repository.upsertProfile(user("bob", "Bob", "bob@example.com"))).isEmpty();
+    }
+
+    private static User user(String uid, String name, String email) {
+        User user = new User();
+        user.setUid(uid);
+        user.setName(name);
+        user.setEmail(email);
+        user.setPhotoURL("https://example.com/" + uid + ".png");
+        user.setProvider("google.com");
+        return user;
+    }
+}
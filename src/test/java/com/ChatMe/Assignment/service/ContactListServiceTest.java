@@ -0,0 +1,142 @@
+package com.ChatMe.Assignment.service;
+
+import com.ChatMe.Assignment.model.Contact;
+import com.ChatMe.Assignment.model.ContactPage;
+import com.ChatMe.Assignment.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ContactListServiceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private ContactListService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ContactListService(mongoTemplate, new ObjectMapper());
+        ReflectionTestUtils.setField(service, "cacheEnabled", true);
+        ReflectionTestUtils.setField(service, "maxCachedContacts", 100);
+    }
+
+    @Test
+    void pagesForEveryUserAreCutFromOneLoadedList() throws Exception {
+        storeUsers(user("c", "Carol"), user("a", "Alice"), user("b", "Bob"), user("d", "Dave"));
+
+        ContactPage forAlice = service.getPage("a", 0, 2).page();
+        ContactPage forBob = service.getPage("b", 0, 2).page();
+        ContactPage forAnyone = service.getPage(null, 1, 2).page();
+
+        assertThat(uids(forAlice)).containsExactly("b", "c");
+        assertThat(uids(forBob)).containsExactly("a", "c");
+        assertThat(uids(forAnyone)).containsExactly("c", "d");
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(User.class));
+        assertThat(service.getStats()).containsEntry("hits", 2L).containsEntry("misses", 1L);
+    }
+
+    @Test
+    void excludedUserIsNotCountedOrPaged() throws Exception {
+        storeUsers(user("a", "Alice"), user("b", "Bob"), user("c", "Carol"), user("d", "Dave"));
+
+        ContactPage first = service.getPage("b", 0, 2).page();
+        ContactPage second = service.getPage("b", 1, 2).page();
+        ContactPage beyond = service.getPage("b", 5, 2).page();
+
+        assertThat(first.getTotal()).isEqualTo(3);
+        assertThat(first.isHasNext()).isTrue();
+        assertThat(uids(second)).containsExactly("d");
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(beyond.getContacts()).isEmpty();
+        assertThat(service.getPage("unknown", 0, 10).page().getTotal()).isEqualTo(4);
+    }
+
+    @Test
+    void savedUsersAreAppliedWithoutReloading() throws Exception {
+        storeUsers(user("a", "Alice"), user("b", "Bob"), user("c", "Carol"));
+        service.getPage(null, 0, 10);
+
+        service.update(user("n", "Nina"));
+        service.update(user("a", "Zoe"));
+
+        ContactPage page = service.getPage(null, 0, 10).page();
+        assertThat(uids(page)).containsExactly("b", "c", "n", "a");
+        assertThat(page.getContacts().get(3).getName()).isEqualTo("Zoe");
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(User.class));
+    }
+
+    @Test
+    void usersWithoutNameSortFirst() throws Exception {
+        storeUsers(user("b", "Bob"), user("x", null));
+        service.getPage(null, 0, 10);
+        service.update(user("y", null));
+
+        assertThat(uids(service.getPage(null, 0, 10).page())).containsExactly("x", "y", "b");
+    }
+
+    @Test
+    void listLoadedWhileAUserIsSavedIsNotCached() throws Exception {
+        when(mongoTemplate.count(any(Query.class), eq(User.class))).thenReturn(1L);
+        when(mongoTemplate.find(any(Query.class), eq(User.class))).thenAnswer(invocation -> {
+            service.update(user("b", "Bob"));
+            return List.of(user("a", "Alice"));
+        });
+
+        service.getPage(null, 0, 10);
+        service.getPage(null, 0, 10);
+
+        verify(mongoTemplate, times(2)).find(any(Query.class), eq(User.class));
+    }
+
+    @Test
+    void largeUserBasesArePagedInTheDatabase() throws Exception {
+        ReflectionTestUtils.setField(service, "maxCachedContacts", 2);
+        storeUsers(user("a", "Alice"), user("b", "Bob"), user("c", "Carol"));
+
+        ContactPage page = service.getPage("a", 0, 2).page();
+
+        // The mocked query returns every stored user; only the count comes from the filter
+        assertThat(page.getTotal()).isEqualTo(3);
+        assertThat(service.getStats()).containsEntry("cachedContacts", 0);
+    }
+
+    @Test
+    void etagFollowsPageContent() throws Exception {
+        storeUsers(user("a", "Alice"), user("b", "Bob"));
+
+        String etag = service.getPage(null, 0, 10).etag();
+        assertThat(service.getPage(null, 0, 10).etag()).isEqualTo(etag);
+
+        service.update(user("b", "Bobby"));
+        assertThat(service.getPage(null, 0, 10).etag()).isNotEqualTo(etag);
+    }
+
+    private void storeUsers(User... users) {
+        when(mongoTemplate.count(any(Query.class), eq(User.class))).thenReturn((long) users.length);
+        when(mongoTemplate.find(any(Query.class), eq(User.class))).thenReturn(Arrays.asList(users));
+    }
+
+    private static List<String> uids(ContactPage page) {
+        return page.getContacts().stream().map(Contact::getUid).toList();
+    }
+
+    private static User user(String uid, String name) {
+        User user = new User();
+        user.setUid(uid);
+        user.setName(name);
+        return user;
+    }
+}
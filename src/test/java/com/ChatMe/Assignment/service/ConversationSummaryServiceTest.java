@@ -0,0 +1,195 @@
+package com.ChatMe.Assignment.service;
+
+import com.ChatMe.Assignment.event.MessagesPersistedEvent;
+import com.ChatMe.Assignment.event.MessagesReadEvent;
+import com.ChatMe.Assignment.model.ConversationSummary;
+import com.ChatMe.Assignment.model.Message;
+import com.ChatMe.Assignment.repository.ConversationSummaryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConversationSummaryServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private final ConversationSummaryRepository summaryRepository = mock(ConversationSummaryRepository.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+    private ConversationSummaryService service;
+
+    @BeforeEach
+    void createService() {
+        service = new ConversationSummaryService(summaryRepository, eventPublisher);
+        ReflectionTestUtils.setField(service, "cacheEnabled", true);
+        ReflectionTestUtils.setField(service, "maxUsers", 100);
+        ReflectionTestUtils.setField(service, "maxConversations", 10);
+        when(summaryRepository.findByUserIdOrderByLastTimestampDesc(any(), any())).thenReturn(List.of());
+    }
+
+    @Test
+    void inboxIsCachedAfterTheFirstLoad() {
+        service.getInbox("bob", 10);
+        service.getInbox("bob", 10);
+
+        verify(summaryRepository, times(1)).findByUserIdOrderByLastTimestampDesc("bob", Limit.of(10));
+        assertThat(service.getStats()).containsEntry("hits", 1L).containsEntry("misses", 1L);
+    }
+
+    @Test
+    void inboxIsNotCachedWhileMessagesAreQueued() {
+        Message queued = message("alice", "bob", 1);
+        service.recordPendingMessage(queued);
+
+        // The stored summaries don't show the queued message yet
+        service.getInbox("bob", 10);
+        service.getInbox("bob", 10);
+        verify(summaryRepository, times(2)).findByUserIdOrderByLastTimestampDesc("bob", Limit.of(10));
+
+        service.handleMessagesPersisted(new MessagesPersistedEvent(this, List.of(queued), List.of()));
+        service.getInbox("bob", 10);
+        service.getInbox("bob", 10);
+        verify(summaryRepository, times(3)).findByUserIdOrderByLastTimestampDesc("bob", Limit.of(10));
+    }
+
+    @Test
+    void failedMessagesNoLongerHoldBackTheCache() {
+        Message queued = message("alice", "bob", 1);
+        service.recordPendingMessage(queued);
+        service.handleMessagesPersisted(new MessagesPersistedEvent(this, List.of(), List.of(queued)));
+
+        service.getInbox("alice", 10);
+        service.getInbox("alice", 10);
+
+        verify(summaryRepository, times(1)).findByUserIdOrderByLastTimestampDesc("alice", Limit.of(10));
+    }
+
+    @Test
+    void flushReportedBeforeTheQueuedMessageIsCountedEvensOut() {
+        Message queued = message("alice", "bob", 1);
+        service.handleMessagesPersisted(new MessagesPersistedEvent(this, List.of(queued), List.of()));
+        service.recordPendingMessage(queued);
+
+        service.getInbox("bob", 10);
+        service.getInbox("bob", 10);
+
+        verify(summaryRepository, times(1)).findByUserIdOrderByLastTimestampDesc("bob", Limit.of(10));
+    }
+
+    @Test
+    void loadRacingWithAFlushIsNotCached() {
+        Message queued = message("alice", "bob", 1);
+        service.recordPendingMessage(queued);
+        when(summaryRepository.findByUserIdOrderByLastTimestampDesc(eq("bob"), any())).thenAnswer(invocation -> {
+            // The batch is committed while the inbox is being read
+            service.handleMessagesPersisted(new MessagesPersistedEvent(this, List.of(queued), List.of()));
+            return List.of();
+        });
+
+        service.getInbox("bob", 10);
+
+        assertThat(service.getStats()).containsEntry("cachedInboxes", 0);
+    }
+
+    @Test
+    void queuedMessageIsCountedInACachedInboxAndReadResetsIt() {
+        service.getInbox("bob", 10);
+        Message queued = message("alice", "bob", 1);
+        service.recordPendingMessage(queued);
+
+        assertThat(service.getInbox("bob", 10)).singleElement()
+                .satisfies(summary -> assertThat(summary.getUnreadCount()).isEqualTo(1));
+
+        ConversationSummary read = summary("bob", "alice", 0, START.plusSeconds(1));
+        when(summaryRepository.markRead("bob", queued.getConversationId(), START.plusSeconds(1))).thenReturn(Optional.of(read));
+        service.markRead("bob", "alice", START.plusSeconds(1));
+
+        assertThat(service.getInbox("bob", 10)).singleElement().satisfies(summary -> {
+            assertThat(summary.getUnreadCount()).isZero();
+            assertThat(summary.getLastMessage()).isEqualTo("m1");
+        });
+        verify(eventPublisher).publishEvent(any(MessagesReadEvent.class));
+    }
+
+    @Test
+    void inboxesAreEvictedPerSegment() {
+        // One inbox per segment
+        ReflectionTestUtils.setField(service, "maxUsers", 16);
+        List<String> users = usersInOneSegment(2);
+
+        service.getInbox(users.get(0), 10);
+        service.getInbox(users.get(1), 10);
+
+        assertThat(service.getStats()).containsEntry("cachedInboxes", 1).containsEntry("evictions", 1L);
+    }
+
+    @Test
+    void concurrentMessagesAreAllCountedInTheCachedInbox() throws Exception {
+        service.getInbox("bob", 10);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> senders = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                senders.add(pool.submit(() -> {
+                    for (int i = 0; i < 250; i++) {
+                        // Both directions, so the two participants' segments are locked in either order
+                        service.recordMessage(message("alice", "bob", i));
+                        service.recordMessage(message("bob", "alice", i));
+                    }
+                }));
+            }
+            for (Future<?> sender : senders) {
+                sender.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(service.getInbox("bob", 10)).singleElement()
+                .satisfies(summary -> assertThat(summary.getUnreadCount()).isEqualTo(2000));
+    }
+
+    // Users whose stripes fall into the same segment (16 segments over 1024 stripes)
+    private static List<String> usersInOneSegment(int count) {
+        List<String> users = new ArrayList<>();
+        for (int i = 0; users.size() < count; i++) {
+            String userId = "u" + i;
+            if ((userId.hashCode() & 0x7fffffff) % 1024 % 16 == 0) {
+                users.add(userId);
+            }
+        }
+        return users;
+    }
+
+    private static Message message(String senderId, String receiverId, int n) {
+        Message message = new Message(senderId, receiverId, "m" + n);
+        message.setId("id-" + n);
+        message.setTimestamp(START.plusSeconds(n));
+        return message;
+    }
+
+    private static ConversationSummary summary(String userId, String peerId, long unread, LocalDateTime lastReadAt) {
+        String conversationId = Message.createConversationId(userId, peerId);
+        return new ConversationSummary(ConversationSummary.createId(userId, conversationId), userId, peerId,
+                conversationId, "id-0", peerId, "m0", START, unread, lastReadAt);
+    }
+}
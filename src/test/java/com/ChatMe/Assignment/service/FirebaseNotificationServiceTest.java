@@ -0,0 +1,215 @@
+package com.ChatMe.Assignment.service;
+
+import com.ChatMe.Assignment.config.ExecutionModeConfig;
+import com.ChatMe.Assignment.support.NotificationFunctionStub;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FirebaseNotificationServiceTest {
+
+    private final SimpUserRegistry userRegistry = mock(SimpUserRegistry.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private NotificationFunctionStub function;
+    private FirebaseNotificationService notificationService;
+
+    @BeforeEach
+    void startFunction() throws Exception {
+        function = new NotificationFunctionStub();
+    }
+
+    @AfterEach
+    void stop() {
+        if (notificationService != null) {
+            notificationService.stop();
+        }
+        function.close();
+    }
+
+    @Test
+    void callerDoesNotWaitForTheFunction() throws Exception {
+        start(Map.of());
+        CountDownLatch release = function.hold();
+
+        long startedAt = System.nanoTime();
+        notificationService.sendPushNotification("bob", "alice", "hello", "Alice");
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt)).isLessThan(500);
+
+        Map<String, Object> request = function.nextRequest(5, TimeUnit.SECONDS);
+        assertThat(request).containsEntry("receiverId", "bob").containsEntry("senderId", "alice")
+                .containsEntry("message", "hello").containsEntry("senderName", "Alice").containsEntry("count", 1);
+
+        release.countDown();
+        await().atMost(5, TimeUnit.SECONDS).until(() -> stat("sent").equals(1L));
+    }
+
+    @Test
+    void serverErrorsAreRetried() throws Exception {
+        start(Map.of("maxAttempts", 3));
+        function.respondWith(503, 500);
+
+        notificationService.sendPushNotification("bob", "alice", "hello", null);
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            assertThat(function.nextRequest(5, TimeUnit.SECONDS)).containsEntry("senderName", "alice");
+        }
+        await().atMost(5, TimeUnit.SECONDS).until(() -> stat("sent").equals(1L));
+        assertThat(stat("retries")).isEqualTo(2L);
+    }
+
+    @Test
+    void clientErrorsAreNotRetried() throws Exception {
+        start(Map.of("maxAttempts", 3));
+        function.respondWith(400);
+
+        notificationService.sendPushNotification("bob", "alice", "hello", "Alice");
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> stat("failed").equals(1L));
+        assertThat(function.nextRequest(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(function.nextRequest(300, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(stat("retries")).isEqualTo(0L);
+    }
+
+    @Test
+    void onlineReceiversGetNoPush() throws Exception {
+        start(Map.of());
+        when(userRegistry.getUser("bob")).thenReturn(mock(SimpUser.class));
+
+        notificationService.sendPushNotification("bob", "alice", "hello", "Alice");
+
+        assertThat(stat("skippedOnline")).isEqualTo(1L);
+        assertThat(function.nextRequest(300, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void fullQueueDropsNotificationsInsteadOfBlocking() throws Exception {
+        start(Map.of("workers", 1, "queueCapacity", 1, "overflowPolicy", "drop-newest"));
+        CountDownLatch release = function.hold();
+
+        notificationService.sendPushNotification("bob", "alice", "1", "Alice");
+        // The only worker is now busy with the first notification
+        assertThat(function.nextRequest(5, TimeUnit.SECONDS)).isNotNull();
+        notificationService.sendPushNotification("carol", "alice", "2", "Alice");
+        notificationService.sendPushNotification("dave", "alice", "3", "Alice");
+
+        assertThat(stat("dropped")).isEqualTo(1L);
+        release.countDown();
+        assertThat(function.nextRequest(5, TimeUnit.SECONDS)).containsEntry("receiverId", "carol");
+    }
+
+    @Test
+    void fullQueueDropsOldestByDefault() throws Exception {
+        start(Map.of("workers", 1, "queueCapacity", 1));
+        CountDownLatch release = function.hold();
+
+        notificationService.sendPushNotification("bob", "alice", "1", "Alice");
+        assertThat(function.nextRequest(5, TimeUnit.SECONDS)).isNotNull();
+        notificationService.sendPushNotification("carol", "alice", "2", "Alice");
+        notificationService.sendPushNotification("dave", "alice", "3", "Alice");
+
+        assertThat(stat("dropped")).isEqualTo(1L);
+        release.countDown();
+        assertThat(function.nextRequest(5, TimeUnit.SECONDS)).containsEntry("receiverId", "dave");
+    }
+
+    @Test
+    void burstForOneReceiverIsSentAsOneNotification() throws Exception {
+        start(Map.of("coalesceWindowMs", 300L));
+
+        notificationService.sendPushNotification("bob", "alice", "one", "Alice");
+        notificationService.sendPushNotification("bob", "carol", "two", "Carol");
+        notificationService.sendPushNotification("bob", "alice", "three", "Alice");
+        notificationService.sendPushNotification("dave", "alice", "hi dave", "Alice");
+
+        Map<String, Map<String, Object>> byReceiver = new HashMap<>();
+        for (int i = 0; i < 2; i++) {
+            Map<String, Object> request = function.nextRequest(5, TimeUnit.SECONDS);
+            byReceiver.put((String) request.get("receiverId"), request);
+        }
+
+        assertThat(byReceiver.get("bob")).containsEntry("count", 3).containsEntry("senderId", "alice")
+                .containsEntry("senderName", "Alice, Carol").containsEntry("message", "3 new messages from Alice, Carol");
+        // A single message keeps its own text
+        assertThat(byReceiver.get("dave")).containsEntry("count", 1).containsEntry("message", "hi dave");
+        assertThat(function.nextRequest(500, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(stat("coalesced")).isEqualTo(2L);
+    }
+
+    @Test
+    void notificationsAfterTheWindowStartANewOne() throws Exception {
+        start(Map.of("coalesceWindowMs", 100L));
+
+        notificationService.sendPushNotification("bob", "alice", "one", "Alice");
+        assertThat(function.nextRequest(5, TimeUnit.SECONDS)).containsEntry("message", "one");
+
+        notificationService.sendPushNotification("bob", "alice", "two", "Alice");
+        assertThat(function.nextRequest(5, TimeUnit.SECONDS)).containsEntry("message", "two");
+        assertThat(stat("coalesced")).isEqualTo(0L);
+    }
+
+    @Test
+    void stopSendsNotificationsStillInTheirWindow() throws Exception {
+        start(Map.of("coalesceWindowMs", 60_000L));
+
+        notificationService.sendPushNotification("bob", "alice", "one", "Alice");
+        notificationService.sendPushNotification("bob", "alice", "two", "Alice");
+        notificationService.stop();
+        notificationService = null;
+
+        assertThat(function.nextRequest(5, TimeUnit.SECONDS)).containsEntry("count", 2);
+    }
+
+    private Object stat(String name) {
+        return notificationService.getStats().get(name);
+    }
+
+    @Test
+    void deliveriesAreTimedPerOutcome() throws Exception {
+        start(Map.of());
+        function.respondWith(200, 400);
+        Timer success = meterRegistry.get("chat.notifications.delivery").tag("outcome", "success").timer();
+        Timer failure = meterRegistry.get("chat.notifications.delivery").tag("outcome", "failure").timer();
+
+        notificationService.sendPushNotification("bob", "alice", "hello", "Alice");
+        await().atMost(5, TimeUnit.SECONDS).until(() -> success.count() == 1);
+        notificationService.sendPushNotification("carol", "alice", "hello", "Alice");
+        await().atMost(5, TimeUnit.SECONDS).until(() -> failure.count() == 1);
+
+        assertThat(meterRegistry.get("chat.notifications.delivery").timers()).hasSize(2);
+    }
+
+    /**
+     * Start the dispatcher against the stub, without coalescing unless a window is given
+     */
+    private void start(Map<String, Object> settings) {
+        notificationService = new FirebaseNotificationService(userRegistry, meterRegistry, new ExecutionModeConfig());
+        ReflectionTestUtils.setField(notificationService, "firebaseFunctionsBaseUrl", function.baseUrl());
+        ReflectionTestUtils.setField(notificationService, "workers", 2);
+        ReflectionTestUtils.setField(notificationService, "queueCapacity", 100);
+        ReflectionTestUtils.setField(notificationService, "overflowPolicy", "drop-oldest");
+        ReflectionTestUtils.setField(notificationService, "maxAttempts", 1);
+        ReflectionTestUtils.setField(notificationService, "backoffMs", 10L);
+        ReflectionTestUtils.setField(notificationService, "coalesceWindowMs", 0L);
+        ReflectionTestUtils.setField(notificationService, "skipOnlineReceivers", true);
+        ReflectionTestUtils.setField(notificationService, "connectTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(notificationService, "readTimeoutMs", 15000L);
+        settings.forEach((field, value) -> ReflectionTestUtils.setField(notificationService, field, value));
+        notificationService.start();
+    }
+}
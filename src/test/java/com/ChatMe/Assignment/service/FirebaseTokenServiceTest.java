@@ -0,0 +1,124 @@
+package com.ChatMe.Assignment.service;
+
+import com.ChatMe.Assignment.support.TestFirebaseTokens;
+import com.google.firebase.auth.AuthErrorCode;
+import com.google.firebase.auth.FirebaseAuthException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FirebaseTokenServiceTest {
+
+    private final AtomicInteger verifications = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private Instant expiresAt = Instant.now().plusSeconds(3600);
+    private FirebaseTokenService tokenService;
+
+    @BeforeEach
+    void createService() {
+        FirebaseTokenVerifier verifier = TestFirebaseTokens.verifier();
+        tokenService = new FirebaseTokenService(idToken -> {
+            verifications.incrementAndGet();
+            // Let the test token decide the uid, and the test the expiry
+            return TestFirebaseTokens.decoded(verifier.verifyIdToken(idToken).getUid(), expiresAt);
+        }, meterRegistry);
+        ReflectionTestUtils.setField(tokenService, "cacheEnabled", true);
+        ReflectionTestUtils.setField(tokenService, "cacheMaxSize", 100);
+        ReflectionTestUtils.setField(tokenService, "cacheMaxTtlSeconds", 3600L);
+        tokenService.registerMetrics();
+    }
+
+    @Test
+    void verifiedTokenIsServedFromCache() throws Exception {
+        String token = TestFirebaseTokens.tokenFor("alice");
+
+        assertThat(tokenService.verifyToken(token).getUid()).isEqualTo("alice");
+        assertThat(tokenService.verifyToken(token).getUid()).isEqualTo("alice");
+
+        assertThat(verifications).hasValue(1);
+        assertThat(tokenService.getCacheStats()).containsEntry("hits", 1L).containsEntry("misses", 1L);
+    }
+
+    @Test
+    void expiredTokenIsNotCached() throws Exception {
+        expiresAt = Instant.now().minusSeconds(1);
+        String token = TestFirebaseTokens.tokenFor("alice");
+
+        tokenService.verifyToken(token);
+        tokenService.verifyToken(token);
+
+        assertThat(verifications).hasValue(2);
+        assertThat(tokenService.getCacheStats()).containsEntry("size", 0);
+    }
+
+    @Test
+    void invalidTokenIsRejectedEveryTime() {
+        assertThatThrownBy(() -> tokenService.verifyToken("forged")).isInstanceOf(FirebaseAuthException.class);
+        assertThatThrownBy(() -> tokenService.verifyToken("forged")).isInstanceOf(FirebaseAuthException.class);
+
+        assertThat(verifications).hasValue(2);
+        assertThat(tokenService.isTokenValid("forged")).isFalse();
+        assertThat(tokenService.getUserIdFromToken("forged")).isNull();
+    }
+
+    @Test
+    void missingTokenIsRejectedAsInvalid() {
+        for (String token : new String[]{null, "", "   "}) {
+            assertThatThrownBy(() -> tokenService.verifyToken(token))
+                    .isInstanceOfSatisfying(FirebaseAuthException.class,
+                            e -> assertThat(e.getAuthErrorCode()).isEqualTo(AuthErrorCode.INVALID_ID_TOKEN));
+        }
+
+        assertThat(tokenService.isTokenValid(null)).isFalse();
+        assertThat(tokenService.getUserIdFromToken(null)).isNull();
+        assertThat(verifications).hasValue(0);
+    }
+
+    @Test
+    void fullCacheMakesRoomForNewTokens() throws Exception {
+        ReflectionTestUtils.setField(tokenService, "cacheMaxSize", 10);
+
+        for (int i = 0; i < 25; i++) {
+            tokenService.verifyToken(TestFirebaseTokens.tokenFor("user" + i));
+        }
+
+        assertThat((int) tokenService.getCacheStats().get("size")).isLessThanOrEqualTo(10);
+        assertThat((long) tokenService.getCacheStats().get("evictions")).isPositive();
+    }
+
+    @Test
+    void disabledCacheVerifiesEveryTime() throws Exception {
+        ReflectionTestUtils.setField(tokenService, "cacheEnabled", false);
+        String token = TestFirebaseTokens.tokenFor("alice");
+
+        tokenService.verifyToken(token);
+        tokenService.verifyToken(token);
+
+        assertThat(verifications).hasValue(2);
+    }
+
+    @Test
+    void verificationsAreTimedPerOutcome() throws Exception {
+        Timer valid = meterRegistry.get("chat.auth.token.verify").tag("outcome", "valid").timer();
+        Timer invalid = meterRegistry.get("chat.auth.token.verify").tag("outcome", "invalid").timer();
+
+        String token = TestFirebaseTokens.tokenFor("alice");
+        tokenService.verifyToken(token);
+        tokenService.verifyToken(token);
+        assertThat(tokenService.isTokenValid("not a test token")).isFalse();
+
+        // Cache hits skip verification and are not timed
+        assertThat(valid.count()).isEqualTo(1);
+        assertThat(invalid.count()).isEqualTo(1);
+        assertThat(meterRegistry.get("chat.auth.token.verify").timers()).hasSize(2);
+    }
+}
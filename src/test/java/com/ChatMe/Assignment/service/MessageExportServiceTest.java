@@ -0,0 +1,143 @@
+package com.ChatMe.Assignment.service;
+
+import com.ChatMe.Assignment.model.Message;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MessageExportServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private MessageExportService exportService;
+
+    @BeforeEach
+    void createService() {
+        exportService = new MessageExportService(mongoTemplate, objectMapper);
+        ReflectionTestUtils.setField(exportService, "batchSize", 500);
+    }
+
+    @Test
+    void ndjsonWritesOneMessagePerLine() throws Exception {
+        when(mongoTemplate.stream(any(Query.class), eq(Message.class))).thenReturn(messages(3).stream());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exportService.export(MessageExportService.Direction.SENT, "alice", null, null,
+                MessageExportService.Format.NDJSON, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(count).isEqualTo(3);
+        assertThat(lines).hasSize(3);
+        assertThat(objectMapper.readTree(lines.get(0)).get("message").asText()).isEqualTo("m0");
+        assertThat(objectMapper.readTree(lines.get(2)).get("message").asText()).isEqualTo("m2");
+    }
+
+    @Test
+    void jsonWritesASingleArray() throws Exception {
+        when(mongoTemplate.stream(any(Query.class), eq(Message.class))).thenReturn(messages(2).stream());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(MessageExportService.Direction.RECEIVED, "bob", null, null,
+                MessageExportService.Format.JSON, out);
+
+        JsonNode array = objectMapper.readTree(out.toByteArray());
+        assertThat(array.isArray()).isTrue();
+        assertThat(array).extracting(node -> node.get("message").asText()).containsExactly("m0", "m1");
+    }
+
+    @Test
+    void emptyJsonExportIsAnEmptyArray() throws Exception {
+        when(mongoTemplate.stream(any(Query.class), eq(Message.class))).thenReturn(List.<Message>of().stream());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exportService.export(MessageExportService.Direction.SENT, "alice", null, null,
+                MessageExportService.Format.JSON, out);
+
+        assertThat(count).isZero();
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("[]");
+    }
+
+    @Test
+    void queryIsARangeScanOverTheDirectionNewestFirst() throws Exception {
+        when(mongoTemplate.stream(any(Query.class), eq(Message.class))).thenReturn(List.<Message>of().stream());
+
+        exportService.export(MessageExportService.Direction.RECEIVED, "bob", START, START.plusDays(1),
+                MessageExportService.Format.NDJSON, new ByteArrayOutputStream());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(query.capture(), eq(Message.class));
+        Document filter = query.getValue().getQueryObject();
+        assertThat(filter.get("receiverId")).isEqualTo("bob");
+        assertThat(filter.getList("$and", Document.class))
+                .containsExactly(new Document("timestamp", new Document("$gte", START).append("$lt", START.plusDays(1))));
+        assertThat(query.getValue().getSortObject()).isEqualTo(new Document("timestamp", -1));
+        assertThat(query.getValue().getMeta().getCursorBatchSize()).isEqualTo(500);
+    }
+
+    @Test
+    void unboundedExportFiltersOnTheUserOnly() throws Exception {
+        when(mongoTemplate.stream(any(Query.class), eq(Message.class))).thenReturn(List.<Message>of().stream());
+
+        exportService.export(MessageExportService.Direction.SENT, "alice", null, null,
+                MessageExportService.Format.NDJSON, new ByteArrayOutputStream());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(query.capture(), eq(Message.class));
+        assertThat(query.getValue().getQueryObject()).isEqualTo(new Document("senderId", "alice"));
+    }
+
+    @Test
+    void cursorIsClosedButTheOutputStreamIsNot() throws Exception {
+        AtomicBoolean cursorClosed = new AtomicBoolean();
+        AtomicBoolean outClosed = new AtomicBoolean();
+        when(mongoTemplate.stream(any(Query.class), eq(Message.class)))
+                .thenReturn(messages(2).stream().onClose(() -> cursorClosed.set(true)));
+        FilterOutputStream out = new FilterOutputStream(new ByteArrayOutputStream()) {
+            @Override
+            public void close() {
+                outClosed.set(true);
+            }
+        };
+
+        exportService.export(MessageExportService.Direction.SENT, "alice", null, null,
+                MessageExportService.Format.NDJSON, out);
+
+        assertThat(cursorClosed).isTrue();
+        assertThat(outClosed).isFalse();
+    }
+
+    private static List<Message> messages(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> {
+                    Message message = new Message("alice", "bob", "m" + i);
+                    message.setTimestamp(START.plusSeconds(i));
+                    return message;
+                })
+                .toList();
+    }
+}
@@ -0,0 +1,84 @@
+package com.ChatMe.Assignment.service;
+
+import com.ChatMe.Assignment.model.Message;
+import com.ChatMe.Assignment.repository.MessageRepository;
+import com.ChatMe.Assignment.repository.ReactiveMessageRepository;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MessageHistoryStoreTest {
+
+    private static final String CONVERSATION_ID = Message.createConversationId("alice", "bob");
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private final MessageRepository messageRepository = mock(MessageRepository.class);
+    private final ReactiveMessageRepository reactiveMessageRepository = mock(ReactiveMessageRepository.class);
+
+    @Test
+    void blockingStoreEmitsTheCursorInOrder() {
+        when(messageRepository.streamConversation(CONVERSATION_ID)).thenReturn(messages(5).stream());
+
+        List<Message> streamed = new BlockingMessageHistoryStore(messageRepository)
+                .streamConversation(CONVERSATION_ID).collectList().block();
+
+        assertThat(streamed).extracting(Message::getMessage).containsExactly("m0", "m1", "m2", "m3", "m4");
+    }
+
+    @Test
+    void blockingStoreReadsTheCursorOffTheSubscribingThread() {
+        AtomicReference<Thread> reader = new AtomicReference<>();
+        when(messageRepository.streamConversation(CONVERSATION_ID)).thenAnswer(invocation -> {
+            reader.set(Thread.currentThread());
+            return Stream.<Message>empty();
+        });
+
+        new BlockingMessageHistoryStore(messageRepository).streamConversation(CONVERSATION_ID).blockLast();
+
+        assertThat(reader.get()).isNotNull().isNotSameAs(Thread.currentThread());
+        assertThat(reader.get().getName()).startsWith("boundedElastic");
+    }
+
+    @Test
+    void blockingStoreClosesTheCursorWhenTheClientGoesAway() {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(messageRepository.streamConversation(CONVERSATION_ID))
+                .thenReturn(messages(100).stream().onClose(() -> closed.set(true)));
+
+        List<Message> firstTwo = new BlockingMessageHistoryStore(messageRepository)
+                .streamConversation(CONVERSATION_ID).take(2).collectList().block();
+
+        assertThat(firstTwo).hasSize(2);
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void reactiveStoreStreamsFromTheReactiveRepository() {
+        when(reactiveMessageRepository.streamConversation(CONVERSATION_ID)).thenReturn(Flux.fromIterable(messages(3)));
+        ReactiveMessageHistoryStore store = new ReactiveMessageHistoryStore(reactiveMessageRepository);
+
+        assertThat(store.streamConversation(CONVERSATION_ID).collectList().block())
+                .extracting(Message::getMessage).containsExactly("m0", "m1", "m2");
+        assertThat(store.getName()).isEqualTo("reactive");
+    }
+
+    private static List<Message> messages(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> {
+                    Message message = new Message("alice", "bob", "m" + i);
+                    message.setTimestamp(START.plusSeconds(i));
+                    return message;
+                })
+                .toList();
+    }
+}
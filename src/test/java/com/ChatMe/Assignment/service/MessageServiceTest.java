@@ -0,0 +1,203 @@
+package com.ChatMe.Assignment.service;
+
+import com.ChatMe.Assignment.model.Message;
+import com.ChatMe.Assignment.model.MessageCursor;
+import com.ChatMe.Assignment.model.MessagePage;
+import com.ChatMe.Assignment.repository.MessageRepository;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class MessageServiceTest {
+
+    private static final String CONVERSATION_ID = Message.createConversationId("alice", "bob");
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private final MessageRepository messageRepository = mock(MessageRepository.class);
+    private final MessageWriteBehindBuffer writeBehindBuffer = mock(MessageWriteBehindBuffer.class);
+    private final RecentMessageCache recentMessageCache = mock(RecentMessageCache.class);
+    private final ConversationSummaryService conversationSummaryService = mock(ConversationSummaryService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private MessageService messageService;
+
+    @BeforeEach
+    void createService() {
+        messageService = new MessageService(messageRepository, writeBehindBuffer, recentMessageCache,
+                conversationSummaryService, meterRegistry);
+        ReflectionTestUtils.setField(messageService, "maxPageSize", 100);
+        ReflectionTestUtils.setField(messageService, "recentLimit", 50);
+        messageService.registerMetrics();
+    }
+
+    @Test
+    void newestPageIsReturnedOldestFirstWithCursorToOlderMessages() {
+        // Query order is newest first; one extra message tells that an older page exists
+        List<Message> newestFirst = messages(5, 4, 3);
+        when(messageRepository.findLatestMessagesInConversation(CONVERSATION_ID, Limit.of(3))).thenReturn(newestFirst);
+
+        MessagePage page = messageService.getChatHistoryPage("alice", "bob", null, null, 2);
+
+        assertThat(page.getMessages()).extracting(Message::getMessage).containsExactly("m4", "m5");
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(MessageCursor.decode(page.getNextCursor()).id().toHexString()).isEqualTo(id(4));
+    }
+
+    @Test
+    void beforeCursorWalksBackInTime() {
+        Message oldestOnPage = message(4);
+        when(messageRepository.findMessagesInConversationBefore(eq(CONVERSATION_ID), eq(oldestOnPage.getTimestamp()),
+                eq(new ObjectId(id(4))), eq(Limit.of(3)))).thenReturn(messages(3, 2));
+
+        MessagePage page = messageService.getChatHistoryPage("bob", "alice",
+                MessageCursor.of(oldestOnPage).encode(), null, 2);
+
+        assertThat(page.getMessages()).extracting(Message::getMessage).containsExactly("m2", "m3");
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(MessageCursor.decode(page.getNextCursor()).id().toHexString()).isEqualTo(id(2));
+    }
+
+    @Test
+    void lastAfterPageKeepsCursorForPollingNewerMessages() {
+        Message newestSeen = message(1);
+        when(messageRepository.findMessagesInConversationAfter(eq(CONVERSATION_ID), any(), any(), eq(Limit.of(3))))
+                .thenReturn(messages(2, 3));
+
+        MessagePage page = messageService.getChatHistoryPage("alice", "bob", null, MessageCursor.of(newestSeen).encode(), 2);
+
+        assertThat(page.getMessages()).extracting(Message::getMessage).containsExactly("m2", "m3");
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(MessageCursor.decode(page.getNextCursor()).id().toHexString()).isEqualTo(id(3));
+    }
+
+    @Test
+    void emptyPageHasNoCursor() {
+        when(messageRepository.findMessagesInConversationAfter(eq(CONVERSATION_ID), any(), any(), any()))
+                .thenReturn(new ArrayList<>());
+
+        MessagePage page = messageService.getChatHistoryPage("alice", "bob", null, MessageCursor.of(message(3)).encode(), 10);
+
+        assertThat(page.getMessages()).isEmpty();
+        assertThat(page.getNextCursor()).isNull();
+        assertThat(page.isHasMore()).isFalse();
+    }
+
+    @Test
+    void pageSizeIsCappedAndBothCursorsAreRejected() {
+        ReflectionTestUtils.setField(messageService, "maxPageSize", 10);
+        when(messageRepository.findLatestMessagesInConversation(CONVERSATION_ID, Limit.of(11))).thenReturn(new ArrayList<>());
+
+        assertThat(messageService.getChatHistoryPage("alice", "bob", null, null, 1_000).getMessages()).isEmpty();
+
+        String cursor = MessageCursor.of(message(1)).encode();
+        assertThatThrownBy(() -> messageService.getChatHistoryPage("alice", "bob", cursor, cursor, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> messageService.getChatHistoryPage("alice", "bob", "not-a-cursor", null, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void recentHistoryIsLimitedInTheQuery() {
+        ReflectionTestUtils.setField(messageService, "recentLimit", 3);
+        when(recentMessageCache.get(CONVERSATION_ID)).thenReturn(null);
+        List<Message> newestFirst = messages(9, 8, 7);
+        when(messageRepository.findLatestMessagesInConversation(CONVERSATION_ID, Limit.of(3))).thenReturn(newestFirst);
+
+        assertThat(messageService.getRecentChatHistory("bob", "alice")).isEqualTo(newestFirst);
+        verify(messageRepository, never()).findByConversationIdOrderByTimestampAsc(any());
+    }
+
+    @Test
+    void recentHistoryOfHotConversationComesFromCache() {
+        List<Message> cached = messages(2, 1);
+        when(recentMessageCache.get(CONVERSATION_ID)).thenReturn(cached);
+
+        assertThat(messageService.getRecentChatHistory("alice", "bob")).isEqualTo(cached);
+        verifyNoInteractions(messageRepository);
+    }
+
+    @Test
+    void queuedMessageIsCachedAsPending() {
+        when(writeBehindBuffer.isEnabled()).thenReturn(true);
+        when(writeBehindBuffer.enqueue(any(Message.class))).thenReturn(true);
+
+        Message message = messageService.createMessage("alice", "bob", "hello");
+
+        assertThat(message.getId()).isNotNull();
+        verify(recentMessageCache).appendPending(message);
+        verify(conversationSummaryService).recordPendingMessage(message);
+        verify(messageRepository, never()).save(any(Message.class));
+    }
+
+    @Test
+    void messageIsSavedDirectlyWhenQueueIsFull() {
+        when(writeBehindBuffer.isEnabled()).thenReturn(true);
+        when(writeBehindBuffer.enqueue(any(Message.class))).thenReturn(false);
+        when(messageRepository.save(any(Message.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Message message = messageService.createMessage("alice", "bob", "hello");
+
+        verify(messageRepository).save(message);
+        verify(recentMessageCache).append(message);
+        verify(recentMessageCache, never()).appendPending(any());
+        verify(conversationSummaryService).recordMessage(message);
+    }
+
+    @Test
+    void saveTimersAreRegisteredUpFrontAndRecordEachPath() {
+        Timer writeBehind = meterRegistry.get("chat.messages.save").tag("path", "write-behind").timer();
+        Timer direct = meterRegistry.get("chat.messages.save").tag("path", "direct").timer();
+        Timer failed = meterRegistry.get("chat.messages.save").tag("path", "failed").timer();
+
+        when(messageRepository.save(any(Message.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        messageService.createMessage("alice", "bob", "one");
+        messageService.createMessage("alice", "bob", "two");
+        when(messageRepository.save(any(Message.class))).thenThrow(new IllegalStateException("down"));
+        assertThatThrownBy(() -> messageService.createMessage("alice", "bob", "three")).isInstanceOf(RuntimeException.class);
+
+        assertThat(writeBehind.count()).isZero();
+        assertThat(direct.count()).isEqualTo(2);
+        assertThat(failed.count()).isEqualTo(1);
+        assertThat(meterRegistry.get("chat.messages.save").timers()).hasSize(3);
+    }
+
+    /**
+     * Messages with the given sequence numbers, in the given order (mutable, like a repository result)
+     */
+    static List<Message> messages(int... sequence) {
+        List<Message> messages = new ArrayList<>();
+        for (int n : sequence) {
+            messages.add(message(n));
+        }
+        return messages;
+    }
+
+    static Message message(int n) {
+        Message message = new Message("alice", "bob", "m" + n);
+        message.setId(id(n));
+        message.setTimestamp(START.plusSeconds(n));
+        return message;
+    }
+
+    static String id(int n) {
+        return String.format("%024x", n);
+    }
+}
@@ -0,0 +1,161 @@
+package com.ChatMe.Assignment.service;
+
+import com.ChatMe.Assignment.event.MessagesPersistedEvent;
+import com.ChatMe.Assignment.model.Message;
+import com.ChatMe.Assignment.repository.MessageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MessageWriteBehindBufferTest {
+
+    private final MessageRepository messageRepository = mock(MessageRepository.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+    private MessageWriteBehindBuffer buffer;
+
+    @AfterEach
+    void stopBuffer() {
+        if (buffer != null) {
+            buffer.stop();
+        }
+    }
+
+    @Test
+    void disabledBufferRejectsMessages() {
+        buffer = buffer(false, 10, 20);
+
+        assertThat(buffer.isEnabled()).isFalse();
+        assertThat(buffer.enqueue(message("m1"))).isFalse();
+        verify(messageRepository, never()).insert(anyList());
+    }
+
+    @Test
+    void queuedMessagesAreInsertedInOneBatch() {
+        buffer = buffer(true, 3, 5_000);
+        List<Message> messages = List.of(message("m1"), message("m2"), message("m3"));
+
+        messages.forEach(message -> assertThat(buffer.enqueue(message)).isTrue());
+
+        // A full batch is flushed without waiting for the linger time
+        verify(messageRepository, timeout(2_000)).insert(messages);
+        MessagesPersistedEvent event = awaitEvent();
+        assertThat(event.getPersisted()).containsExactlyElementsOf(messages);
+        assertThat(event.getFailed()).isEmpty();
+        assertThat(buffer.getStats()).containsEntry("flushedBatches", 1L).containsEntry("flushedMessages", 3L);
+    }
+
+    @Test
+    void failedBulkInsertFallsBackToIndividualSaves() {
+        Message saved = message("m1");
+        Message rejected = message("m2");
+        when(messageRepository.insert(anyList())).thenThrow(new IllegalStateException("bulk write error"));
+        when(messageRepository.save(any(Message.class))).thenAnswer(invocation -> {
+            Message message = invocation.getArgument(0);
+            if (message == rejected) {
+                throw new IllegalStateException("write error");
+            }
+            return message;
+        });
+        buffer = buffer(true, 2, 5_000);
+
+        buffer.enqueue(saved);
+        buffer.enqueue(rejected);
+
+        MessagesPersistedEvent event = awaitEvent();
+        assertThat(event.getPersisted()).containsExactly(saved);
+        assertThat(event.getFailed()).containsExactly(rejected);
+        assertThat(buffer.getStats()).containsEntry("failed", 1L);
+    }
+
+    @Test
+    void stopFlushesQueuedMessages() {
+        buffer = buffer(true, 100, 200);
+        Message message = message("m1");
+
+        buffer.enqueue(message);
+        buffer.stop();
+
+        verify(messageRepository).insert(List.of(message));
+        assertThat(buffer.enqueue(message("m2"))).isFalse();
+        buffer = null;
+    }
+
+    @Test
+    void everyAcceptedMessageIsFlushedWhenStopRacesWithEnqueue() throws Exception {
+        Set<String> inserted = ConcurrentHashMap.newKeySet();
+        when(messageRepository.insert(anyList())).thenAnswer(invocation -> {
+            List<Message> batch = invocation.getArgument(0);
+            batch.forEach(message -> inserted.add(message.getId()));
+            return batch;
+        });
+        buffer = buffer(true, 10, 1);
+        Set<String> accepted = ConcurrentHashMap.newKeySet();
+        CountDownLatch started = new CountDownLatch(4);
+        ExecutorService producers = Executors.newFixedThreadPool(4);
+
+        for (int t = 0; t < 4; t++) {
+            int producer = t;
+            producers.execute(() -> {
+                started.countDown();
+                for (int i = 0; i < 5_000; i++) {
+                    String id = producer + "-" + i;
+                    if (buffer.enqueue(message(id))) {
+                        accepted.add(id);
+                    }
+                }
+            });
+        }
+        started.await();
+        buffer.stop();
+        producers.shutdown();
+        assertThat(producers.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // A message the buffer took is never stranded in the queue after the final drain
+        assertThat(inserted).containsAll(accepted);
+        buffer = null;
+    }
+
+    private MessagesPersistedEvent awaitEvent() {
+        ArgumentCaptor<MessagesPersistedEvent> event = ArgumentCaptor.forClass(MessagesPersistedEvent.class);
+        verify(eventPublisher, timeout(2_000)).publishEvent(event.capture());
+        return event.getValue();
+    }
+
+    private MessageWriteBehindBuffer buffer(boolean enabled, int batchSize, long maxLingerMs) {
+        MessageWriteBehindBuffer buffer = new MessageWriteBehindBuffer(messageRepository, eventPublisher, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(buffer, "enabled", enabled);
+        ReflectionTestUtils.setField(buffer, "batchSize", batchSize);
+        ReflectionTestUtils.setField(buffer, "maxLingerMs", maxLingerMs);
+        ReflectionTestUtils.setField(buffer, "queueCapacity", 100);
+        ReflectionTestUtils.setField(buffer, "offerTimeoutMs", 10L);
+        buffer.start();
+        return buffer;
+    }
+
+    private static Message message(String id) {
+        Message message = new Message("alice", "bob", "hello " + id);
+        message.setId(id);
+        return message;
+    }
+}
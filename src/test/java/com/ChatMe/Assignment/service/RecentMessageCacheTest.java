@@ -0,0 +1,173 @@
+package com.ChatMe.Assignment.service;
+
+import com.ChatMe.Assignment.event.MessagesPersistedEvent;
+import com.ChatMe.Assignment.model.Message;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecentMessageCacheTest {
+
+    private static final String CONVERSATION_ID = Message.createConversationId("alice", "bob");
+
+    private RecentMessageCache cache;
+
+    @BeforeEach
+    void createCache() {
+        cache = cache(3, 10_000, 64L * 1024 * 1024);
+    }
+
+    @Test
+    void populatedConversationIsServedAndKeptCurrent() {
+        cache.populate(CONVERSATION_ID, List.of(message(3), message(2), message(1)), cache.writeStamp(CONVERSATION_ID));
+
+        cache.append(message(4));
+
+        // Newest first, limited to the recent history size
+        assertThat(cache.get(CONVERSATION_ID)).extracting(Message::getMessage).containsExactly("m4", "m3", "m2");
+        assertThat(cache.getStats()).containsEntry("hits", 1L).containsEntry("conversations", 1);
+    }
+
+    @Test
+    void appendDoesNotCreateEntries() {
+        cache.append(message(1));
+
+        assertThat(cache.get(CONVERSATION_ID)).isNull();
+        assertThat(cache.getStats()).containsEntry("misses", 1L);
+    }
+
+    @Test
+    void loadThatRacedWithWriteIsNotCached() {
+        long stamp = cache.writeStamp(CONVERSATION_ID);
+        cache.append(message(2));
+
+        cache.populate(CONVERSATION_ID, List.of(message(1)), stamp);
+
+        assertThat(cache.get(CONVERSATION_ID)).isNull();
+    }
+
+    @Test
+    void conversationWithUnflushedWritesIsNotCached() {
+        Message pending = message(2);
+        cache.appendPending(pending);
+
+        // Loaded after the write-through but before the batch commit: the database is missing the message
+        cache.populate(CONVERSATION_ID, List.of(message(1)), cache.writeStamp(CONVERSATION_ID));
+        assertThat(cache.get(CONVERSATION_ID)).isNull();
+
+        long staleStamp = cache.writeStamp(CONVERSATION_ID);
+        cache.handleMessagesPersisted(persisted(pending));
+
+        // A load that started before the commit is still stale, a later one is not
+        cache.populate(CONVERSATION_ID, List.of(message(1)), staleStamp);
+        assertThat(cache.get(CONVERSATION_ID)).isNull();
+        cache.populate(CONVERSATION_ID, List.of(pending, message(1)), cache.writeStamp(CONVERSATION_ID));
+        assertThat(cache.get(CONVERSATION_ID)).containsExactly(pending, message(1));
+        assertThat(cache.getStats()).containsEntry("pendingConversations", 0);
+    }
+
+    @Test
+    void persistedEventBeforeWriteThroughLeavesNothingPending() {
+        Message pending = message(2);
+
+        cache.handleMessagesPersisted(persisted(pending));
+        cache.appendPending(pending);
+
+        assertThat(cache.getStats()).containsEntry("pendingConversations", 0);
+        cache.populate(CONVERSATION_ID, List.of(pending), cache.writeStamp(CONVERSATION_ID));
+        assertThat(cache.get(CONVERSATION_ID)).containsExactly(pending);
+    }
+
+    @Test
+    void conversationWithFailedWriteIsDropped() {
+        cache.populate(CONVERSATION_ID, List.of(message(1)), cache.writeStamp(CONVERSATION_ID));
+        Message lost = message(2);
+        cache.appendPending(lost);
+        assertThat(cache.get(CONVERSATION_ID)).contains(lost);
+
+        cache.handleMessagesPersisted(new MessagesPersistedEvent(this, List.of(), List.of(lost)));
+
+        assertThat(cache.get(CONVERSATION_ID)).isNull();
+        assertThat(cache.getStats()).containsEntry("pendingConversations", 0).containsEntry("estimatedBytes", 0L);
+    }
+
+    @Test
+    void conversationsAreEvictedWhenLimitsAreExceeded() {
+        RecentMessageCache small = cache(3, 16, 64L * 1024 * 1024);
+        for (int i = 0; i < 200; i++) {
+            String conversationId = "user" + i + "_zed";
+            small.populate(conversationId, List.of(message(i)), small.writeStamp(conversationId));
+        }
+
+        assertThat((int) small.getStats().get("conversations")).isLessThanOrEqualTo(16);
+        assertThat((long) small.getStats().get("evictions")).isGreaterThanOrEqualTo(184);
+
+        RecentMessageCache tiny = cache(3, 10_000, 16 * 1024);
+        for (int i = 0; i < 200; i++) {
+            String conversationId = "user" + i + "_zed";
+            tiny.populate(conversationId, List.of(message(i)), tiny.writeStamp(conversationId));
+        }
+        assertThat((long) tiny.getStats().get("estimatedBytes")).isLessThanOrEqualTo(16 * 1024);
+    }
+
+    @Test
+    void concurrentWritersKeepEveryConversationConsistent() throws Exception {
+        RecentMessageCache shared = cache(50, 10_000, 64L * 1024 * 1024);
+        List<String> conversationIds = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            String conversationId = Message.createConversationId("user" + i, "peer" + i);
+            conversationIds.add(conversationId);
+            shared.populate(conversationId, List.of(), shared.writeStamp(conversationId));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                int n = i;
+                writers.add(executor.submit(() -> {
+                    for (int j = 0; j < 50; j++) {
+                        Message message = new Message("user" + n, "peer" + n, String.valueOf(j));
+                        shared.append(message);
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (String conversationId : conversationIds) {
+            assertThat(shared.get(conversationId)).extracting(Message::getMessage).first().isEqualTo("49");
+            assertThat(shared.get(conversationId)).hasSize(50);
+        }
+    }
+
+    private static RecentMessageCache cache(int messagesPerConversation, int maxConversations, long maxBytes) {
+        RecentMessageCache cache = new RecentMessageCache();
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "messagesPerConversation", messagesPerConversation);
+        ReflectionTestUtils.setField(cache, "maxConversations", maxConversations);
+        ReflectionTestUtils.setField(cache, "maxBytes", maxBytes);
+        return cache;
+    }
+
+    private MessagesPersistedEvent persisted(Message message) {
+        return new MessagesPersistedEvent(this, List.of(message), List.of());
+    }
+
+    private static Message message(int n) {
+        return MessageServiceTest.message(n);
+    }
+}
@@ -0,0 +1,189 @@
+package com.ChatMe.Assignment.service;
+
+import com.ChatMe.Assignment.model.User;
+import com.ChatMe.Assignment.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserProfileCacheTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private UserProfileCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserProfileCache(userRepository);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxSize", 100);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 300L);
+        ReflectionTestUtils.setField(cache, "negativeTtlSeconds", 30L);
+    }
+
+    @Test
+    void profileIsLoadedOnce() {
+        when(userRepository.findById("alice")).thenReturn(Optional.of(user("alice", "Alice")));
+
+        assertThat(cache.get("alice")).map(User::getName).contains("Alice");
+        assertThat(cache.get("alice")).map(User::getName).contains("Alice");
+
+        verify(userRepository, times(1)).findById("alice");
+        assertThat(cache.getStats()).containsEntry("hits", 1L).containsEntry("misses", 1L);
+    }
+
+    @Test
+    void unknownUserIsCachedAsMissing() {
+        when(userRepository.findById("ghost")).thenReturn(Optional.empty());
+
+        assertThat(cache.get("ghost")).isEmpty();
+        assertThat(cache.get("ghost")).isEmpty();
+
+        verify(userRepository, times(1)).findById("ghost");
+        assertThat(cache.getStats()).containsEntry("negativeHits", 1L);
+    }
+
+    @Test
+    void expiredProfileIsReloaded() {
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 0L);
+        when(userRepository.findById("alice")).thenReturn(Optional.of(user("alice", "Alice")));
+
+        cache.get("alice");
+        cache.get("alice");
+
+        verify(userRepository, times(2)).findById("alice");
+        assertThat(cache.getIfCached("alice")).isNull();
+    }
+
+    @Test
+    void savedProfileIsWrittenThrough() {
+        cache.put(user("alice", "Alice"));
+
+        assertThat(cache.getIfCached("alice")).extracting(User::getName).isEqualTo("Alice");
+        assertThat(cache.get("alice")).map(User::getName).contains("Alice");
+        verify(userRepository, times(0)).findById("alice");
+    }
+
+    @Test
+    void profileSavedDuringALoadIsNotOverwritten() {
+        when(userRepository.findById("alice")).thenAnswer(invocation -> {
+            cache.put(user("alice", "Alice (new)"));
+            return Optional.of(user("alice", "Alice (old)"));
+        });
+
+        cache.get("alice");
+
+        assertThat(cache.getIfCached("alice")).extracting(User::getName).isEqualTo("Alice (new)");
+    }
+
+    @Test
+    void leastRecentlyUsedProfileIsEvicted() {
+        // Two profiles per segment
+        ReflectionTestUtils.setField(cache, "maxSize", 32);
+        List<String> uids = uidsInOneSegment(3);
+        cache.put(user(uids.get(0), "A"));
+        cache.put(user(uids.get(1), "B"));
+        cache.getIfCached(uids.get(0));
+
+        cache.put(user(uids.get(2), "C"));
+
+        assertThat(cache.getIfCached(uids.get(0))).isNotNull();
+        assertThat(cache.getIfCached(uids.get(1))).isNull();
+        assertThat(cache.getStats()).containsEntry("evictions", 1L);
+    }
+
+    @Test
+    void sizeLimitIsSharedAcrossSegments() {
+        for (int i = 0; i < 1000; i++) {
+            cache.put(user("user-" + i, "User " + i));
+        }
+
+        // Each segment holds its share of the 100 profiles
+        assertThat((int) cache.getStats().get("size")).isBetween(90, 112);
+        assertThat((long) cache.getStats().get("evictions")).isEqualTo(1000L - (int) cache.getStats().get("size"));
+    }
+
+    @Test
+    void concurrentLookupsAreAllCounted() throws Exception {
+        ReflectionTestUtils.setField(cache, "maxSize", 10_000);
+        when(userRepository.findById(any())).thenAnswer(invocation -> Optional.of(user(invocation.getArgument(0), "Someone")));
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> lookups = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                lookups.add(pool.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        cache.getDisplayName("user-" + (i % 50), "?");
+                    }
+                }));
+            }
+            for (Future<?> lookup : lookups) {
+                lookup.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Map<String, Object> stats = cache.getStats();
+        assertThat((long) stats.get("hits") + (long) stats.get("misses")).isEqualTo(8000L);
+        assertThat(stats).containsEntry("size", 50);
+    }
+
+    // uids whose stripes fall into the same segment (16 segments over 256 stripes)
+    private static List<String> uidsInOneSegment(int count) {
+        List<String> uids = new ArrayList<>();
+        for (int i = 0; uids.size() < count; i++) {
+            String uid = "u" + i;
+            if ((uid.hashCode() & 0x7fffffff) % 256 % 16 == 0) {
+                uids.add(uid);
+            }
+        }
+        return uids;
+    }
+
+    @Test
+    void displayNameFallsBackWhenProfileHasNoName() {
+        cache.put(user("alice", "Alice"));
+        cache.put(user("blank", " "));
+        when(userRepository.findById("ghost")).thenReturn(Optional.empty());
+
+        assertThat(cache.getDisplayName("alice", "client name")).isEqualTo("Alice");
+        assertThat(cache.getDisplayName("blank", "client name")).isEqualTo("client name");
+        assertThat(cache.getDisplayName("ghost", "client name")).isEqualTo("client name");
+    }
+
+    @Test
+    void disabledCacheAlwaysReadsTheDatabase() {
+        ReflectionTestUtils.setField(cache, "enabled", false);
+        when(userRepository.findById("alice")).thenReturn(Optional.of(user("alice", "Alice")));
+
+        cache.put(user("alice", "Alice"));
+        cache.get("alice");
+        cache.get("alice");
+
+        verify(userRepository, times(2)).findById("alice");
+        assertThat(cache.getIfCached("alice")).isNull();
+    }
+
+    private static User user(String uid, String name) {
+        User user = new User();
+        user.setUid(uid);
+        user.setName(name);
+        return user;
+    }
+}
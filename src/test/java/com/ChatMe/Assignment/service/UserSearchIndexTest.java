@@ -0,0 +1,150 @@
+package com.ChatMe.Assignment.service;
+
+import com.ChatMe.Assignment.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserSearchIndexTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private UserSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new UserSearchIndex(mongoTemplate);
+        ReflectionTestUtils.setField(index, "enabled", true);
+        ReflectionTestUtils.setField(index, "rebuildBatchSize", 100);
+    }
+
+    @Test
+    void searchFallsBackUntilTheIndexIsBuilt() {
+        assertThat(index.isReady()).isFalse();
+        assertThat(index.search("ann", null, 0, 10)).isNull();
+
+        rebuildWith(user("1", "Ann", "ann@example.com"));
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(uids(index.search("ann", null, 0, 10))).containsExactly("1");
+    }
+
+    @Test
+    void failedRebuildLeavesTheIndexNotReady() {
+        when(mongoTemplate.stream(any(Query.class), eq(User.class))).thenThrow(new IllegalStateException("down"));
+
+        index.rebuild();
+
+        assertThat(index.isReady()).isFalse();
+        assertThat(index.search("ann", null, 0, 10)).isNull();
+    }
+
+    @Test
+    void matchesAreRanked() {
+        rebuildWith(
+                user("email-substring", "Zed", "xxann@example.com"),
+                user("email-prefix", "Yves", "ann.y@example.com"),
+                user("substring", "Joanna", "j@example.com"),
+                user("word-prefix", "Mary Ann Lee", "m@example.com"),
+                user("prefix", "Annabel", "a@example.com"),
+                user("exact", "Ann", "b@example.com"));
+
+        assertThat(uids(index.search("Ann", null, 0, 10)))
+                .containsExactly("exact", "prefix", "word-prefix", "substring", "email-prefix", "email-substring");
+    }
+
+    @Test
+    void queryIsNormalized() {
+        rebuildWith(user("1", "José  Álvarez", "jose@example.com"));
+
+        assertThat(uids(index.search("  JOSE alv ", null, 0, 10))).containsExactly("1");
+    }
+
+    @Test
+    void longQueryMustOccurAsAWhole() {
+        // Every trigram of the query occurs in the name, but not the query itself
+        rebuildWith(user("1", "abcd cdab", "x@example.com"));
+
+        assertThat(uids(index.search("abcdab", null, 0, 10))).isEmpty();
+        assertThat(uids(index.search("cdab", null, 0, 10))).containsExactly("1");
+    }
+
+    @Test
+    void resultsArePagedWithoutTheExcludedUser() {
+        rebuildWith(
+                user("1", "Sam A", "1@example.com"),
+                user("2", "Sam B", "2@example.com"),
+                user("3", "Sam C", "3@example.com"),
+                user("4", "Sam D", "4@example.com"));
+
+        UserSearchIndex.Result first = index.search("sam", "2", 0, 2);
+        UserSearchIndex.Result second = index.search("sam", "2", 1, 2);
+
+        assertThat(first.total()).isEqualTo(3);
+        assertThat(uids(first)).containsExactly("1", "3");
+        assertThat(uids(second)).containsExactly("4");
+        assertThat(uids(index.search("sam", "2", 5, 2))).isEmpty();
+    }
+
+    @Test
+    void savedUserReplacesItsPreviousEntry() {
+        rebuildWith(user("1", "Robert", "rob@example.com"));
+
+        index.index(user("1", "Bobby", "rob@example.com"));
+
+        assertThat(uids(index.search("robert", null, 0, 10))).isEmpty();
+        assertThat(uids(index.search("bobby", null, 0, 10))).containsExactly("1");
+        assertThat(uids(index.search("rob@", null, 0, 10))).containsExactly("1");
+    }
+
+    @Test
+    void usersSavedDuringRebuildAreKept() {
+        when(mongoTemplate.stream(any(Query.class), eq(User.class))).thenAnswer(invocation -> {
+            // Saved while the cursor is being read; the rebuilt index doesn't contain it yet
+            index.index(user("2", "Late Lucy", "lucy@example.com"));
+            return Stream.of(user("1", "Early Eve", "eve@example.com"));
+        });
+
+        index.rebuild();
+
+        assertThat(uids(index.search("lucy", null, 0, 10))).containsExactly("2");
+        assertThat(uids(index.search("eve", null, 0, 10))).containsExactly("1");
+    }
+
+    @Test
+    void disabledIndexIsNeverReady() {
+        ReflectionTestUtils.setField(index, "enabled", false);
+
+        index.rebuild();
+        index.index(user("1", "Ann", "ann@example.com"));
+
+        assertThat(index.search("ann", null, 0, 10)).isNull();
+    }
+
+    private void rebuildWith(User... users) {
+        when(mongoTemplate.stream(any(Query.class), eq(User.class))).thenReturn(Stream.of(users));
+        index.rebuild();
+    }
+
+    private static List<String> uids(UserSearchIndex.Result result) {
+        return result.users().stream().map(User::getUid).toList();
+    }
+
+    private static User user(String uid, String name, String email) {
+        User user = new User();
+        user.setUid(uid);
+        user.setName(name);
+        user.setEmail(email);
+        return user;
+    }
+}
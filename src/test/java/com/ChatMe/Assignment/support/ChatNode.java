@@ -0,0 +1,70 @@
+package com.ChatMe.Assignment.support;
+
+import com.ChatMe.Assignment.AssignmentApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One instance of the application on a random port, with Firebase and MongoDB replaced by
+ * {@link OfflineTestBeans}. Lets a test run several nodes against each other in one JVM.
+ */
+public final class ChatNode implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+    private final List<StompTestClient> clients = new ArrayList<>();
+
+    private ChatNode(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    /**
+     * Start a node with the offline properties plus the given ones ("key=value")
+     */
+    public static ChatNode start(String... properties) {
+        List<String> args = new ArrayList<>();
+        for (String property : OfflineTestBeans.PROPERTIES) {
+            args.add("--" + property);
+        }
+        args.add("--server.port=0");
+        args.add("--spring.main.banner-mode=off");
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(AssignmentApplication.class, OfflineTestBeans.class)
+                .run(args.toArray(String[]::new));
+        return new ChatNode(context);
+    }
+
+    public int getPort() {
+        return ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public SimpMessagingTemplate getMessagingTemplate() {
+        return context.getBean("brokerMessagingTemplate", SimpMessagingTemplate.class);
+    }
+
+    /**
+     * Connect a STOMP client to this node, authenticated as uid
+     */
+    public StompTestClient connect(String uid) {
+        StompTestClient client = StompTestClient.connect(getPort(), uid);
+        clients.add(client);
+        return client;
+    }
+
+    @Override
+    public void close() {
+        clients.forEach(StompTestClient::close);
+        context.close();
+    }
+}
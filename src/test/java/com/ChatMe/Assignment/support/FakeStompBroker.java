@@ -0,0 +1,217 @@
+package com.ChatMe.Assignment.support;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimal external STOMP broker for relay tests: accepts every CONNECT and delivers each SEND,
+ * headers included, to the subscriptions with exactly the same destination on any connection.
+ * Enough for the relay's system session and per-client sessions; no acks, transactions or heart-beats.
+ */
+public final class FakeStompBroker implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final Thread acceptor;
+    private final List<Connection> connections = new CopyOnWriteArrayList<>();
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final List<String> sentDestinations = new CopyOnWriteArrayList<>();
+    private final AtomicLong messageIds = new AtomicLong();
+
+    public FakeStompBroker() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        acceptor = new Thread(this::accept, "fake-stomp-broker");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Destinations of every SEND frame received so far
+     */
+    public List<String> getSentDestinations() {
+        return List.copyOf(sentDestinations);
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Connection connection : connections) {
+            connection.close();
+        }
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Connection connection = new Connection(serverSocket.accept());
+                connections.add(connection);
+                Thread reader = new Thread(connection::read, "fake-stomp-broker-connection");
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void handle(Connection connection, Frame frame) throws IOException {
+        switch (frame.command) {
+            case "CONNECT", "STOMP" -> connection.write("CONNECTED", Map.of("version", "1.2", "heart-beat", "0,0"), new byte[0]);
+            case "SUBSCRIBE" -> subscriptions.add(new Subscription(connection, frame.headers.get("id"), frame.headers.get("destination")));
+            case "UNSUBSCRIBE" -> subscriptions.removeIf(subscription ->
+                    subscription.connection == connection && subscription.id.equals(frame.headers.get("id")));
+            case "SEND" -> route(frame);
+            case "DISCONNECT" -> {
+                reply(connection, frame);
+                connection.close();
+                return;
+            }
+            default -> {
+            }
+        }
+        reply(connection, frame);
+    }
+
+    private void route(Frame frame) {
+        String destination = frame.headers.get("destination");
+        sentDestinations.add(destination);
+        for (Subscription subscription : subscriptions) {
+            if (!subscription.destination.equals(destination)) {
+                continue;
+            }
+            // Custom headers pass through, as with a real broker
+            Map<String, String> headers = new LinkedHashMap<>(frame.headers);
+            headers.remove("receipt");
+            headers.remove("content-length");
+            headers.put("subscription", subscription.id);
+            headers.put("message-id", String.valueOf(messageIds.incrementAndGet()));
+            try {
+                subscription.connection.write("MESSAGE", headers, frame.body);
+            } catch (IOException e) {
+                subscription.connection.close();
+            }
+        }
+    }
+
+    private static void reply(Connection connection, Frame frame) throws IOException {
+        String receipt = frame.headers.get("receipt");
+        if (receipt != null) {
+            connection.write("RECEIPT", Map.of("receipt-id", receipt), new byte[0]);
+        }
+    }
+
+    private record Subscription(Connection connection, String id, String destination) {
+    }
+
+    private record Frame(String command, Map<String, String> headers, byte[] body) {
+    }
+
+    private final class Connection {
+
+        private final Socket socket;
+        private final OutputStream out;
+
+        private Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.out = socket.getOutputStream();
+        }
+
+        private void read() {
+            try (InputStream in = new BufferedInputStream(socket.getInputStream())) {
+                Frame frame;
+                while ((frame = readFrame(in)) != null) {
+                    handle(this, frame);
+                }
+            } catch (IOException e) {
+                // Connection closed
+            } finally {
+                close();
+            }
+        }
+
+        private synchronized void write(String command, Map<String, String> headers, byte[] body) throws IOException {
+            StringBuilder frame = new StringBuilder(command).append('\n');
+            headers.forEach((name, value) -> frame.append(name).append(':').append(value).append('\n'));
+            frame.append("content-length:").append(body.length).append("\n\n");
+            out.write(frame.toString().getBytes(StandardCharsets.UTF_8));
+            out.write(body);
+            out.write(0);
+            out.flush();
+        }
+
+        private void close() {
+            subscriptions.removeIf(subscription -> subscription.connection == this);
+            connections.remove(this);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+    }
+
+    private static Frame readFrame(InputStream in) throws IOException {
+        // Skip heart-beats and blank lines between frames
+        int b;
+        do {
+            b = in.read();
+            if (b < 0) {
+                return null;
+            }
+        } while (b == '\n' || b == '\r');
+
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        line.write(b);
+        String command = readLine(in, line);
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        String header;
+        while (!(header = readLine(in, new ByteArrayOutputStream())).isEmpty()) {
+            int colon = header.indexOf(':');
+            // The first occurrence of a repeated header wins
+            headers.putIfAbsent(header.substring(0, colon), header.substring(colon + 1));
+        }
+
+        byte[] body;
+        String contentLength = headers.get("content-length");
+        if (contentLength != null) {
+            body = in.readNBytes(Integer.parseInt(contentLength));
+            in.read(); // NUL terminator
+        } else {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            while ((b = in.read()) > 0) {
+                buffer.write(b);
+            }
+            body = buffer.toByteArray();
+        }
+        return new Frame(command, headers, body);
+    }
+
+    private static String readLine(InputStream in, ByteArrayOutputStream line) throws IOException {
+        int b;
+        while ((b = in.read()) >= 0 && b != '\n') {
+            if (b != '\r') {
+                line.write(b);
+            }
+        }
+        if (b < 0) {
+            throw new IOException("Connection closed");
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+}
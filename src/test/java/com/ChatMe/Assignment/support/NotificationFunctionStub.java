@@ -0,0 +1,112 @@
+package com.ChatMe.Assignment.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local HTTP server in place of the Firebase notification function. Records the JSON body of
+ * every request and answers 200 {"success":true}, or the statuses queued with {@link #respondWith}.
+ * Requests can be held back with {@link #hold()} until the returned latch is released.
+ */
+public final class NotificationFunctionStub implements AutoCloseable {
+
+    private static final byte[] RESPONSE = "{\"success\":true}".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final BlockingQueue<Map<String, Object>> requests = new LinkedBlockingQueue<>();
+    private final ConcurrentLinkedQueue<Integer> statuses = new ConcurrentLinkedQueue<>();
+
+    private volatile CountDownLatch gate;
+
+    public NotificationFunctionStub() throws IOException {
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "notification-function-stub");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/sendNotificationHTTP", exchange -> {
+            try (InputStream body = exchange.getRequestBody()) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> payload = objectMapper.readValue(body, Map.class);
+                requests.add(payload);
+            }
+
+            CountDownLatch held = gate;
+            if (held != null) {
+                try {
+                    held.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            Integer status = statuses.poll();
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status != null ? status : 200, RESPONSE.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(RESPONSE);
+            }
+        });
+        server.start();
+    }
+
+    public String baseUrl() {
+        InetSocketAddress address = server.getAddress();
+        return "http://" + address.getHostString() + ":" + address.getPort();
+    }
+
+    /**
+     * Answer the next requests with these statuses, then with 200 again
+     */
+    public void respondWith(int... statusCodes) {
+        for (int status : statusCodes) {
+            statuses.add(status);
+        }
+    }
+
+    /**
+     * Hold every request until the returned latch is counted down
+     */
+    public CountDownLatch hold() {
+        CountDownLatch latch = new CountDownLatch(1);
+        gate = latch;
+        return latch;
+    }
+
+    /**
+     * Next request body received, or null if none arrives within the timeout
+     */
+    public Map<String, Object> nextRequest(long timeout, TimeUnit unit) throws InterruptedException {
+        return requests.poll(timeout, unit);
+    }
+
+    @Override
+    public void close() {
+        CountDownLatch held = gate;
+        if (held != null) {
+            held.countDown();
+        }
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,72 @@
+package com.ChatMe.Assignment.support;
+
+import com.ChatMe.Assignment.repository.ConversationSummaryRepository;
+import com.ChatMe.Assignment.repository.MessageRepository;
+import com.ChatMe.Assignment.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Mockito.reset;
+
+/**
+ * Base class for tests against the running application (HTTP and STOMP on a random port)
+ * with Firebase and MongoDB replaced by {@link OfflineTestBeans}. Subclasses that use the same
+ * properties share one application context.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "firebase.admin.enabled=false",
+        "spring.data.mongodb.repositories.type=none",
+        "chat.mongo.create-indexes=false",
+        "chat.migration.conversation-id.enabled=false",
+        "chat.migration.conversation-summaries.enabled=false",
+        "chat.users.search.enabled=false",
+        "firebase.functions.base-url=http://127.0.0.1:9",
+        "firebase.notifications.max-attempts=1"
+})
+@Import(OfflineTestBeans.class)
+public abstract class OfflineApplicationTest {
+
+    @LocalServerPort
+    protected int port;
+
+    @Autowired
+    protected MessageRepository messageRepository;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected ConversationSummaryRepository conversationSummaryRepository;
+
+    @Autowired
+    protected SimpMessagingTemplate messagingTemplate;
+
+    private final List<StompTestClient> clients = new ArrayList<>();
+
+    /**
+     * Connect a STOMP client over native WebSocket, authenticated as uid
+     */
+    protected StompTestClient connect(String uid) {
+        StompTestClient client = StompTestClient.connect(port, uid);
+        clients.add(client);
+        return client;
+    }
+
+    @AfterEach
+    void closeClientsAndResetRepositories() {
+        clients.forEach(StompTestClient::close);
+        clients.clear();
+
+        reset(messageRepository);
+        reset(userRepository);
+        reset(conversationSummaryRepository);
+        OfflineTestBeans.stubSaves(messageRepository);
+    }
+}
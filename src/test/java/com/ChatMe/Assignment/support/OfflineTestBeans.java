@@ -0,0 +1,84 @@
+package com.ChatMe.Assignment.support;
+
+import com.ChatMe.Assignment.model.Message;
+import com.ChatMe.Assignment.repository.ConversationSummaryRepository;
+import com.ChatMe.Assignment.repository.MessageRepository;
+import com.ChatMe.Assignment.repository.UserRepository;
+import com.ChatMe.Assignment.service.FirebaseTokenVerifier;
+import org.bson.types.ObjectId;
+import org.mockito.Mockito;
+import org.springframework.context.annotation.Bean;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stand-ins for Firebase and the MongoDB repositories, so the application can run in a test
+ * without a service account or a database. Repositories are Mockito mocks; saves return the
+ * message with an id, everything else returns Mockito's defaults unless a test stubs it.
+ *
+ * Not a @Configuration, so the application's component scan never picks it up; tests import
+ * it explicitly (see {@link OfflineApplicationTest}).
+ */
+public class OfflineTestBeans {
+
+    /**
+     * Properties that keep the application away from Firebase and MongoDB
+     */
+    public static final String[] PROPERTIES = {
+            "firebase.admin.enabled=false",
+            "spring.data.mongodb.repositories.type=none",
+            "chat.mongo.create-indexes=false",
+            "chat.migration.conversation-id.enabled=false",
+            "chat.migration.conversation-summaries.enabled=false",
+            "chat.users.search.enabled=false",
+            // Nothing listens here, so push notifications fail fast instead of leaving the machine
+            "firebase.functions.base-url=http://127.0.0.1:9",
+            "firebase.notifications.max-attempts=1"
+    };
+
+    @Bean
+    FirebaseTokenVerifier firebaseTokenVerifier() {
+        return TestFirebaseTokens.verifier();
+    }
+
+    @Bean
+    MessageRepository messageRepository() {
+        MessageRepository repository = Mockito.mock(MessageRepository.class);
+        stubSaves(repository);
+        return repository;
+    }
+
+    @Bean
+    UserRepository userRepository() {
+        return Mockito.mock(UserRepository.class);
+    }
+
+    @Bean
+    ConversationSummaryRepository conversationSummaryRepository() {
+        return Mockito.mock(ConversationSummaryRepository.class);
+    }
+
+    /**
+     * Make save and insert return what they were given, with ids assigned like MongoDB would
+     */
+    @SuppressWarnings("unchecked")
+    public static void stubSaves(MessageRepository repository) {
+        when(repository.save(any(Message.class))).thenAnswer(invocation -> withId(invocation.getArgument(0)));
+        when(repository.insert(anyList())).thenAnswer(invocation -> {
+            List<Message> messages = invocation.getArgument(0);
+            messages.forEach(OfflineTestBeans::withId);
+            return messages;
+        });
+    }
+
+    private static Message withId(Message message) {
+        if (message.getId() == null) {
+            message.setId(new ObjectId().toHexString());
+        }
+        return message;
+    }
+}
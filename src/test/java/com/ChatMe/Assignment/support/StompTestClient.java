@@ -0,0 +1,159 @@
+package com.ChatMe.Assignment.support;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A STOMP client for tests, connected to the application's native WebSocket endpoint with a
+ * {@link TestFirebaseTokens test token}. Payloads are exchanged as JSON maps.
+ */
+public final class StompTestClient {
+
+    /**
+     * Payload sent by {@link #subscribe} probes; never handed to the test
+     */
+    public static final Map<String, Object> PROBE = Map.of("probe", true);
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private final String uid;
+    private final WebSocketStompClient stompClient;
+    private final StompSession session;
+
+    private StompTestClient(String uid, WebSocketStompClient stompClient, StompSession session) {
+        this.uid = uid;
+        this.stompClient = stompClient;
+        this.session = session;
+    }
+
+    public static StompTestClient connect(int port, String uid) {
+        WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+
+        WebSocketHttpHeaders handshakeHeaders = new WebSocketHttpHeaders();
+        handshakeHeaders.add(HttpHeaders.AUTHORIZATION, "Bearer " + TestFirebaseTokens.tokenFor(uid));
+        try {
+            StompSession session = stompClient
+                    .connectAsync("ws://localhost:" + port + "/ws", handshakeHeaders, new StompHeaders(),
+                            new StompSessionHandlerAdapter() {
+                            })
+                    .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            return new StompTestClient(uid, stompClient, session);
+        } catch (Exception e) {
+            stompClient.stop();
+            throw new IllegalStateException("Cannot connect " + uid + " on port " + port, e);
+        }
+    }
+
+    public String getUid() {
+        return uid;
+    }
+
+    /**
+     * Subscribe to destination and return the payloads that arrive on it.
+     *
+     * The broker registers a subscription asynchronously and sends no receipt for it, so this runs
+     * probe (which must send {@link #PROBE} to the destination from the server side) until a probe
+     * comes back. Fails if none does, i.e. if the destination can't be delivered at all.
+     */
+    public BlockingQueue<Map<String, Object>> subscribe(String destination, Runnable probe) {
+        BlockingQueue<Map<String, Object>> payloads = new LinkedBlockingQueue<>();
+        CountDownLatch active = new CountDownLatch(1);
+
+        session.subscribe(destination, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return Map.class;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public void handleFrame(StompHeaders headers, Object payload) {
+                if (PROBE.equals(payload)) {
+                    active.countDown();
+                } else {
+                    payloads.add((Map<String, Object>) payload);
+                }
+            }
+        });
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        try {
+            do {
+                probe.run();
+                if (active.await(50, TimeUnit.MILLISECONDS)) {
+                    return payloads;
+                }
+            } while (System.nanoTime() < deadline);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw new AssertionError("Nothing was delivered to " + uid + " on " + destination);
+    }
+
+    /**
+     * Send a JSON payload to an application destination ("/app/...")
+     */
+    public void send(String destination, Object payload) {
+        session.send(destination, payload);
+    }
+
+    /**
+     * Wait for the next payload on a subscription, failing the test if none arrives
+     */
+    public static Map<String, Object> next(BlockingQueue<Map<String, Object>> payloads) {
+        try {
+            Map<String, Object> payload = payloads.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            if (payload == null) {
+                throw new AssertionError("No message within " + TIMEOUT_SECONDS + "s");
+            }
+            return payload;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Interrupted while waiting for a message", e);
+        }
+    }
+
+    /**
+     * Wait for the next payload matching a field value, skipping others (e.g. unrelated presence updates)
+     */
+    public static Map<String, Object> next(BlockingQueue<Map<String, Object>> payloads, String field, Object value) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (System.nanoTime() < deadline) {
+            try {
+                Map<String, Object> payload = payloads.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (payload != null && value.equals(payload.get(field))) {
+                    return payload;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        throw new AssertionError("No message with " + field + "=" + value + " within " + TIMEOUT_SECONDS + "s");
+    }
+
+    public void close() {
+        try {
+            if (session.isConnected()) {
+                session.disconnect();
+            }
+        } finally {
+            stompClient.stop();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.ChatMe.Assignment.support;
+
+import com.ChatMe.Assignment.service.FirebaseTokenVerifier;
+import com.google.firebase.ErrorCode;
+import com.google.firebase.auth.AuthErrorCode;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseToken;
+
+import java.lang.reflect.Constructor;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Offline Firebase ID tokens for tests. A test token is "test:" followed by the uid; the verifier
+ * decodes it without a network call and rejects anything else like an invalid token.
+ */
+public final class TestFirebaseTokens {
+
+    private static final String PREFIX = "test:";
+
+    // FirebaseToken has no public constructor; the SDK builds it from the decoded claims
+    private static final Constructor<FirebaseToken> CONSTRUCTOR;
+
+    static {
+        try {
+            CONSTRUCTOR = FirebaseToken.class.getDeclaredConstructor(Map.class);
+            CONSTRUCTOR.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private TestFirebaseTokens() {
+    }
+
+    public static String tokenFor(String uid) {
+        return PREFIX + uid;
+    }
+
+    /**
+     * A decoded token for uid that expires at the given time
+     */
+    public static FirebaseToken decoded(String uid, Instant expiresAt) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("sub", uid);
+        claims.put("exp", expiresAt.getEpochSecond());
+        try {
+            return CONSTRUCTOR.newInstance(claims);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create FirebaseToken", e);
+        }
+    }
+
+    public static FirebaseTokenVerifier verifier() {
+        return idToken -> {
+            if (idToken == null || !idToken.startsWith(PREFIX)) {
+                throw new FirebaseAuthException(ErrorCode.INVALID_ARGUMENT, "Not a test token", null, null,
+                        AuthErrorCode.INVALID_ID_TOKEN);
+            }
+            return decoded(idToken.substring(PREFIX.length()), Instant.now().plus(1, ChronoUnit.HOURS));
+        };
+    }
+}
@@ -0,0 +1,103 @@
+package com.ChatMe.Assignment.websocket;
+
+import com.ChatMe.Assignment.support.ChatNode;
+import com.ChatMe.Assignment.support.StompTestClient;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.ChatMe.Assignment.support.StompTestClient.next;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two application nodes whose simple brokers are connected through the in-process backplane
+ */
+class BrokerBackplaneTest {
+
+    private static ChatNode nodeA;
+    private static ChatNode nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = ChatNode.start("chat.broker.mode=backplane", "chat.broker.node-id=node-a");
+        nodeB = ChatNode.start("chat.broker.mode=backplane", "chat.broker.node-id=node-b");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeA != null) {
+            nodeA.close();
+        }
+        if (nodeB != null) {
+            nodeB.close();
+        }
+    }
+
+    @Test
+    void chatMessageReachesReceiverOnTheOtherNodeOnce() throws Exception {
+        String aliceId = "alice-" + UUID.randomUUID();
+        String bobId = "bob-" + UUID.randomUUID();
+
+        StompTestClient alice = nodeB.connect(aliceId);
+        StompTestClient bob = nodeA.connect(bobId);
+        BlockingQueue<Map<String, Object>> aliceMessages = subscribeToMessages(nodeB, alice);
+        BlockingQueue<Map<String, Object>> bobMessages = subscribeToMessages(nodeA, bob);
+
+        bob.send("/app/chat", Map.of("senderId", bobId, "receiverId", aliceId, "message", "hello from node A"));
+
+        assertThat(next(aliceMessages)).containsEntry("senderId", bobId).containsEntry("message", "hello from node A");
+        assertThat(next(bobMessages)).containsEntry("receiverId", aliceId);
+        // Nothing came back around the backplane
+        assertThat(aliceMessages.poll(500, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(bobMessages.poll(100, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void topicMessagesReachSubscribersOnEveryNodeOnce() throws Exception {
+        String topic = "/topic/chat/room-" + UUID.randomUUID();
+
+        StompTestClient carol = nodeA.connect("carol-" + UUID.randomUUID());
+        StompTestClient dave = nodeB.connect("dave-" + UUID.randomUUID());
+        BlockingQueue<Map<String, Object>> carolMessages =
+                carol.subscribe(topic, () -> nodeA.getMessagingTemplate().convertAndSend(topic, StompTestClient.PROBE));
+        BlockingQueue<Map<String, Object>> daveMessages =
+                dave.subscribe(topic, () -> nodeB.getMessagingTemplate().convertAndSend(topic, StompTestClient.PROBE));
+
+        nodeA.getMessagingTemplate().convertAndSend(topic, Map.of("from", "node-a"));
+        assertThat(next(carolMessages)).containsEntry("from", "node-a");
+        assertThat(next(daveMessages)).containsEntry("from", "node-a");
+
+        nodeB.getMessagingTemplate().convertAndSend(topic, Map.of("from", "node-b"));
+        assertThat(next(daveMessages)).containsEntry("from", "node-b");
+        assertThat(next(carolMessages)).containsEntry("from", "node-b");
+
+        assertThat(carolMessages.poll(500, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(daveMessages.poll(100, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void userMessagesAreNotPublishedForLocalUsers() throws Exception {
+        String aliceId = "alice-" + UUID.randomUUID();
+
+        StompTestClient alice = nodeA.connect(aliceId);
+        BlockingQueue<Map<String, Object>> aliceMessages = subscribeToMessages(nodeA, alice);
+        // A second session of the same user on the other node only gets what is sent there
+        StompTestClient aliceElsewhere = nodeB.connect(aliceId);
+        BlockingQueue<Map<String, Object>> elsewhereMessages = subscribeToMessages(nodeB, aliceElsewhere);
+
+        nodeA.getMessagingTemplate().convertAndSendToUser(aliceId, "/queue/messages", Map.of("n", 1));
+
+        assertThat(next(aliceMessages)).containsEntry("n", 1);
+        assertThat(elsewhereMessages.poll(500, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    private static BlockingQueue<Map<String, Object>> subscribeToMessages(ChatNode node, StompTestClient client) {
+        return client.subscribe("/user/queue/messages",
+                () -> node.getMessagingTemplate().convertAndSendToUser(client.getUid(), "/queue/messages", StompTestClient.PROBE));
+    }
+}
@@ -0,0 +1,84 @@
+package com.ChatMe.Assignment.websocket;
+
+import com.ChatMe.Assignment.support.ChatNode;
+import com.ChatMe.Assignment.support.FakeStompBroker;
+import com.ChatMe.Assignment.support.StompTestClient;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.ChatMe.Assignment.support.StompTestClient.next;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Two application nodes relaying to one external STOMP broker
+ */
+class BrokerRelayTest {
+
+    private static FakeStompBroker broker;
+    private static ChatNode nodeA;
+    private static ChatNode nodeB;
+
+    @BeforeAll
+    static void startNodes() throws Exception {
+        broker = new FakeStompBroker();
+        nodeA = startNode();
+        nodeB = startNode();
+    }
+
+    @AfterAll
+    static void stopNodes() throws Exception {
+        if (nodeA != null) {
+            nodeA.close();
+        }
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (broker != null) {
+            broker.close();
+        }
+    }
+
+    @Test
+    void chatMessageReachesUserQueueOfReceiverOnTheOtherNode() throws Exception {
+        String aliceId = "alice-" + UUID.randomUUID();
+        String bobId = "bob-" + UUID.randomUUID();
+
+        StompTestClient alice = nodeB.connect(aliceId);
+        StompTestClient bob = nodeA.connect(bobId);
+        BlockingQueue<Map<String, Object>> aliceMessages = subscribeToMessages(nodeB, alice);
+        BlockingQueue<Map<String, Object>> bobMessages = subscribeToMessages(nodeA, bob);
+
+        bob.send("/app/chat", Map.of("senderId", bobId, "receiverId", aliceId, "message", "hello over the relay"));
+
+        assertThat(next(aliceMessages)).containsEntry("senderId", bobId).containsEntry("message", "hello over the relay");
+        assertThat(next(bobMessages)).containsEntry("receiverId", aliceId);
+        assertThat(aliceMessages.poll(500, TimeUnit.MILLISECONDS)).isNull();
+
+        // User destinations reach the broker as per-session queues
+        assertThat(broker.getSentDestinations()).anyMatch(destination -> destination.startsWith("/queue/messages-user"));
+    }
+
+    private static ChatNode startNode() {
+        ChatNode node = ChatNode.start(
+                "chat.broker.mode=relay",
+                "chat.broker.relay.host=127.0.0.1",
+                "chat.broker.relay.port=" + broker.getPort());
+        StompBrokerRelayMessageHandler relay = node.getBean(StompBrokerRelayMessageHandler.class);
+        await().atMost(Duration.ofSeconds(10)).until(relay::isBrokerAvailable);
+        return node;
+    }
+
+    private static BlockingQueue<Map<String, Object>> subscribeToMessages(ChatNode node, StompTestClient client) {
+        return client.subscribe("/user/queue/messages",
+                () -> node.getMessagingTemplate().convertAndSendToUser(client.getUid(), "/queue/messages", StompTestClient.PROBE));
+    }
+}
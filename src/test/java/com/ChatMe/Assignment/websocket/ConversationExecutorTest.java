@@ -0,0 +1,206 @@
+package com.ChatMe.Assignment.websocket;
+
+import com.ChatMe.Assignment.config.ExecutionModeConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConversationExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ConversationExecutor executor;
+
+    @AfterEach
+    void stop() {
+        if (executor != null) {
+            executor.stop();
+        }
+    }
+
+    @Test
+    void tasksOfOneConversationRunInOrder() throws Exception {
+        start(true, 4);
+        List<Integer> order = new CopyOnWriteArrayList<>();
+
+        for (int i = 0; i < 200; i++) {
+            int n = i;
+            executor.execute("alice_bob", () -> order.add(n));
+        }
+        executor.submit("alice_bob", () -> null).get(5, TimeUnit.SECONDS);
+
+        assertThat(order).containsExactlyElementsOf(IntStream.range(0, 200).boxed().toList());
+    }
+
+    @Test
+    void blockedConversationDoesNotHoldUpOtherStripes() throws Exception {
+        start(true, 2);
+        String first = "a_b";
+        String second = otherStripe(first, 2);
+        CountDownLatch release = new CountDownLatch(1);
+
+        executor.execute(first, () -> await(release));
+        CompletableFuture<String> other = executor.submit(second, () -> "done");
+
+        assertThat(other.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+        release.countDown();
+    }
+
+    @Test
+    void failingTaskDoesNotStopItsStripe() throws Exception {
+        start(true, 1);
+
+        executor.execute("alice_bob", () -> {
+            throw new IllegalStateException("boom");
+        });
+        CompletableFuture<String> failed = executor.submit("alice_bob", () -> {
+            throw new IllegalArgumentException("bad");
+        });
+
+        assertThat(executor.submit("alice_bob", () -> "next").get(5, TimeUnit.SECONDS)).isEqualTo("next");
+        assertThatThrownBy(failed::get).isInstanceOf(ExecutionException.class).hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(executor.getStats()).containsEntry("failed", 1L);
+    }
+
+    @Test
+    void queuedTasksStillRunWhenStopped() {
+        start(true, 1);
+        List<Integer> ran = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute("alice_bob", () -> await(release));
+        for (int i = 0; i < 10; i++) {
+            int n = i;
+            executor.execute("alice_bob", () -> ran.add(n));
+        }
+
+        release.countDown();
+        executor.stop();
+
+        assertThat(ran).hasSize(10);
+    }
+
+    @Test
+    void tasksAreRejectedAfterStop() {
+        start(true, 2);
+        executor.stop();
+
+        assertThatThrownBy(() -> executor.execute("alice_bob", () -> {
+        })).isInstanceOf(RejectedExecutionException.class);
+        // Callers waiting on the result are not left hanging
+        CompletableFuture<String> result = executor.submit("alice_bob", () -> "never");
+        assertThat(result).isCompletedExceptionally();
+        assertThatThrownBy(result::join).hasCauseInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    void fullStripeRejectsAfterTheOfferTimeout() {
+        start(true, 1, 1, 50);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute("alice_bob", () -> {
+            running.countDown();
+            await(release);
+        });
+        await(running);
+        executor.execute("alice_bob", () -> {
+        });
+
+        try {
+            assertThatThrownBy(() -> executor.execute("alice_bob", () -> {
+            })).isInstanceOf(RejectedExecutionException.class);
+            CompletableFuture<String> result = executor.submit("alice_bob", () -> "never");
+            assertThat(result).isCompletedExceptionally();
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void everyAcceptedTaskRunsWhenStopRacesWithExecute() throws Exception {
+        start(true, 4);
+        Set<Integer> accepted = ConcurrentHashMap.newKeySet();
+        Set<Integer> ran = ConcurrentHashMap.newKeySet();
+        CountDownLatch started = new CountDownLatch(4);
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+
+        for (int t = 0; t < 4; t++) {
+            int caller = t;
+            callers.execute(() -> {
+                started.countDown();
+                for (int i = 0; i < 5_000; i++) {
+                    int n = caller * 5_000 + i;
+                    try {
+                        executor.execute("c" + (n % 64), () -> ran.add(n));
+                        accepted.add(n);
+                    } catch (RejectedExecutionException e) {
+                        // stopped, or the stripe stayed full
+                    }
+                }
+            });
+        }
+        started.await();
+        executor.stop();
+        callers.shutdown();
+        assertThat(callers.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // Accepted tasks are never left behind in a drained stripe, and rejected ones never run
+        assertThat(ran).isEqualTo(accepted);
+        executor = null;
+    }
+
+    @Test
+    void disabledExecutorRunsTasksInline() throws Exception {
+        start(false, 2);
+        Thread caller = Thread.currentThread();
+
+        assertThat(executor.submit("alice_bob", Thread::currentThread).get()).isSameAs(caller);
+        assertThat(executor.isEnabled()).isFalse();
+    }
+
+    private void start(boolean enabled, int stripes) {
+        start(enabled, stripes, 1000, 1000);
+    }
+
+    private void start(boolean enabled, int stripes, int queueCapacity, long offerTimeoutMs) {
+        executor = new ConversationExecutor(new ExecutionModeConfig(), meterRegistry);
+        ReflectionTestUtils.setField(executor, "enabled", enabled);
+        ReflectionTestUtils.setField(executor, "stripeCount", stripes);
+        ReflectionTestUtils.setField(executor, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(executor, "offerTimeoutMs", offerTimeoutMs);
+        executor.start();
+    }
+
+    private static String otherStripe(String conversationId, int stripes) {
+        int stripe = (conversationId.hashCode() & 0x7fffffff) % stripes;
+        for (int i = 0; ; i++) {
+            String candidate = "c" + i;
+            if ((candidate.hashCode() & 0x7fffffff) % stripes != stripe) {
+                return candidate;
+            }
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
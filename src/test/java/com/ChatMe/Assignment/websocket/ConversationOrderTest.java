@@ -0,0 +1,48 @@
+package com.ChatMe.Assignment.websocket;
+
+import com.ChatMe.Assignment.support.OfflineApplicationTest;
+import com.ChatMe.Assignment.support.StompTestClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.socket.messaging.StompSubProtocolHandler;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+
+import static com.ChatMe.Assignment.support.StompTestClient.next;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConversationOrderTest extends OfflineApplicationTest {
+
+    @Autowired
+    private SubProtocolWebSocketHandler subProtocolWebSocketHandler;
+
+    @Test
+    void framesOfASessionReachTheInboundChannelInOrder() {
+        assertThat(subProtocolWebSocketHandler.getProtocolHandlers())
+                .filteredOn(StompSubProtocolHandler.class::isInstance)
+                .singleElement()
+                .matches(handler -> ((StompSubProtocolHandler) handler).isPreserveReceiveOrder());
+    }
+
+    @Test
+    void messagesOfAChatAreDeliveredInTheOrderTheyWereSent() {
+        String aliceId = "alice-" + UUID.randomUUID();
+        String bobId = "bob-" + UUID.randomUUID();
+
+        StompTestClient alice = connect(aliceId);
+        StompTestClient bob = connect(bobId);
+        BlockingQueue<Map<String, Object>> messages = bob.subscribe("/user/queue/messages",
+                () -> messagingTemplate.convertAndSendToUser(bobId, "/queue/messages", StompTestClient.PROBE));
+
+        for (int i = 0; i < 50; i++) {
+            alice.send("/app/chat", Map.of("senderId", aliceId, "receiverId", bobId, "message", "m" + i));
+        }
+
+        for (int i = 0; i < 50; i++) {
+            assertThat(next(messages)).containsEntry("message", "m" + i);
+        }
+    }
+}
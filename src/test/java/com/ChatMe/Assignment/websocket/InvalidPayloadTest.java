@@ -0,0 +1,35 @@
+package com.ChatMe.Assignment.websocket;
+
+import com.ChatMe.Assignment.model.Message;
+import com.ChatMe.Assignment.support.OfflineApplicationTest;
+import com.ChatMe.Assignment.support.StompTestClient;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+
+import static com.ChatMe.Assignment.support.StompTestClient.next;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class InvalidPayloadTest extends OfflineApplicationTest {
+
+    @Test
+    void invalidChatFrameIsDroppedAndSessionKeepsWorking() {
+        String aliceId = "alice-" + UUID.randomUUID();
+        String bobId = "bob-" + UUID.randomUUID();
+
+        StompTestClient alice = connect(aliceId);
+        BlockingQueue<Map<String, Object>> messages = alice.subscribe("/user/queue/messages",
+                () -> messagingTemplate.convertAndSendToUser(aliceId, "/queue/messages", StompTestClient.PROBE));
+
+        alice.send("/app/chat", Map.of("senderId", aliceId, "message", "no receiver"));
+        alice.send("/app/chat", Map.of("senderId", aliceId, "receiverId", bobId, "message", "valid"));
+
+        assertThat(next(messages)).containsEntry("message", "valid");
+        verify(messageRepository, times(1)).save(any(Message.class));
+    }
+}
@@ -0,0 +1,107 @@
+package com.ChatMe.Assignment.websocket;
+
+import com.ChatMe.Assignment.model.Message;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MessageFanoutTest {
+
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private Message message;
+
+    @BeforeEach
+    void createMessage() {
+        when(messagingTemplate.getUserDestinationPrefix()).thenReturn("/user/");
+        message = new Message("alice", "bob", "hello");
+        message.setId("0123456789abcdef01234567");
+    }
+
+    @Test
+    void defaultProfileSendsOneSerializedPayloadToEveryDestination() throws Exception {
+        MessageFanout fanout = fanout("user-queue", "conversation-topic", "user-topic");
+
+        fanout.fanout(message);
+
+        ArgumentCaptor<String> destinations = ArgumentCaptor.forClass(String.class);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<org.springframework.messaging.Message<byte[]>> sent =
+                ArgumentCaptor.forClass(org.springframework.messaging.Message.class);
+        verify(messagingTemplate, times(5)).send(destinations.capture(), sent.capture());
+
+        assertThat(destinations.getAllValues()).containsExactly(
+                "/user/bob/queue/messages", "/user/alice/queue/messages",
+                "/topic/chat/alice_bob", "/topic/chat/alice", "/topic/chat/bob");
+
+        byte[] payload = sent.getAllValues().get(0).getPayload();
+        assertThat(sent.getAllValues()).allSatisfy(frame -> {
+            assertThat(frame.getPayload()).isSameAs(payload);
+            assertThat(frame.getHeaders().get(MessageHeaders.CONTENT_TYPE)).isEqualTo(MimeTypeUtils.APPLICATION_JSON);
+        });
+        JsonNode json = objectMapper.readTree(payload);
+        assertThat(json.get("message").asText()).isEqualTo("hello");
+        assertThat(json.get("senderId").asText()).isEqualTo("alice");
+    }
+
+    @Test
+    void userQueueProfileSendsToParticipantQueuesOnly() throws Exception {
+        MessageFanout fanout = fanout("user-queue");
+
+        fanout.fanout(message);
+
+        verify(messagingTemplate).send(eq("/user/bob/queue/messages"), any());
+        verify(messagingTemplate).send(eq("/user/alice/queue/messages"), any());
+        verify(messagingTemplate, times(2)).send(any(String.class), any());
+        assertThat(fanout.getStats()).containsEntry("USER_QUEUE", 2L).containsEntry("USER_TOPIC", 0L);
+    }
+
+    @Test
+    void userIdsAreEncodedLikeConvertAndSendToUser() throws Exception {
+        MessageFanout fanout = fanout("user-queue");
+        Message slashed = new Message("team/alice", "bob", "hello");
+
+        fanout.fanout(slashed);
+
+        verify(messagingTemplate).send(eq("/user/team%2Falice/queue/messages"), any());
+    }
+
+    @Test
+    void failedDestinationDoesNotStopTheOthers() throws Exception {
+        MessageFanout fanout = fanout("conversation-topic", "user-topic");
+        doThrow(new IllegalStateException("broker unavailable")).when(messagingTemplate).send(eq("/topic/chat/alice_bob"), any());
+
+        fanout.fanout(message);
+
+        verify(messagingTemplate).send(eq("/topic/chat/alice"), any());
+        verify(messagingTemplate).send(eq("/topic/chat/bob"), any());
+        assertThat(fanout.getStats()).containsEntry("failures", 1L);
+    }
+
+    private MessageFanout fanout(String... destinations) {
+        MessageFanout fanout = new MessageFanout(messagingTemplate, objectMapper, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(fanout, "destinations", List.of(destinations));
+        fanout.init();
+        return fanout;
+    }
+}
@@ -0,0 +1,79 @@
+package com.ChatMe.Assignment.websocket;
+
+import com.ChatMe.Assignment.support.OfflineApplicationTest;
+import com.ChatMe.Assignment.support.StompTestClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+
+import static com.ChatMe.Assignment.support.StompTestClient.next;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PresenceRegistryTest extends OfflineApplicationTest {
+
+    @Autowired
+    private PresenceRegistry presenceRegistry;
+
+    @Test
+    void watcherReceivesStatusChangesOfWatchedUser() {
+        String aliceId = "alice-" + UUID.randomUUID();
+        String bobId = "bob-" + UUID.randomUUID();
+
+        StompTestClient alice = connect(aliceId);
+        BlockingQueue<Map<String, Object>> presence = subscribeToPresence(alice);
+
+        alice.send("/app/presence/watch", Map.of("userIds", List.of(bobId)));
+        Map<String, Object> snapshot = next(presence, "type", "snapshot");
+        assertThat(snapshot.get("statuses")).isEqualTo(Map.of(bobId, PresenceRegistry.OFFLINE));
+
+        StompTestClient bob = connect(bobId);
+        assertThat(next(presence, "userId", bobId)).containsEntry("status", PresenceRegistry.ONLINE);
+
+        bob.send("/app/status", Map.of("userId", bobId, "status", "away"));
+        assertThat(next(presence, "userId", bobId)).containsEntry("status", "away");
+
+        bob.close();
+        assertThat(next(presence, "userId", bobId)).containsEntry("status", PresenceRegistry.OFFLINE);
+        assertThat(presenceRegistry.isOnline(bobId)).isFalse();
+    }
+
+    @Test
+    void chatParticipantsBecomeContacts() {
+        String aliceId = "alice-" + UUID.randomUUID();
+        String bobId = "bob-" + UUID.randomUUID();
+
+        StompTestClient alice = connect(aliceId);
+        StompTestClient bob = connect(bobId);
+        BlockingQueue<Map<String, Object>> presence = subscribeToPresence(alice);
+
+        presenceRegistry.recordConversation(aliceId, bobId);
+        bob.close();
+
+        assertThat(next(presence, "userId", bobId)).containsEntry("status", PresenceRegistry.OFFLINE);
+    }
+
+    @Test
+    void usersWithoutWatchersGetNoUpdates() {
+        String aliceId = "alice-" + UUID.randomUUID();
+        String bobId = "bob-" + UUID.randomUUID();
+
+        StompTestClient alice = connect(aliceId);
+        BlockingQueue<Map<String, Object>> presence = subscribeToPresence(alice);
+
+        connect(bobId).close();
+        // The snapshot reply goes through the same queue, so anything about bob would have arrived before it
+        alice.send("/app/presence/watch", Map.of("userIds", List.of()));
+        next(presence, "type", "snapshot");
+
+        assertThat(presence).noneMatch(update -> bobId.equals(update.get("userId")));
+    }
+
+    private BlockingQueue<Map<String, Object>> subscribeToPresence(StompTestClient client) {
+        return client.subscribe("/user/queue/presence",
+                () -> messagingTemplate.convertAndSendToUser(client.getUid(), "/queue/presence", StompTestClient.PROBE));
+    }
+}
@@ -0,0 +1,71 @@
+package com.ChatMe.Assignment.websocket;
+
+import com.ChatMe.Assignment.model.ConversationSummary;
+import com.ChatMe.Assignment.model.Message;
+import com.ChatMe.Assignment.support.OfflineApplicationTest;
+import com.ChatMe.Assignment.support.StompTestClient;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+
+import static com.ChatMe.Assignment.support.StompTestClient.next;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Read receipts over STOMP: the reader sends /app/read, the other participant hears it on /user/queue/receipts
+ */
+class ReadReceiptTest extends OfflineApplicationTest {
+
+    @Test
+    void senderIsToldThatTheirMessagesWereRead() {
+        String aliceId = "alice-" + UUID.randomUUID();
+        String bobId = "bob-" + UUID.randomUUID();
+        String conversationId = Message.createConversationId(aliceId, bobId);
+        LocalDateTime readUpTo = LocalDateTime.of(2026, 1, 1, 12, 0);
+        when(conversationSummaryRepository.markRead(bobId, conversationId, readUpTo)).thenReturn(Optional.of(
+                new ConversationSummary(ConversationSummary.createId(bobId, conversationId), bobId, aliceId,
+                        conversationId, "m1", aliceId, "hello", readUpTo, 0, readUpTo)));
+
+        StompTestClient alice = connect(aliceId);
+        StompTestClient bob = connect(bobId);
+        BlockingQueue<Map<String, Object>> receipts = alice.subscribe("/user/queue/receipts",
+                () -> messagingTemplate.convertAndSendToUser(aliceId, "/queue/receipts", StompTestClient.PROBE));
+
+        Map<String, Object> read = new HashMap<>();
+        read.put("readerId", bobId);
+        read.put("peerId", aliceId);
+        read.put("readUpTo", readUpTo.toString());
+        bob.send("/app/read", read);
+
+        assertThat(next(receipts))
+                .containsEntry("type", "read")
+                .containsEntry("readerId", bobId)
+                .containsEntry("conversationId", conversationId)
+                .containsEntry("readUpTo", readUpTo.toString());
+    }
+
+    @Test
+    void receiptForSomeoneElseIsIgnored() {
+        String aliceId = "alice-" + UUID.randomUUID();
+        String bobId = "bob-" + UUID.randomUUID();
+        StompTestClient mallory = connect("mallory-" + UUID.randomUUID());
+
+        mallory.send("/app/read", Map.of("readerId", bobId, "peerId", aliceId));
+        // A later frame of the same session is handled, so the first one has been too
+        mallory.send("/app/read", Map.of("readerId", mallory.getUid(), "peerId", aliceId));
+
+        verify(conversationSummaryRepository, timeout(5_000)).markRead(eq(mallory.getUid()), any(), any());
+        verify(conversationSummaryRepository, never()).markRead(eq(bobId), any(), any());
+    }
+}
@@ -0,0 +1,57 @@
+package com.ChatMe.Assignment.websocket;
+
+import com.ChatMe.Assignment.dto.StatusRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimedJsonMessageConverterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TimedJsonMessageConverter converter = new TimedJsonMessageConverter(new ObjectMapper(), meterRegistry);
+
+    @Test
+    void payloadIsParsedAndTimedPerType() {
+        StatusRequest first = (StatusRequest) converter.fromMessage(json("{\"userId\":\"alice\",\"status\":\"away\"}"), StatusRequest.class);
+        converter.fromMessage(json("{\"userId\":\"bob\",\"status\":\"online\"}"), StatusRequest.class);
+
+        assertThat(first).isEqualTo(new StatusRequest("alice", "away"));
+        Timer success = meterRegistry.get("chat.inbound.parse").tag("payload", "StatusRequest").tag("outcome", "success").timer();
+        assertThat(success.count()).isEqualTo(2);
+    }
+
+    @Test
+    void failedParseIsTimedAsFailure() {
+        assertThatThrownBy(() -> converter.fromMessage(json("{\"userId\":\"alice\"}"), StatusRequest.class))
+                .isInstanceOf(MessageConversionException.class);
+
+        Timer failure = meterRegistry.get("chat.inbound.parse").tag("payload", "StatusRequest").tag("outcome", "failure").timer();
+        assertThat(failure.count()).isEqualTo(1);
+    }
+
+    @Test
+    void timersAreBuiltOncePerPayloadType() {
+        for (int i = 0; i < 10; i++) {
+            converter.fromMessage(json("{\"userId\":\"alice\",\"status\":\"away\"}"), StatusRequest.class);
+        }
+
+        // One success and one failure timer, both registered on first use
+        assertThat(meterRegistry.get("chat.inbound.parse").timers()).hasSize(2);
+    }
+
+    private static Message<byte[]> json(String body) {
+        return MessageBuilder.withPayload(body.getBytes(StandardCharsets.UTF_8))
+                .setHeader("contentType", MimeTypeUtils.APPLICATION_JSON)
+                .build();
+    }
+}
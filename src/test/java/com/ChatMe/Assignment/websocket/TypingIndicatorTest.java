@@ -0,0 +1,32 @@
+package com.ChatMe.Assignment.websocket;
+
+import com.ChatMe.Assignment.support.OfflineApplicationTest;
+import com.ChatMe.Assignment.support.StompTestClient;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+
+import static com.ChatMe.Assignment.support.StompTestClient.next;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TypingIndicatorTest extends OfflineApplicationTest {
+
+    @Test
+    void sendingAMessageEndsTheSendersTypingState() {
+        String aliceId = "alice-" + UUID.randomUUID();
+        String bobId = "bob-" + UUID.randomUUID();
+
+        StompTestClient alice = connect(aliceId);
+        StompTestClient bob = connect(bobId);
+        BlockingQueue<Map<String, Object>> typing = bob.subscribe("/user/queue/typing",
+                () -> messagingTemplate.convertAndSendToUser(bobId, "/queue/typing", StompTestClient.PROBE));
+
+        alice.send("/app/typing", Map.of("senderId", aliceId, "receiverId", bobId, "isTyping", true));
+        assertThat(next(typing)).containsEntry("senderId", aliceId).containsEntry("isTyping", "true");
+
+        alice.send("/app/chat", Map.of("senderId", aliceId, "receiverId", bobId, "message", "done typing"));
+        assertThat(next(typing)).containsEntry("senderId", aliceId).containsEntry("isTyping", "false");
+    }
+}
@@ -0,0 +1,100 @@
+package com.ChatMe.Assignment.websocket;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class TypingIndicatorThrottleTest {
+
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private TypingIndicatorThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        throttle = new TypingIndicatorThrottle(messagingTemplate);
+        ReflectionTestUtils.setField(throttle, "typingTimeoutMs", 60_000L);
+        ReflectionTestUtils.setField(throttle, "maxFramesPerSecond", 2);
+        throttle.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        throttle.stop();
+    }
+
+    @Test
+    void onlyStateChangesAreForwarded() {
+        throttle.onTypingFrame(null, "alice", "bob", true);
+        throttle.onTypingFrame(null, "alice", "bob", true);
+        throttle.onTypingFrame(null, "alice", "bob", false);
+        throttle.onTypingFrame(null, "alice", "bob", false);
+
+        verify(messagingTemplate).convertAndSendToUser("bob", "/queue/typing", typing("alice", true));
+        verify(messagingTemplate).convertAndSendToUser("bob", "/queue/typing", typing("alice", false));
+        verify(messagingTemplate, times(2)).convertAndSendToUser(anyString(), anyString(), any(Object.class));
+    }
+
+    @Test
+    void framesAboveTheRateCapAreDropped() {
+        throttle.onTypingFrame("session-1", "alice", "bob", true);
+        throttle.onTypingFrame("session-1", "alice", "carol", true);
+        throttle.onTypingFrame("session-1", "alice", "dave", true);
+
+        verify(messagingTemplate, never()).convertAndSendToUser(eq("dave"), anyString(), any(Object.class));
+        assertThat(throttle.getStats()).containsEntry("rateLimited", 1L);
+    }
+
+    @Test
+    void stopFrameIsAppliedAfterTheRateCapIsReached() {
+        throttle.onTypingFrame("session-1", "alice", "bob", true);
+        throttle.onTypingFrame("session-1", "alice", "bob", true);
+        throttle.onTypingFrame("session-1", "alice", "bob", true);
+
+        throttle.onTypingFrame("session-1", "alice", "bob", false);
+
+        verify(messagingTemplate).convertAndSendToUser("bob", "/queue/typing", typing("alice", false));
+        assertThat(throttle.getStats()).containsEntry("activeTypers", 0);
+    }
+
+    @Test
+    void clearEndsTypingStateOnlyWhenTyping() {
+        throttle.clear("alice", "bob");
+        verify(messagingTemplate, never()).convertAndSendToUser(anyString(), anyString(), any(Object.class));
+
+        throttle.onTypingFrame(null, "alice", "bob", true);
+        throttle.clear("alice", "bob");
+
+        verify(messagingTemplate).convertAndSendToUser("bob", "/queue/typing", typing("alice", false));
+        assertThat(throttle.getStats()).containsEntry("activeTypers", 0);
+    }
+
+    @Test
+    void typingExpiresWithoutRefreshingFrames() {
+        throttle.stop();
+        ReflectionTestUtils.setField(throttle, "typingTimeoutMs", 100L);
+        throttle.start();
+
+        throttle.onTypingFrame(null, "alice", "bob", true);
+
+        verify(messagingTemplate, timeout(2000)).convertAndSendToUser("bob", "/queue/typing", typing("alice", false));
+        assertThat(throttle.getStats()).containsEntry("expired", 1L);
+    }
+
+    private static Map<String, String> typing(String senderId, boolean isTyping) {
+        return Map.of("senderId", senderId, "isTyping", String.valueOf(isTyping));
+    }
+}
@@ -0,0 +1,43 @@
+package com.ChatMe.Assignment.websocket;
+
+import com.ChatMe.Assignment.support.OfflineApplicationTest;
+import com.ChatMe.Assignment.support.StompTestClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+
+import static com.ChatMe.Assignment.support.StompTestClient.next;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The user-queue-only routing profile, where personal queues are the sole delivery path
+ */
+@TestPropertySource(properties = "chat.fanout.destinations=user-queue")
+class UserQueueFanoutTest extends OfflineApplicationTest {
+
+    @Test
+    void bothParticipantsReceiveTheMessageOnTheirQueue() {
+        String aliceId = "alice-" + UUID.randomUUID();
+        String bobId = "bob-" + UUID.randomUUID();
+
+        StompTestClient alice = connect(aliceId);
+        StompTestClient bob = connect(bobId);
+        BlockingQueue<Map<String, Object>> aliceMessages = subscribeToMessages(alice);
+        BlockingQueue<Map<String, Object>> bobMessages = subscribeToMessages(bob);
+
+        alice.send("/app/chat", Map.of("senderId", aliceId, "receiverId", bobId, "message", "hello bob"));
+
+        Map<String, Object> received = next(bobMessages);
+        assertThat(received).containsEntry("senderId", aliceId).containsEntry("receiverId", bobId)
+                .containsEntry("message", "hello bob").containsKey("id");
+        assertThat(next(aliceMessages)).containsEntry("id", received.get("id"));
+    }
+
+    private BlockingQueue<Map<String, Object>> subscribeToMessages(StompTestClient client) {
+        return client.subscribe("/user/queue/messages",
+                () -> messagingTemplate.convertAndSendToUser(client.getUid(), "/queue/messages", StompTestClient.PROBE));
+    }
+}
@@ -0,0 +1,63 @@
+package com.ChatMe.Assignment.websocket;
+
+import com.ChatMe.Assignment.model.Message;
+import com.ChatMe.Assignment.support.OfflineApplicationTest;
+import com.ChatMe.Assignment.support.StompTestClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+
+import static com.ChatMe.Assignment.support.StompTestClient.next;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Chat messages with write-behind enabled: what the sender hears back once a batch is flushed
+ */
+@TestPropertySource(properties = "chat.messages.write-behind.enabled=true")
+class WriteBehindDeliveryTest extends OfflineApplicationTest {
+
+    @Test
+    void senderReceivesAckOnceMessageIsPersisted() {
+        String aliceId = "alice-" + UUID.randomUUID();
+        String bobId = "bob-" + UUID.randomUUID();
+
+        StompTestClient alice = connect(aliceId);
+        BlockingQueue<Map<String, Object>> acks = subscribe(alice, "/queue/acks");
+
+        alice.send("/app/chat", Map.of("senderId", aliceId, "receiverId", bobId, "message", "hello"));
+
+        Map<String, Object> ack = next(acks);
+        assertThat(ack).containsEntry("status", "persisted").containsEntry("receiverId", bobId);
+        verify(messageRepository, timeout(2_000)).insert(anyList());
+    }
+
+    @Test
+    void senderIsToldWhenMessageCannotBePersisted() {
+        String aliceId = "alice-" + UUID.randomUUID();
+        String bobId = "bob-" + UUID.randomUUID();
+        when(messageRepository.insert(anyList())).thenThrow(new IllegalStateException("bulk write error"));
+        doThrow(new IllegalStateException("write error")).when(messageRepository)
+                .save(argThat((Message message) -> aliceId.equals(message.getSenderId())));
+
+        StompTestClient alice = connect(aliceId);
+        BlockingQueue<Map<String, Object>> acks = subscribe(alice, "/queue/acks");
+
+        alice.send("/app/chat", Map.of("senderId", aliceId, "receiverId", bobId, "message", "hello"));
+
+        assertThat(next(acks)).containsEntry("status", "failed").containsEntry("receiverId", bobId);
+    }
+
+    private BlockingQueue<Map<String, Object>> subscribe(StompTestClient client, String queue) {
+        return client.subscribe("/user" + queue,
+                () -> messagingTemplate.convertAndSendToUser(client.getUid(), queue, StompTestClient.PROBE));
+    }
+}